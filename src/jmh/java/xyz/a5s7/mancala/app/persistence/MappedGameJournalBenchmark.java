@@ -0,0 +1,84 @@
+package xyz.a5s7.mancala.app.persistence;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Moves per second recorded by {@link MappedGameJournal}, each appended and synced as {@code GameService} does,
+ * per durability mode with 1 and 16 threads. With group commit the synced modes scale with the number of threads,
+ * as concurrent moves share a sync.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappedGameJournalBenchmark {
+    @Param({"PER_MOVE", "BATCHED", "ASYNC"})
+    MappedGameJournal.Durability durability;
+
+    private Path directory;
+    private MappedGameJournal journal;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal-benchmark");
+        journal = new MappedGameJournal(directory, 64 << 20, durability, Duration.ofMillis(1));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Game {
+        final String gameId = UUID.randomUUID().toString();
+        long version;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long move1(Game game) {
+        return move(game);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public long move16(Game game) {
+        return move(game);
+    }
+
+    private long move(Game game) {
+        long position = journal.appendMove(game.gameId, 0, (int) (game.version % 6), ++game.version);
+        journal.sync(position);
+        return position;
+    }
+}
@@ -0,0 +1,112 @@
+package xyz.a5s7.mancala.domain.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import xyz.a5s7.mancala.domain.model.statistics.GameStat;
+import xyz.a5s7.mancala.domain.model.statistics.MovePreview;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Game engine hot paths: whole random games, single moves, move previews and building a {@link GameStat}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameBoardBenchmark {
+    @Param({"2:6:6", "2:6:100", "2:6:5000", "6:6:4"})
+    String config;
+
+    private int players;
+    private int pits;
+    private int stones;
+    private SplittableRandom random;
+    private GameBoard board;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] parts = config.split(":");
+        players = Integer.parseInt(parts[0]);
+        pits = Integer.parseInt(parts[1]);
+        stones = Integer.parseInt(parts[2]);
+        random = new SplittableRandom(42);
+        board = newBoard();
+    }
+
+    @Setup(Level.Iteration)
+    public void playHalfGame() {
+        board = newBoard();
+        for (int i = 0; i < 10 && !board.isGameFinished(); i++) {
+            playRandomMove(board, random);
+        }
+    }
+
+    /**
+     * Plays a full game with random legal moves.
+     * @return number of moves played
+     */
+    @Benchmark
+    public int playRandomGame() {
+        GameBoard gameBoard = newBoard();
+        int moves = 0;
+        while (!gameBoard.isGameFinished()) {
+            playRandomMove(gameBoard, random);
+            moves++;
+        }
+        return moves;
+    }
+
+    /**
+     * Plays a single random legal move, starting a new game when the current one is over.
+     */
+    @Benchmark
+    public int playRandomMove() {
+        if (board.isGameFinished()) {
+            board = newBoard();
+        }
+        playRandomMove(board, random);
+        return board.getCurPlayer();
+    }
+
+    @Benchmark
+    public GameStat getGameStat() {
+        return board.getGameStat();
+    }
+
+    /**
+     * Previews every move of the player to move, the board is not changed.
+     */
+    @Benchmark
+    public List<MovePreview> previewMoves() {
+        return board.previewMoves();
+    }
+
+    private GameBoard newBoard() {
+        return new GameBoard(players, pits, stones, 0);
+    }
+
+    static void playRandomMove(GameBoard gameBoard, SplittableRandom random) {
+        int player = gameBoard.getCurPlayer();
+        int pitsPerPlayer = gameBoard.getPitsPerPlayer();
+        int pit = random.nextInt(pitsPerPlayer);
+        while (gameBoard.getStonesInPit(player, pit) == 0) {
+            pit = (pit + 1) % pitsPerPlayer;
+        }
+        gameBoard.play(player, pit);
+    }
+}
@@ -0,0 +1,44 @@
+package xyz.a5s7.mancala.domain.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PlayerBoard#sowStones(int, int, boolean)} for stone counts ending in a pit, in the big pit and past the board.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PlayerBoardBenchmark {
+    private static final int PITS = 6;
+
+    @Param({"1", "6", "7", "100"})
+    int stones;
+
+    private PlayerBoard playerBoard;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        playerBoard = new PlayerBoard(PITS, 4);
+    }
+
+    @Benchmark
+    public int sowStones() {
+        return playerBoard.sowStones(0, stones, true);
+    }
+}
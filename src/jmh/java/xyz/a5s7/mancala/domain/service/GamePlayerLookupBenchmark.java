@@ -0,0 +1,68 @@
+package xyz.a5s7.mancala.domain.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import xyz.a5s7.mancala.domain.model.Board;
+import xyz.a5s7.mancala.domain.model.GamePlayer;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup of the player of a move in a game: the former scan of the players comparing UUID ids,
+ * the id index and the session handle. The last player of the turns is looked up, the worst case of a scan.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GamePlayerLookupBenchmark {
+    @Param({"2", "6"})
+    int players;
+
+    private GameActor game;
+    private String playerId;
+    private long session;
+
+    @Setup
+    public void setUp() {
+        String gameId = UUID.randomUUID().toString();
+        game = new GameActor(gameId, Board.of(players, 6, 6, 0), Runnable::run);
+        for (int turn = 0; turn < players; turn++) {
+            // a copy, as an id parsed from a request is not the registered instance
+            playerId = new String(UUID.randomUUID().toString());
+            game.addPlayer(new GamePlayer(playerId, gameId, turn));
+        }
+        playerId = new String(playerId);
+        session = game.getPlayer(playerId).getSession();
+    }
+
+    @Benchmark
+    public GamePlayer scan() {
+        return game.getPlayers().stream()
+                .filter(p -> playerId.equals(p.getPlayerId()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Benchmark
+    public GamePlayer byId() {
+        return game.getPlayer(playerId);
+    }
+
+    @Benchmark
+    public GamePlayer bySession() {
+        return game.getPlayer(session);
+    }
+}
@@ -0,0 +1,126 @@
+package xyz.a5s7.mancala.domain.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import xyz.a5s7.mancala.domain.model.statistics.GameStat;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * {@link GameService#play(String, String, int)} with 1 to N threads sharing {@code games} games.
+ * Every operation reads the game state, picks a random legal pit for the player on turn and plays it,
+ * as a polling client would. Moves lost to a concurrent move of another thread are counted as operations too.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GameServiceBenchmark {
+    private static final String[] PLAYER_IDS = {"player-0", "player-1"};
+
+    @Param({"1", "64"})
+    int games;
+
+    private volatile Games current;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        current = new Games(games);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public GameStat play1() {
+        return playRandomMove();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public GameStat play2() {
+        return playRandomMove();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public GameStat play4() {
+        return playRandomMove();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public GameStat playMax() {
+        return playRandomMove();
+    }
+
+    private GameStat playRandomMove() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Games current = this.current;
+        int slot = random.nextInt(games);
+        String gameId = current.gameIds.get(slot);
+        GameStat gameStat = current.gameService.getGameStat(gameId);
+        if (gameStat.isGameOver()) {
+            restart(current, slot, gameId);
+            return gameStat;
+        }
+        int player = gameStat.getNextPlayer();
+        List<Integer> pits = gameStat.getState().get(player).getPits();
+        int pit = random.nextInt(pits.size());
+        while (pits.get(pit) == 0) {
+            pit = (pit + 1) % pits.size();
+        }
+        try {
+            return current.gameService.play(gameId, PLAYER_IDS[player], pit);
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            // another thread moved first
+            return gameStat;
+        }
+    }
+
+    private synchronized void restart(Games games, int slot, String finishedGameId) {
+        if (current != games || !games.gameIds.get(slot).equals(finishedGameId)) {
+            return;
+        }
+        try {
+            games.gameIds.set(slot, newGame(games.gameService));
+        } catch (IllegalStateException e) {
+            // game limit of the service is reached, start over with a fresh one
+            current = new Games(this.games);
+        }
+    }
+
+    private static final class Games {
+        private final GameService gameService = new GameService();
+        private final AtomicReferenceArray<String> gameIds;
+
+        private Games(int size) {
+            gameIds = new AtomicReferenceArray<>(size);
+            for (int i = 0; i < size; i++) {
+                gameIds.set(i, newGame(gameService));
+            }
+        }
+    }
+
+    private static String newGame(GameService service) {
+        String gameId = service.createGame();
+        for (String playerId : PLAYER_IDS) {
+            service.registerPlayer(gameId, playerId);
+        }
+        return gameId;
+    }
+}
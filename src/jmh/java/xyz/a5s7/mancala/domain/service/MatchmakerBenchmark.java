@@ -0,0 +1,77 @@
+package xyz.a5s7.mancala.domain.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.unit.DataSize;
+import xyz.a5s7.mancala.domain.model.GamePlayer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Games matched per second by {@link Matchmaker}: every operation enqueues the players of one game
+ * and waits until they are matched, by 1 to N threads at a time.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class MatchmakerBenchmark {
+    @Param({"2", "6"})
+    int players;
+
+    private final AtomicLong ids = new AtomicLong();
+    private Matchmaker matchmaker;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        GameRegistry registry = new GameRegistry(DataSize.ofGigabytes(1), GameRegistry.DEFAULT_IDLE_TTL,
+                GameRegistry.DEFAULT_FINISHED_TTL, GameRegistry.DEFAULT_FINISHED_RETENTION);
+        GameService gameService = new GameService(List.of(), registry);
+        matchmaker = new Matchmaker(gameService, PlayerDirectory.ANY, new SimpleMeterRegistry(),
+                Matchmaker.DEFAULT_BATCH_SIZE, Duration.ZERO);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        matchmaker.shutdown();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public GamePlayer match1() {
+        return match();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public GamePlayer matchMax() {
+        return match();
+    }
+
+    private GamePlayer match() {
+        CompletableFuture<GamePlayer> last = null;
+        for (int i = 0; i < players; i++) {
+            last = matchmaker.enqueue("player-" + ids.incrementAndGet(), players);
+        }
+        return last.join();
+    }
+}
@@ -0,0 +1,69 @@
+package xyz.a5s7.mancala.domain.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import xyz.a5s7.mancala.domain.model.Player;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups of random players by id and by name in a {@link PlayerRegistry} of {@code players} players,
+ * and creation of a player of a taken name. Ten million players need a heap of about 4 GB:
+ * {@code -Djmh.args="PlayerRegistryBenchmark -jvmArgs -Xmx4g"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PlayerRegistryBenchmark {
+    @Param({"1000000", "10000000"})
+    int players;
+
+    private PlayerRegistry registry;
+    private String[] ids;
+    private String[] names;
+
+    @Setup
+    public void setUp() {
+        registry = new PlayerRegistry(players);
+        ids = new String[players];
+        names = new String[players];
+        for (int i = 0; i < players; i++) {
+            ids[i] = UUID.randomUUID().toString();
+            names[i] = "player-" + i;
+            registry.add(new Player(ids[i], names[i]));
+        }
+    }
+
+    @Benchmark
+    public Player getById() {
+        return registry.getById(ids[ThreadLocalRandom.current().nextInt(players)]);
+    }
+
+    @Benchmark
+    public Player getByName() {
+        return registry.getByName(names[ThreadLocalRandom.current().nextInt(players)]);
+    }
+
+    /**
+     * Creation of a player of a taken name, which does not grow the registry.
+     */
+    @Benchmark
+    public Player addTaken() {
+        int i = ThreadLocalRandom.current().nextInt(players);
+        return registry.add(new Player(ids[i], names[i]));
+    }
+}
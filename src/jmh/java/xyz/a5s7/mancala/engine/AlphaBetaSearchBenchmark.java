@@ -0,0 +1,92 @@
+package xyz.a5s7.mancala.engine;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import xyz.a5s7.mancala.domain.model.GameBoard;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searches of the opening of a game to a fixed depth per second, and the nodes searched per second.
+ * Every invocation starts from an empty table, so the count of nodes is the same in every run.
+ * Moves played and taken back without a search are measured by {@link #playAndUndo()}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AlphaBetaSearchBenchmark {
+    @Param({"6:6", "6:4"})
+    String config;
+
+    @Param({"8", "12"})
+    int depth;
+
+    private SearchBoard board;
+    private TranspositionTable table;
+    private AlphaBetaSearch search;
+    private int[] moves;
+    private SplittableRandom random;
+
+    /**
+     * Nodes searched, reported per second.
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Nodes {
+        public long nodes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] parts = config.split(":");
+        int pits = Integer.parseInt(parts[0]);
+        int stones = Integer.parseInt(parts[1]);
+        board = SearchBoard.of(new GameBoard(2, pits, stones, 0));
+        table = new TranspositionTable(1 << 20);
+        search = new AlphaBetaSearch(table);
+        moves = new int[pits];
+        random = new SplittableRandom(42);
+    }
+
+    @Benchmark
+    public int search(Nodes nodes) {
+        table.clear();
+        SearchResult result = search.search(board, depth, Long.MAX_VALUE);
+        nodes.nodes += result.getNodes();
+        return result.getPit();
+    }
+
+    /**
+     * Plays a random game to the end and takes every move back.
+     * @return number of moves played
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int playAndUndo() {
+        int played = 0;
+        while (!board.isFinished()) {
+            board.play(moves[random.nextInt(board.moves(moves))]);
+            played++;
+        }
+        for (int i = 0; i < played; i++) {
+            board.undo();
+        }
+        return played;
+    }
+}
@@ -0,0 +1,71 @@
+package xyz.a5s7.mancala.engine;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import xyz.a5s7.mancala.domain.model.GameBoard;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time of a search of the opening to a fixed depth by 1 to 8 threads, the speedup is the time of 1 thread
+ * divided by the time of more. Every invocation starts from an empty table.
+ * A root of 6 pits has at most 6 moves, so 8 threads search as 6 do.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelSearchBenchmark {
+    @Param({"1", "2", "4", "8"})
+    int threads;
+
+    @Param({"12"})
+    int depth;
+
+    private SearchBoard board;
+    private TranspositionTable table;
+    private ParallelSearch search;
+
+    /**
+     * Nodes searched in an iteration, more threads search more nodes as their bounds are shared later.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Nodes {
+        public long nodes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        board = SearchBoard.of(new GameBoard(2, 6, 6, 0));
+        table = new TranspositionTable(1 << 20);
+        search = new ParallelSearch(table, threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        search.shutdown();
+    }
+
+    @Benchmark
+    public int search(Nodes nodes) {
+        table.clear();
+        SearchResult result = search.search(board, depth, Long.MAX_VALUE);
+        nodes.nodes += result.getNodes();
+        return result.getPit();
+    }
+}
@@ -0,0 +1,77 @@
+package xyz.a5s7.mancala.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import xyz.a5s7.mancala.domain.model.GameBoard;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Probes of a tablebase of 6 pits, generated into a temporary file, at endgames of random games.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TablebaseBenchmark {
+    private static final int POSITIONS = 1024;
+
+    @Param({"12"})
+    int maxStones;
+
+    private Path file;
+    private Tablebase tablebase;
+    private SearchBoard[] positions;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("tablebase", ".tb");
+        TablebaseGenerator.generate(file, 6, maxStones);
+        tablebase = Tablebase.open(file);
+        SplittableRandom random = new SplittableRandom(42);
+        int[] moves = new int[6];
+        List<SearchBoard> endgames = new ArrayList<>();
+        while (endgames.size() < POSITIONS) {
+            SearchBoard board = SearchBoard.of(new GameBoard(2, 6, 6, random.nextInt(2)));
+            while (!board.isFinished() && !tablebase.contains(board)) {
+                board.play(moves[random.nextInt(board.moves(moves))]);
+            }
+            if (!board.isFinished()) {
+                endgames.add(board);
+            }
+        }
+        positions = endgames.toArray(new SearchBoard[0]);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        tablebase.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int probe() {
+        SearchBoard board = positions[next++ & (POSITIONS - 1)];
+        return tablebase.probe(board);
+    }
+}
@@ -0,0 +1,65 @@
+package xyz.a5s7.mancala.app.cluster;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import xyz.a5s7.mancala.domain.service.GameService;
+import xyz.a5s7.mancala.domain.service.GameShards;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Endpoints the nodes of the cluster call each other with, not meant to be exposed to players.
+ * They are served only to requests with the cluster secret, see {@link ClusterSecretFilter}.
+ */
+@RestController
+@RequestMapping("/cluster")
+public class ClusterController {
+    private final GameShards shards;
+    private final GameService gameService;
+    private final ShardRebalancer rebalancer;
+
+    public ClusterController(GameShards shards, GameService gameService, ShardRebalancer rebalancer) {
+        this.shards = shards;
+        this.gameService = gameService;
+        this.rebalancer = rebalancer;
+    }
+
+    @GetMapping("/nodes")
+    public List<String> getNodes() {
+        return shards.getRing().getNodes();
+    }
+
+    /**
+     * Adds a node, responds once it is in the ring. The games it owns are handed off to it afterwards.
+     */
+    @PostMapping(value = "/nodes", consumes = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<Void> join(@RequestBody String node) {
+        rebalancer.join(node);
+        return new ResponseEntity<>(HttpStatus.ACCEPTED);
+    }
+
+    /**
+     * Takes over games handed off by another node, responds once they are recorded.
+     */
+    @PostMapping(value = "/games", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<Void> adoptGames(@RequestBody byte[] games) throws IOException {
+        gameService.adoptGames(ShardClient.decode(new ByteArrayInputStream(games)));
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handleIllegalArgumentException(IllegalArgumentException ex) {
+        return ex.getMessage();
+    }
+}
@@ -0,0 +1,57 @@
+package xyz.a5s7.mancala.app.cluster;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Lets only the nodes of the cluster call the {@link ClusterController} endpoints.
+ * <p>
+ * The nodes share the secret of {@code mancala.cluster.secret} and send it in {@link ShardClient#SECRET}.
+ * A request without the secret is rejected with 403 Forbidden, and so is every request while no secret is set.
+ */
+@Slf4j
+@Component
+public class ClusterSecretFilter extends OncePerRequestFilter {
+    private static final String CLUSTER_PATH = "/cluster";
+
+    private final byte[] secret;
+
+    public ClusterSecretFilter(@Value("${mancala.cluster.secret:}") String secret) {
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !path.equals(CLUSTER_PATH) && !path.startsWith(CLUSTER_PATH + "/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (secret.length == 0) {
+            response.sendError(HttpStatus.FORBIDDEN.value(), "Cluster endpoints are disabled");
+            return;
+        }
+        String sent = request.getHeader(ShardClient.SECRET);
+        // compared in constant time, so that the secret can not be guessed from the response time
+        if (sent == null || !MessageDigest.isEqual(secret, sent.getBytes(StandardCharsets.UTF_8))) {
+            log.warn("Rejected {} {} from {} without the cluster secret", request.getMethod(),
+                    request.getRequestURI(), request.getRemoteAddr());
+            response.sendError(HttpStatus.FORBIDDEN.value(), "Cluster secret is required");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,172 @@
+package xyz.a5s7.mancala.app.cluster;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import xyz.a5s7.mancala.domain.model.GameBoardCodec;
+import xyz.a5s7.mancala.domain.service.CompactGame;
+import xyz.a5s7.mancala.domain.service.GameShards;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * HTTP client of the other nodes of the cluster.
+ */
+@Component
+public class ShardClient {
+    /**
+     * Set on a request forwarded by another node, such a request is served where it arrives.
+     */
+    static final String FORWARDED_BY = "X-Mancala-Forwarded-By";
+    /**
+     * Secret shared by the nodes, required by the {@code /cluster} endpoints.
+     */
+    static final String SECRET = "X-Mancala-Cluster-Secret";
+    private static final List<String> REQUEST_HEADERS =
+            List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.ACCEPT, HttpHeaders.IF_NONE_MATCH);
+    private static final List<String> RESPONSE_HEADERS =
+            List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.ETAG, HttpHeaders.LOCATION);
+
+    private final GameShards shards;
+    private final Duration timeout;
+    private final String secret;
+    private final HttpClient client;
+
+    public ShardClient(GameShards shards, @Value("${mancala.cluster.timeout:5s}") Duration timeout,
+                       @Value("${mancala.cluster.secret:}") String secret) {
+        this.shards = shards;
+        this.timeout = timeout;
+        this.secret = secret;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    /**
+     * Sends a request to another node and copies its response.
+     * @throws IOException if the node does not respond
+     */
+    public void forward(String node, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String query = request.getQueryString();
+        HttpRequest.Builder forwarded = HttpRequest.newBuilder(URI.create(node + request.getRequestURI()
+                        + (query == null ? "" : "?" + query)))
+                .timeout(timeout)
+                .header(FORWARDED_BY, shards.getSelf());
+        for (String header : REQUEST_HEADERS) {
+            String value = request.getHeader(header);
+            if (value != null) {
+                forwarded.header(header, value);
+            }
+        }
+        byte[] body = request.getInputStream().readAllBytes();
+        forwarded.method(request.getMethod(), body.length == 0
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofByteArray(body));
+        HttpResponse<byte[]> answer = send(forwarded.build());
+        response.setStatus(answer.statusCode());
+        for (String header : RESPONSE_HEADERS) {
+            answer.headers().firstValue(header).ifPresent(value -> response.setHeader(header, value));
+        }
+        response.getOutputStream().write(answer.body());
+    }
+
+    /**
+     * Announces this node to another one, which then hands off the games this node owns.
+     */
+    public void join(String node) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(node + "/cluster/nodes"))
+                .timeout(timeout)
+                .header(SECRET, secret)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofString(shards.getSelf()))
+                .build();
+        checked(node, request);
+    }
+
+    /**
+     * Hands games off to another node, returns once the node has recorded them.
+     */
+    public void sendGames(String node, List<CompactGame> games) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(node + "/cluster/games"))
+                .timeout(timeout)
+                .header(SECRET, secret)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_OCTET_STREAM_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(encode(games)))
+                .build();
+        checked(node, request);
+    }
+
+    private HttpResponse<byte[]> checked(String node, HttpRequest request) {
+        try {
+            HttpResponse<byte[]> response = send(request);
+            if (response.statusCode() / 100 != 2) {
+                throw new IllegalStateException("Node " + node + " responded " + response.statusCode()
+                        + " to " + request.uri().getPath());
+            }
+            return response;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Node " + node + " is not available", e);
+        }
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest request) throws IOException {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted request to " + request.uri());
+        }
+    }
+
+    /**
+     * Games as their number, then the id, finished flag and length-prefixed data of each game.
+     */
+    static byte[] encode(List<CompactGame> games) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            GameBoardCodec.writeVarLong(out, games.size());
+            for (CompactGame game : games) {
+                out.writeUTF(game.getGameId());
+                out.writeBoolean(game.isFinished());
+                GameBoardCodec.writeVarLong(out, game.getData().length);
+                out.write(game.getData());
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static List<CompactGame> decode(InputStream body) throws IOException {
+        DataInput in = new DataInputStream(body);
+        int count = GameBoardCodec.readVarInt(in);
+        List<CompactGame> games = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String gameId = in.readUTF();
+            boolean finished = in.readBoolean();
+            byte[] data = new byte[GameBoardCodec.readVarInt(in)];
+            in.readFully(data);
+            games.add(new CompactGame(gameId, data, finished));
+        }
+        return games;
+    }
+}
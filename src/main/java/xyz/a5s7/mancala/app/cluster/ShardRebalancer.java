@@ -0,0 +1,158 @@
+package xyz.a5s7.mancala.app.cluster;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import xyz.a5s7.mancala.domain.service.CompactGame;
+import xyz.a5s7.mancala.domain.service.GameService;
+import xyz.a5s7.mancala.domain.service.GameShards;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * Moves games when a node joins the cluster.
+ * <p>
+ * A node started with {@code mancala.cluster.join} announces itself to the other nodes once it is ready.
+ * Each of them adds it to the ring, answers, and then hands off the games it now owns in the background,
+ * in batches of {@code mancala.cluster.handoff-batch} games, logging its progress. A batch is recorded as removed
+ * before it is sent and is not played here again, so a batch which is not answered is sent again every
+ * {@code mancala.cluster.handoff-retry-delay} until it is: the receiver keeps the games it has already.
+ * A node which cannot announce itself keeps running with the games it is handed off by the others.
+ */
+@Slf4j
+@Component
+public class ShardRebalancer {
+    private final GameShards shards;
+    private final GameService gameService;
+    private final ShardClient client;
+    private final int batchSize;
+    private final boolean joinOnStart;
+    private final Duration retryDelay;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "shard-handoff");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ShardRebalancer(GameShards shards, GameService gameService, ShardClient client,
+                           @Value("${mancala.cluster.handoff-batch:256}") int batchSize,
+                           @Value("${mancala.cluster.join:false}") boolean joinOnStart,
+                           @Value("${mancala.cluster.handoff-retry-delay:1s}") Duration retryDelay) {
+        this.shards = shards;
+        this.gameService = gameService;
+        this.client = client;
+        this.batchSize = batchSize;
+        this.joinOnStart = joinOnStart;
+        this.retryDelay = retryDelay;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void joinCluster() {
+        if (!joinOnStart) {
+            return;
+        }
+        for (String node : shards.getRing().getNodes()) {
+            if (!node.equals(shards.getSelf())) {
+                try {
+                    client.join(node);
+                    log.info("Joined {}, it hands off the games this node owns", node);
+                } catch (RuntimeException e) {
+                    log.warn("Cannot join {}: {}", node, e.getMessage());
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Adds a node to the ring and starts handing off the games it owns, returns once the ring is updated.
+     * Called again for a known node, it hands off the games left by a failed attempt.
+     */
+    public void join(String node) {
+        if (shards.join(node)) {
+            log.info("Node {} joined, nodes: {}", node, shards.getRing().getNodes());
+        }
+        try {
+            executor.execute(() -> handOff(node));
+        } catch (RejectedExecutionException e) {
+            log.debug("Rebalancer is shut down, games are not handed off to {}", node);
+        }
+    }
+
+    private void handOff(String node) {
+        long start = System.nanoTime();
+        Progress progress = new Progress(start);
+        try {
+            int games = gameService.handOffGames(batchSize, batch -> send(batch, progress));
+            log.info("Handed off {} games after {} joined in {} ms",
+                    games, node, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Hand-off after {} joined stopped after {} games, the rest is handed off when a node joins: {}",
+                    node, progress.games, e.getMessage());
+        }
+    }
+
+    private void send(List<CompactGame> batch, Progress progress) {
+        Map<String, List<CompactGame>> byOwner = batch.stream()
+                .collect(Collectors.groupingBy(g -> shards.ownerOf(g.getGameId()), LinkedHashMap::new,
+                        Collectors.toList()));
+        byOwner.forEach(this::sendUntilReceived);
+        progress.add(batch.size());
+    }
+
+    private void sendUntilReceived(String node, List<CompactGame> games) {
+        while (true) {
+            try {
+                client.sendGames(node, games);
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Cannot hand off {} games to {}, retrying in {}: {}", games.size(), node, retryDelay,
+                        e.getMessage());
+            }
+            try {
+                Thread.sleep(retryDelay.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.error("Hand-off to {} is interrupted, {} games recorded as handed off may not have been received",
+                        node, games.size());
+                throw new IllegalStateException("Hand-off to " + node + " is interrupted");
+            }
+        }
+    }
+
+    private static final class Progress {
+        private static final long LOG_INTERVAL_NANOS = 5_000_000_000L;
+
+        private final long start;
+        private long lastLog;
+        private int games;
+
+        private Progress(long start) {
+            this.start = start;
+            this.lastLog = start;
+        }
+
+        private void add(int handedOff) {
+            games += handedOff;
+            long now = System.nanoTime();
+            if (now - lastLog >= LOG_INTERVAL_NANOS) {
+                lastLog = now;
+                log.info("Handed off {} games in {} ms so far", games, (now - start) / 1_000_000);
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package xyz.a5s7.mancala.app.cluster;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import xyz.a5s7.mancala.domain.service.GameService;
+import xyz.a5s7.mancala.domain.service.GameShards;
+
+import java.io.IOException;
+
+/**
+ * Routes requests for a game to the node owning it, and matchmaking requests to the lobby node.
+ * <p>
+ * A request for a game of another node is forwarded to it, or redirected with 307 Temporary Redirect
+ * if {@code mancala.cluster.routing} is {@code REDIRECT}. Event streams, WebSocket handshakes and long polls
+ * for a match are always redirected. A game still here while it is handed off is served here.
+ */
+@Slf4j
+@Component
+public class ShardRoutingFilter extends OncePerRequestFilter {
+    private static final String GAMES_PATH = "/games/";
+    private static final String CREATE = "create";
+    private static final String BULK = "bulk";
+    private static final String MATCHES_PATH = "/matches";
+
+    public enum Routing {
+        FORWARD,
+        REDIRECT
+    }
+
+    private final GameShards shards;
+    private final GameService gameService;
+    private final ShardClient client;
+    private final Routing routing;
+
+    public ShardRoutingFilter(GameShards shards, GameService gameService, ShardClient client,
+                              @Value("${mancala.cluster.routing:FORWARD}") Routing routing) {
+        this.shards = shards;
+        this.gameService = gameService;
+        this.client = client;
+        this.routing = routing;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !shards.isClustered()
+                || request.getHeader(ShardClient.FORWARDED_BY) != null
+                || gameId(request.getRequestURI()) == null && !isMatchmaking(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String gameId = gameId(request.getRequestURI());
+        String owner = gameId == null ? shards.getLobby() : shards.ownerOf(gameId);
+        if (owner.equals(shards.getSelf()) || gameId != null && gameService.hasGame(gameId)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (routing == Routing.REDIRECT || isStream(request) || isMatchPoll(request)) {
+            redirect(owner, request, response);
+            return;
+        }
+        try {
+            client.forward(owner, request, response);
+        } catch (IOException e) {
+            log.warn("Cannot forward {} to {}", request.getRequestURI(), owner, e);
+            response.sendError(HttpStatus.BAD_GATEWAY.value(), "Node of the game is not available");
+        }
+    }
+
+    private static void redirect(String owner, HttpServletRequest request, HttpServletResponse response) {
+        String query = request.getQueryString();
+        response.setStatus(HttpStatus.TEMPORARY_REDIRECT.value());
+        response.setHeader(HttpHeaders.LOCATION, owner + request.getRequestURI() + (query == null ? "" : "?" + query));
+    }
+
+    private static boolean isStream(HttpServletRequest request) {
+        return request.getRequestURI().endsWith("/events")
+                || "websocket".equalsIgnoreCase(request.getHeader(HttpHeaders.UPGRADE));
+    }
+
+    private static boolean isMatchmaking(String path) {
+        return path.equals(MATCHES_PATH) || path.startsWith(MATCHES_PATH + "/");
+    }
+
+    /**
+     * A poll waits for longer than a forwarded request may take.
+     */
+    private static boolean isMatchPoll(HttpServletRequest request) {
+        return "GET".equals(request.getMethod()) && isMatchmaking(request.getRequestURI());
+    }
+
+    /**
+     * @return id of the game a path is about, null for other paths
+     */
+    static String gameId(String path) {
+        if (!path.startsWith(GAMES_PATH)) {
+            return null;
+        }
+        int end = path.indexOf('/', GAMES_PATH.length());
+        String gameId = path.substring(GAMES_PATH.length(), end < 0 ? path.length() : end);
+        return gameId.isEmpty() || gameId.equals(CREATE) || gameId.equals(BULK) ? null : gameId;
+    }
+}
@@ -0,0 +1,182 @@
+package xyz.a5s7.mancala.app.persistence;
+
+import lombok.extern.slf4j.Slf4j;
+import xyz.a5s7.mancala.domain.model.GameBoardCodec;
+import xyz.a5s7.mancala.domain.service.CompactGame;
+import xyz.a5s7.mancala.domain.service.GameRegistry;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.CRC32C;
+
+/**
+ * Checkpoint of the games in a journal directory.
+ * <p>
+ * A checkpoint holds the journal position it was taken at and every game in its compacted form: board, current
+ * player, finished flag and registered players. A checkpoint is named by its position and ends with a CRC32C,
+ * it is written to a temporary file which is renamed once synced, so a crash never leaves a partial checkpoint.
+ * <p>
+ * A game in a checkpoint may include changes recorded after the position, replaying the journal skips them.
+ */
+@Slf4j
+public final class GameCheckpoint {
+    static final String PREFIX = "checkpoint-";
+    static final String SUFFIX = ".bin";
+    private static final int MAGIC = 0x4d4e4350;
+    private static final int FORMAT = 1;
+    /**
+     * Number of checkpoints kept, an older one is used if the latest can not be read.
+     */
+    private static final int KEPT = 2;
+
+    private GameCheckpoint() {
+    }
+
+    /**
+     * Writes a checkpoint of the registry and deletes checkpoints and journal segments it makes obsolete.
+     * @param position journal position read before the games are exported
+     * @return number of games written
+     */
+    public static int write(Path directory, long position, GameRegistry registry) throws IOException {
+        Path file = directory.resolve(name(position));
+        Path tmp = directory.resolve(name(position) + ".tmp");
+        int[] count = {0};
+        try (OutputStream fileOut = Files.newOutputStream(tmp)) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(fileOut, 1 << 16), new CRC32C());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MAGIC);
+            out.writeByte(FORMAT);
+            out.writeLong(position);
+            try {
+                registry.exportGames(game -> {
+                    try {
+                        out.writeBoolean(true);
+                        out.writeUTF(game.getGameId());
+                        out.writeBoolean(game.isFinished());
+                        GameBoardCodec.writeVarLong(out, game.getData().length);
+                        out.write(game.getData());
+                        count[0]++;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.writeBoolean(false);
+            out.writeInt((int) checked.getChecksum().getValue());
+            out.flush();
+        }
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+        deleteObsolete(directory);
+        return count[0];
+    }
+
+    /**
+     * Imports the games of the latest readable checkpoint into the registry.
+     * @return journal position of the checkpoint, 0 if there is none
+     */
+    public static long load(Path directory, GameRegistry registry) throws IOException {
+        List<Path> checkpoints = list(directory);
+        for (int i = checkpoints.size() - 1; i >= 0; i--) {
+            Path file = checkpoints.get(i);
+            try {
+                List<CompactGame> games = read(file);
+                games.forEach(registry::importGame);
+                return position(file);
+            } catch (IOException e) {
+                log.warn("Cannot read checkpoint {}, trying an older one", file, e);
+            }
+        }
+        return 0;
+    }
+
+    private static List<CompactGame> read(Path file) throws IOException {
+        try (InputStream fileIn = Files.newInputStream(file)) {
+            CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(fileIn, 1 << 16), new CRC32C());
+            DataInputStream in = new DataInputStream(checked);
+            if (in.readInt() != MAGIC || in.readUnsignedByte() != FORMAT) {
+                throw new IOException("Unknown checkpoint format");
+            }
+            if (in.readLong() != position(file)) {
+                throw new IOException("Checkpoint position does not match its name");
+            }
+            // games are imported once the whole checkpoint is verified
+            List<CompactGame> games = new ArrayList<>();
+            while (in.readBoolean()) {
+                String gameId = in.readUTF();
+                boolean finished = in.readBoolean();
+                byte[] data = new byte[GameBoardCodec.readVarInt(in)];
+                in.readFully(data);
+                games.add(new CompactGame(gameId, data, finished));
+            }
+            int expected = (int) checked.getChecksum().getValue();
+            if (in.readInt() != expected) {
+                throw new IOException("Checkpoint checksum mismatch");
+            }
+            return games;
+        }
+    }
+
+    /**
+     * Deletes checkpoints but the latest ones, and journal segments preceding the oldest kept checkpoint.
+     */
+    private static void deleteObsolete(Path directory) throws IOException {
+        List<Path> checkpoints = list(directory);
+        if (checkpoints.size() < KEPT) {
+            return;
+        }
+        for (Path file : checkpoints.subList(0, checkpoints.size() - KEPT)) {
+            Files.deleteIfExists(file);
+        }
+        long oldest = position(checkpoints.get(checkpoints.size() - KEPT));
+        List<Path> segments = MappedGameJournal.listSegments(directory);
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            // a segment ends where the next one starts
+            if (MappedGameJournal.segmentBase(segments.get(i + 1)) > oldest) {
+                break;
+            }
+            Files.deleteIfExists(segments.get(i));
+        }
+    }
+
+    private static List<Path> list(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> f.getFileName().toString().startsWith(PREFIX)
+                            && f.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long position(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private static String name(long position) {
+        return PREFIX + String.format("%020d", position) + SUFFIX;
+    }
+}
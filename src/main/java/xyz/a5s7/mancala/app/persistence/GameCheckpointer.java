@@ -0,0 +1,54 @@
+package xyz.a5s7.mancala.app.persistence;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import xyz.a5s7.mancala.domain.service.GameRegistry;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Takes checkpoints of the games periodically and on shutdown, so that a restart replays only the journal tail.
+ */
+@Slf4j
+public class GameCheckpointer {
+    private final Path directory;
+    private final MappedGameJournal journal;
+    private final GameRegistry registry;
+    private long lastPosition = -1;
+
+    public GameCheckpointer(Path directory, MappedGameJournal journal, GameRegistry registry) {
+        this.directory = directory;
+        this.journal = journal;
+        this.registry = registry;
+    }
+
+    /**
+     * Writes a checkpoint unless nothing was recorded since the last one.
+     */
+    @Scheduled(fixedDelayString = "${mancala.journal.checkpoint-interval:PT5M}",
+            initialDelayString = "${mancala.journal.checkpoint-interval:PT5M}")
+    public synchronized void checkpoint() {
+        // every change recorded up to the position is applied to its game before the game is exported
+        long position = journal.getPosition();
+        if (position == lastPosition) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            int games = GameCheckpoint.write(directory, position, registry);
+            lastPosition = position;
+            log.info("Checkpoint of {} games at journal position {} written in {} ms", games, position,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException e) {
+            log.error("Cannot write checkpoint at journal position {}", position, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        checkpoint();
+    }
+}
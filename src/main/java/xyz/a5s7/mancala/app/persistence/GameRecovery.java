@@ -0,0 +1,148 @@
+package xyz.a5s7.mancala.app.persistence;
+
+import lombok.extern.slf4j.Slf4j;
+import xyz.a5s7.mancala.domain.model.Board;
+import xyz.a5s7.mancala.domain.service.CompactGame;
+import xyz.a5s7.mancala.domain.service.GameRegistry;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Restores the games of a journal directory at startup.
+ * <p>
+ * The latest checkpoint is loaded as compacted games, without decoding them, and the journal is replayed from the
+ * checkpoint position. Records of a game are queued to the game in journal order, so the tails of different games
+ * are replayed in parallel by their single writers while the journal is read. Changes a game of the checkpoint
+ * already includes are skipped.
+ */
+@Slf4j
+public final class GameRecovery {
+
+    private GameRecovery() {
+    }
+
+    /**
+     * Restores the games into an empty registry, before it is used.
+     * @return journal position the games are restored up to
+     */
+    public static long recover(Path directory, GameRegistry registry) throws IOException {
+        long start = System.nanoTime();
+        long checkpointPosition = GameCheckpoint.load(directory, registry);
+        int checkpointGames = registry.getColdCount();
+        long loaded = System.nanoTime();
+
+        TailReplay replay = new TailReplay(registry);
+        long end = MappedGameJournal.read(directory, checkpointPosition, replay);
+        replay.await();
+        long ready = System.nanoTime();
+
+        log.info("Games ready in {} ms: {} games loaded from checkpoint at {} in {} ms, "
+                        + "journal replayed from {} to {} in {} ms: {} changes applied, {} skipped, {} failed",
+                TimeUnit.NANOSECONDS.toMillis(ready - start), checkpointGames, checkpointPosition,
+                TimeUnit.NANOSECONDS.toMillis(loaded - start), checkpointPosition, end,
+                TimeUnit.NANOSECONDS.toMillis(ready - loaded),
+                replay.applied.get(), replay.skipped.get(), replay.failed.get());
+        return end;
+    }
+
+    private static class TailReplay implements JournalVisitor {
+        private final GameRegistry registry;
+        /**
+         * Last change queued to each game, the earlier ones are applied before it.
+         */
+        private final Map<String, CompletableFuture<Boolean>> lastChanges = new HashMap<>();
+        private final AtomicInteger applied = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+
+        private TailReplay(GameRegistry registry) {
+            this.registry = registry;
+        }
+
+        @Override
+        public void onCreate(long position, String gameId, Board gameBoard) {
+            apply(position, gameId, () -> registry.replayCreate(gameId, gameBoard));
+        }
+
+        @Override
+        public void onRegister(long position, String gameId, String playerId) {
+            track(position, gameId, registry.replayRegister(gameId, playerId));
+        }
+
+        @Override
+        public void onMove(long position, String gameId, int turn, int pit, long version) {
+            track(position, gameId, registry.replayMove(gameId, turn, pit, version));
+        }
+
+        @Override
+        public void onImport(long position, CompactGame game) {
+            awaitChanges(game.getGameId());
+            apply(position, game.getGameId(), () -> {
+                registry.adopt(game);
+                return true;
+            });
+        }
+
+        @Override
+        public void onRemove(long position, String gameId) {
+            awaitChanges(gameId);
+            apply(position, gameId, () -> registry.discard(gameId));
+        }
+
+        /**
+         * Waits for the changes queued to a game before it is replaced or removed.
+         */
+        private void awaitChanges(String gameId) {
+            CompletableFuture<Boolean> change = lastChanges.remove(gameId);
+            if (change != null) {
+                try {
+                    change.join();
+                } catch (CompletionException e) {
+                    // counted and logged
+                }
+            }
+        }
+
+        private void apply(long position, String gameId, BooleanSupplier change) {
+            try {
+                count(change.getAsBoolean());
+            } catch (RuntimeException e) {
+                failed.incrementAndGet();
+                log.error("Cannot replay the change of game {} at journal position {}", gameId, position, e);
+            }
+        }
+
+        private void track(long position, String gameId, CompletableFuture<Boolean> change) {
+            lastChanges.put(gameId, change.whenComplete((changed, e) -> {
+                if (e != null) {
+                    failed.incrementAndGet();
+                    log.error("Cannot replay the change of game {} at journal position {}", gameId, position, e);
+                } else {
+                    count(changed);
+                }
+            }));
+        }
+
+        private void count(boolean changed) {
+            (changed ? applied : skipped).incrementAndGet();
+        }
+
+        private void await() {
+            for (CompletableFuture<Boolean> change : lastChanges.values()) {
+                try {
+                    change.join();
+                } catch (CompletionException e) {
+                    // counted and logged
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package xyz.a5s7.mancala.app.persistence;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import xyz.a5s7.mancala.domain.service.GameJournal;
+import xyz.a5s7.mancala.domain.service.GameRegistry;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Journal of the games, disabled unless {@code mancala.journal.enabled} is set.
+ * An enabled journal restores the games recorded before it is opened, and is checkpointed periodically.
+ */
+@Configuration
+public class JournalConfig {
+    private static final String ENABLED = "mancala.journal.enabled";
+
+    @Bean
+    @ConditionalOnProperty(name = ENABLED, havingValue = "true")
+    public MappedGameJournal gameJournal(@Value("${mancala.journal.directory:data/journal}") Path directory,
+                                         @Value("${mancala.journal.durability:PER_MOVE}") MappedGameJournal.Durability durability,
+                                         @Value("${mancala.journal.segment-size:64MB}") DataSize segmentSize,
+                                         @Value("${mancala.journal.flush-interval:2ms}") Duration flushInterval,
+                                         GameRegistry registry)
+            throws IOException {
+        GameRecovery.recover(directory, registry);
+        return new MappedGameJournal(directory, Math.toIntExact(segmentSize.toBytes()), durability, flushInterval);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = ENABLED, havingValue = "true")
+    public GameCheckpointer gameCheckpointer(@Value("${mancala.journal.directory:data/journal}") Path directory,
+                                             MappedGameJournal journal, GameRegistry registry) {
+        return new GameCheckpointer(directory, journal, registry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = ENABLED, havingValue = "false", matchIfMissing = true)
+    public GameJournal noGameJournal() {
+        return GameJournal.NONE;
+    }
+}
@@ -0,0 +1,20 @@
+package xyz.a5s7.mancala.app.persistence;
+
+import xyz.a5s7.mancala.domain.model.Board;
+import xyz.a5s7.mancala.domain.service.CompactGame;
+
+/**
+ * Receives records read from a journal by {@link MappedGameJournal#read}, in the order they were appended.
+ * The position of a record is the journal position right after it.
+ */
+public interface JournalVisitor {
+    void onCreate(long position, String gameId, Board gameBoard);
+
+    void onRegister(long position, String gameId, String playerId);
+
+    void onMove(long position, String gameId, int turn, int pit, long version);
+
+    void onImport(long position, CompactGame game);
+
+    void onRemove(long position, String gameId);
+}
@@ -0,0 +1,434 @@
+package xyz.a5s7.mancala.app.persistence;
+
+import lombok.extern.slf4j.Slf4j;
+import xyz.a5s7.mancala.domain.model.Board;
+import xyz.a5s7.mancala.domain.model.GameBoardCodec;
+import xyz.a5s7.mancala.domain.service.CompactGame;
+import xyz.a5s7.mancala.domain.service.GameJournal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Journal written through memory-mapped segment files.
+ * <p>
+ * A record is its length, type, body and a CRC32C of the type and the body. Appends copy the record into the
+ * mapped segment under a short lock, a segment which has no room for a record is forced and the next one is mapped.
+ * Segments are named by the journal position of their first record, so the position of a record is global.
+ * <p>
+ * Syncs are done by one flusher thread with group commit: a force covers every record appended before it,
+ * so callers waiting meanwhile share it. The {@link Durability} sets when the flusher forces and who waits for it.
+ * <p>
+ * A record torn by a crash fails its checksum, reading a segment stops at it.
+ */
+@Slf4j
+public class MappedGameJournal implements GameJournal {
+    public enum Durability {
+        /**
+         * A change is synced as soon as the flusher is free, the caller waits for it.
+         */
+        PER_MOVE,
+        /**
+         * The flusher waits for the flush interval to collect more changes before syncing, the caller waits for it.
+         */
+        BATCHED,
+        /**
+         * Changes are synced every flush interval, the caller does not wait.
+         * Changes of the last interval may be lost on a crash of the machine, not of the process.
+         */
+        ASYNC
+    }
+
+    static final String SEGMENT_PREFIX = "journal-";
+    static final String SEGMENT_SUFFIX = ".log";
+    private static final byte CREATE = 1;
+    private static final byte REGISTER = 2;
+    private static final byte MOVE = 3;
+    private static final byte IMPORT = 4;
+    private static final byte REMOVE = 5;
+    private static final int LENGTH_BYTES = Integer.BYTES;
+    private static final int CRC_BYTES = Integer.BYTES;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final Durability durability;
+    private final long flushIntervalNanos;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    /**
+     * Current segment and the position of its first byte, guarded by the append lock.
+     */
+    private MappedByteBuffer segment;
+    private long segmentBase;
+    private volatile long writtenPosition;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Condition flushRequested = flushLock.newCondition();
+    private final Condition flushed = flushLock.newCondition();
+    /**
+     * Highest position a caller waits for, guarded by the flush lock.
+     */
+    private long requestedPosition;
+    private volatile long durablePosition;
+    private volatile UncheckedIOException failure;
+    private volatile boolean closed;
+    private final Thread flusher;
+
+    /**
+     * Opens a journal, appending after the last valid record of the segments in the directory.
+     * @param segmentSize size of a segment file in bytes
+     * @param flushInterval time the flusher waits for more changes in {@link Durability#BATCHED} mode,
+     *                      or between syncs in {@link Durability#ASYNC} mode
+     */
+    public MappedGameJournal(Path directory, int segmentSize, Durability durability, Duration flushInterval)
+            throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.durability = durability;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        Files.createDirectories(directory);
+        // only the last segment may end with a torn record
+        List<Path> segments = listSegments(directory);
+        long end = read(directory, segments.isEmpty() ? 0 : segmentBase(segments.get(segments.size() - 1)), null);
+        writtenPosition = end;
+        durablePosition = end;
+        requestedPosition = end;
+        mapSegment(end);
+        flusher = new Thread(this::flushLoop, "journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Journal {} opened at position {}, durability {}", directory, end, durability);
+    }
+
+    @Override
+    public long appendCreate(String gameId, Board gameBoard) {
+        return append(CREATE, out -> {
+            out.writeUTF(gameId);
+            GameBoardCodec.write(gameBoard, out);
+        });
+    }
+
+    @Override
+    public long appendRegister(String gameId, String playerId) {
+        return append(REGISTER, out -> {
+            out.writeUTF(gameId);
+            out.writeUTF(playerId);
+        });
+    }
+
+    @Override
+    public long appendMove(String gameId, int turn, int pit, long version) {
+        return append(MOVE, out -> {
+            out.writeUTF(gameId);
+            out.writeByte(turn);
+            GameBoardCodec.writeVarLong(out, pit);
+            GameBoardCodec.writeVarLong(out, version);
+        });
+    }
+
+    @Override
+    public long appendImport(CompactGame game) {
+        return append(IMPORT, out -> {
+            out.writeUTF(game.getGameId());
+            out.writeBoolean(game.isFinished());
+            GameBoardCodec.writeVarLong(out, game.getData().length);
+            out.write(game.getData());
+        });
+    }
+
+    @Override
+    public long appendRemove(String gameId) {
+        return append(REMOVE, out -> out.writeUTF(gameId));
+    }
+
+    @Override
+    public void sync(long position) {
+        checkFailure();
+        if (durability == Durability.ASYNC || durablePosition >= position) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            if (position > requestedPosition) {
+                requestedPosition = position;
+                flushRequested.signal();
+            }
+            while (durablePosition < position) {
+                checkFailure();
+                if (closed) {
+                    throw new IllegalStateException("Journal is closed");
+                }
+                flushed.awaitUninterruptibly();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * @return position after the last appended record
+     */
+    public long getPosition() {
+        return writtenPosition;
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    /**
+     * Syncs the appended records and stops the flusher.
+     */
+    @Override
+    public void close() {
+        flushLock.lock();
+        try {
+            closed = true;
+            flushRequested.signal();
+        } finally {
+            flushLock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Journal {} closed at position {}", directory, writtenPosition);
+    }
+
+    private long append(byte type, RecordWriter writer) {
+        byte[] record;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(type);
+            writer.write(out);
+            record = bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(record);
+        int recordBytes = LENGTH_BYTES + record.length + CRC_BYTES;
+        if (recordBytes > segmentSize) {
+            throw new IllegalArgumentException("Record of " + recordBytes + " bytes does not fit a segment");
+        }
+        appendLock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            if (segment.remaining() < recordBytes) {
+                roll();
+            }
+            segment.putInt(record.length).put(record).putInt((int) crc.getValue());
+            long position = segmentBase + segment.position();
+            writtenPosition = position;
+            return position;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Forces the current segment and maps the next one, must be called under the append lock.
+     */
+    private void roll() {
+        segment.force();
+        mapSegment(segmentBase + segment.position());
+    }
+
+    private void mapSegment(long base) {
+        Path file = directory.resolve(segmentName(base));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // a segment is reused only if none of its records is valid
+            channel.truncate(0);
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            segmentBase = base;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map journal segment " + file, e);
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            flushLock.lock();
+            try {
+                if (durability == Durability.ASYNC) {
+                    if (!closed) {
+                        flushRequested.awaitNanos(flushIntervalNanos);
+                    }
+                } else {
+                    while (requestedPosition <= durablePosition && !closed) {
+                        flushRequested.await();
+                    }
+                }
+            } catch (InterruptedException e) {
+                closed = true;
+            } finally {
+                flushLock.unlock();
+            }
+            if (durability == Durability.BATCHED && !closed) {
+                // more changes join the sync meanwhile
+                LockSupport.parkNanos(flushIntervalNanos);
+            }
+            flush();
+            if (closed) {
+                return;
+            }
+        }
+    }
+
+    private void flush() {
+        MappedByteBuffer buffer;
+        long position;
+        appendLock.lock();
+        try {
+            buffer = segment;
+            position = writtenPosition;
+        } finally {
+            appendLock.unlock();
+        }
+        if (position > durablePosition) {
+            try {
+                // earlier segments are forced when they are rolled
+                buffer.force();
+            } catch (UncheckedIOException e) {
+                log.error("Cannot sync journal {}", directory, e);
+                failure = e;
+            }
+        }
+        flushLock.lock();
+        try {
+            if (failure == null) {
+                durablePosition = position;
+            }
+            flushed.signalAll();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void checkFailure() {
+        UncheckedIOException e = failure;
+        if (e != null) {
+            throw new UncheckedIOException("Journal is not writable", e.getCause());
+        }
+    }
+
+    /**
+     * Reads records of a journal.
+     * @param fromPosition records at or before this position are skipped
+     * @param visitor receiver of the records, null to find the end only
+     * @return position after the last valid record
+     */
+    public static long read(Path directory, long fromPosition, JournalVisitor visitor) throws IOException {
+        long end = 0;
+        List<Path> segments = listSegments(directory);
+        for (int i = 0; i < segments.size(); i++) {
+            Path file = segments.get(i);
+            long base = segmentBase(file);
+            if (i + 1 < segments.size() && segmentBase(segments.get(i + 1)) <= fromPosition) {
+                // a segment ends where the next one starts
+                end = segmentBase(segments.get(i + 1));
+                continue;
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                end = base;
+                while (buffer.remaining() >= LENGTH_BYTES) {
+                    int length = buffer.getInt();
+                    if (length <= 0 || length > buffer.remaining() - CRC_BYTES) {
+                        break;
+                    }
+                    if (base + buffer.position() + length + CRC_BYTES <= fromPosition) {
+                        // records before the position were checked when they were read up to it
+                        buffer.position(buffer.position() + length + CRC_BYTES);
+                        end = base + buffer.position();
+                        continue;
+                    }
+                    byte[] record = new byte[length];
+                    buffer.get(record);
+                    CRC32C crc = new CRC32C();
+                    crc.update(record);
+                    if (buffer.getInt() != (int) crc.getValue()) {
+                        log.warn("Journal segment {} ends with a torn record at {}", file, end);
+                        break;
+                    }
+                    end = base + buffer.position();
+                    if (visitor != null && end > fromPosition) {
+                        dispatch(end, record, visitor);
+                    }
+                }
+            }
+        }
+        return end;
+    }
+
+    /**
+     * @return segment files in order of their positions
+     */
+    static List<Path> listSegments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> f.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                            && f.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    static long segmentBase(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static String segmentName(long base) {
+        // zero padded, so that names sort in order of positions
+        return SEGMENT_PREFIX + String.format("%020d", base) + SEGMENT_SUFFIX;
+    }
+
+    private static void dispatch(long position, byte[] record, JournalVisitor visitor) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        byte type = in.readByte();
+        String gameId = in.readUTF();
+        switch (type) {
+            case CREATE -> visitor.onCreate(position, gameId, GameBoardCodec.read(in));
+            case REGISTER -> visitor.onRegister(position, gameId, in.readUTF());
+            case MOVE -> visitor.onMove(position, gameId, in.readUnsignedByte(), GameBoardCodec.readVarInt(in),
+                    GameBoardCodec.readVarLong(in));
+            case IMPORT -> {
+                boolean finished = in.readBoolean();
+                byte[] data = new byte[GameBoardCodec.readVarInt(in)];
+                in.readFully(data);
+                visitor.onImport(position, new CompactGame(gameId, data, finished));
+            }
+            case REMOVE -> visitor.onRemove(position, gameId);
+            default -> throw new IOException("Unknown journal record type " + type + " at " + position);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,144 @@
+package xyz.a5s7.mancala.app.rest;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import xyz.a5s7.mancala.app.rest.model.BulkCreateRequest;
+import xyz.a5s7.mancala.domain.model.statistics.GameSnapshot;
+import xyz.a5s7.mancala.domain.service.GameMovedException;
+import xyz.a5s7.mancala.domain.service.GameService;
+import xyz.a5s7.mancala.domain.service.GameShards;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Operations on many games at once, for tournaments and dashboards.
+ */
+@RestController
+@RequestMapping("/games/bulk")
+public class BulkGameController {
+    private static final int MAX_STATUS_GAMES = 10_000;
+    /**
+     * Lines written before the response is flushed, so that a client sees the first games early.
+     */
+    private static final int FLUSH_LINES = 64;
+
+    private final GameService gameService;
+    private final GameStatJsonCache gameStatJsonCache;
+    private final GameShards shards;
+    private final ObjectMapper objectMapper;
+
+    public BulkGameController(GameService gameService, GameStatJsonCache gameStatJsonCache, GameShards shards,
+                              ObjectMapper objectMapper) {
+        this.gameService = gameService;
+        this.gameStatJsonCache = gameStatJsonCache;
+        this.shards = shards;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Creates games, see {@link GameService#createGames(int)}.
+     * @return ids of the games created
+     */
+    @PostMapping
+    public ResponseEntity<List<String>> createGames(@Validated @RequestBody BulkCreateRequest request) {
+        return new ResponseEntity<>(gameService.createGames(request.getCount()), HttpStatus.CREATED);
+    }
+
+    /**
+     * Streams the state of games as NDJSON, a line per game in the order of the ids:
+     * {@code {"gameId":..,"version":..,"gameStat":{..}}}, or {@code {"gameId":..,"status":..,"error":..}}
+     * with the status a request for the game alone would have. A game of another node of a cluster
+     * is reported with 307 and its {@code location}. Compacted games are read without restoring them,
+     * so a poll of many idle games does not push the active ones out of the hot tier.
+     */
+    @PostMapping(value = "/status", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getStatus(@RequestBody List<String> gameIds) {
+        if (gameIds.size() > MAX_STATUS_GAMES) {
+            throw new IllegalArgumentException("At most " + MAX_STATUS_GAMES + " games can be queried at once");
+        }
+        StreamingResponseBody body = out -> {
+            int lines = 0;
+            for (String gameId : gameIds) {
+                writeStatus(gameId, out);
+                if (++lines % FLUSH_LINES == 0) {
+                    out.flush();
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private void writeStatus(String gameId, OutputStream out) throws IOException {
+        if (gameId == null) {
+            writeLine(new GameStatusError(null, HttpStatus.BAD_REQUEST.value(), "Game id must not be null", null), out);
+            return;
+        }
+        String owner = shards.ownerOf(gameId);
+        if (!owner.equals(shards.getSelf()) && !gameService.hasGame(gameId)) {
+            writeLine(new GameStatusError(gameId, HttpStatus.TEMPORARY_REDIRECT.value(), "Game is on another node",
+                    owner + "/games/" + gameId), out);
+            return;
+        }
+        GameSnapshot snapshot;
+        try {
+            snapshot = gameService.getGameSnapshot(gameId);
+        } catch (GameMovedException e) {
+            writeLine(new GameStatusError(gameId, HttpStatus.TEMPORARY_REDIRECT.value(), e.getMessage(),
+                    shards.ownerOf(gameId) + "/games/" + gameId), out);
+            return;
+        } catch (IllegalArgumentException e) {
+            writeLine(new GameStatusError(gameId, HttpStatus.BAD_REQUEST.value(), e.getMessage(), null), out);
+            return;
+        } catch (IllegalStateException e) {
+            writeLine(new GameStatusError(gameId, HttpStatus.CONFLICT.value(), e.getMessage(), null), out);
+            return;
+        }
+        var gameStat = gameStatJsonCache.get(gameId, snapshot);
+        out.write(("{\"gameId\":" + objectMapper.writeValueAsString(gameId) + ",\"version\":" + gameStat.getVersion()
+                + ",\"gameStat\":").getBytes(StandardCharsets.UTF_8));
+        out.write(gameStat.getJson());
+        out.write('}');
+        out.write('\n');
+    }
+
+    private void writeLine(GameStatusError error, OutputStream out) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(error));
+        out.write('\n');
+    }
+
+    @Value
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    static class GameStatusError {
+        String gameId;
+        int status;
+        String error;
+        String location;
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handleIllegalArgumentException(IllegalArgumentException ex) {
+        return ex.getMessage();
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public String handleIllegalStateException(IllegalStateException ex) {
+        return ex.getMessage();
+    }
+}
@@ -1,7 +1,9 @@
 package xyz.a5s7.mancala.app.rest;
 
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -13,25 +15,46 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import xyz.a5s7.mancala.app.rest.model.PlayMovesRequest;
 import xyz.a5s7.mancala.app.rest.model.RegisterPlayerRequest;
-import xyz.a5s7.mancala.domain.model.statistics.GameStat;
+import xyz.a5s7.mancala.domain.model.statistics.GameSnapshot;
+import xyz.a5s7.mancala.domain.model.statistics.MoveBatch;
+import xyz.a5s7.mancala.domain.model.statistics.MovePreview;
+import xyz.a5s7.mancala.domain.service.GameMovedException;
 import xyz.a5s7.mancala.domain.service.GameService;
+import xyz.a5s7.mancala.domain.service.GameShards;
+import xyz.a5s7.mancala.domain.service.GameVersionConflictException;
 import xyz.a5s7.mancala.domain.model.GamePlayer;
 
+import java.net.URI;
+import java.util.List;
+
 @RestController
 @RequestMapping("/games")
 public class GameController {
 
     private final GameService gameService;
+    private final GameStatJsonCache gameStatJsonCache;
+    private final GameEventStream gameEventStream;
+    private final GameShards shards;
 
     @Autowired
-    public GameController(GameService gameService) {
+    public GameController(GameService gameService, GameStatJsonCache gameStatJsonCache, GameEventStream gameEventStream,
+                          GameShards shards) {
         this.gameService = gameService;
+        this.gameStatJsonCache = gameStatJsonCache;
+        this.gameEventStream = gameEventStream;
+        this.shards = shards;
     }
 
+    /**
+     * Creates a game of two players, with {@code computer} one seat is played by the server,
+     * see {@link GameService#createGameWithComputer()}.
+     */
     @PostMapping("/create")
-    public ResponseEntity<String> createGame() {
-        String gameId = gameService.createGame();
+    public ResponseEntity<String> createGame(@RequestParam(defaultValue = "false") boolean computer) {
+        String gameId = computer ? gameService.createGameWithComputer() : gameService.createGame();
         return new ResponseEntity<>(gameId, HttpStatus.CREATED);
     }
 
@@ -42,16 +65,91 @@ public class GameController {
         return new ResponseEntity<>(player, HttpStatus.CREATED);
     }
 
-    @GetMapping("/{gameId}")
-    public ResponseEntity<GameStat> getGameStat(@PathVariable String gameId) {
-        GameStat gameStat = gameService.getGameStat(gameId);
-        return new ResponseEntity<>(gameStat, HttpStatus.OK);
+    /**
+     * Returns the game state with a strong ETag of its version.
+     * Responds with 304 Not Modified if If-None-Match matches the current version.
+     */
+    @GetMapping(value = "/{gameId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getGameStat(@PathVariable String gameId) {
+        return toResponse(HttpStatus.OK, gameId, gameService.getGameSnapshot(gameId));
+    }
+
+    /**
+     * Streams the game state as Server-Sent Events: the current state first, then the state after every change.
+     */
+    @GetMapping(value = "/{gameId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@PathVariable String gameId) {
+        return gameEventStream.subscribe(gameId, () -> gameService.getGameSnapshot(gameId));
+    }
+
+    /**
+     * Plays a move. With {@code expectedVersion} the move is applied only if the game is still at that version
+     * (the ETag of the state the player has seen), otherwise 409 Conflict is returned with the current state.
+     */
+    @PostMapping(value = "/{gameId}/players/{playerId}/play", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> play(@PathVariable String gameId, @PathVariable String playerId, @RequestParam int pit,
+                                       @RequestParam(required = false) Long expectedVersion) {
+        GameSnapshot snapshot = gameService.play(gameId, playerId, pit, expectedVersion);
+        return toResponse(HttpStatus.OK, gameId, snapshot);
+    }
+
+    /**
+     * Plays moves of a player in one step while the player keeps the turn, see {@link GameService#playMoves}.
+     * Returns the state after the moves with the outcome of every move, the ETag is the version after the moves.
+     */
+    @PostMapping(value = "/{gameId}/players/{playerId}/moves", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<MoveBatch> playMoves(@PathVariable String gameId, @PathVariable String playerId,
+                                               @Validated @RequestBody PlayMovesRequest request,
+                                               @RequestParam(required = false) Long expectedVersion) {
+        MoveBatch batch = gameService.playMoves(gameId, playerId, request.getPits(), expectedVersion);
+        return ResponseEntity.ok()
+                .eTag("\"" + batch.getVersion() + "\"")
+                .body(batch);
+    }
+
+    /**
+     * Previews every move of the player to move without playing it: where its last stone lands, whether it gives
+     * another turn, the stones it captures and the big pits after it.
+     */
+    @GetMapping(value = "/{gameId}/moves", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<MovePreview>> previewMoves(@PathVariable String gameId) {
+        return ResponseEntity.ok(gameService.previewMoves(gameId));
+    }
+
+    /**
+     * Plays a move of the player holding a session returned by the registration, as {@link #play} does.
+     */
+    @PostMapping(value = "/{gameId}/sessions/{session}/play", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> playSession(@PathVariable String gameId, @PathVariable long session,
+                                              @RequestParam int pit,
+                                              @RequestParam(required = false) Long expectedVersion) {
+        GameSnapshot snapshot = gameService.play(gameId, session, pit, expectedVersion);
+        return toResponse(HttpStatus.OK, gameId, snapshot);
+    }
+
+    private ResponseEntity<byte[]> toResponse(HttpStatus status, String gameId, GameSnapshot snapshot) {
+        var gameStat = gameStatJsonCache.get(gameId, snapshot);
+        return ResponseEntity.status(status)
+                .eTag(gameStat.getEtag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(gameStat.getJson());
+    }
+
+    @ExceptionHandler(GameVersionConflictException.class)
+    public ResponseEntity<byte[]> handleGameVersionConflictException(GameVersionConflictException ex) {
+        return toResponse(HttpStatus.CONFLICT, ex.getGameId(), ex.getCurrent());
     }
 
-    @PostMapping("/{gameId}/players/{playerId}/play")
-    public ResponseEntity<GameStat> play(@PathVariable String gameId, @PathVariable String playerId, @RequestParam int pit) {
-        GameStat gameStat = gameService.play(gameId, playerId, pit);
-        return new ResponseEntity<>(gameStat, HttpStatus.OK);
+    /**
+     * Redirects a request accepted while its game was handed off to the node which took it over.
+     */
+    @ExceptionHandler(GameMovedException.class)
+    public ResponseEntity<Void> handleGameMovedException(GameMovedException ex, HttpServletRequest request) {
+        String query = request.getQueryString();
+        return ResponseEntity.status(HttpStatus.TEMPORARY_REDIRECT)
+                .location(URI.create(shards.ownerOf(ex.getGameId()) + request.getRequestURI()
+                        + (query == null ? "" : "?" + query)))
+                .build();
     }
 
     @ExceptionHandler(IllegalArgumentException.class)
@@ -0,0 +1,257 @@
+package xyz.a5s7.mancala.app.rest;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import xyz.a5s7.mancala.domain.model.statistics.GameSnapshot;
+import xyz.a5s7.mancala.domain.service.GameListener;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Streams game states to subscribers as Server-Sent Events.
+ * <p>
+ * A change of a game is serialized once and queued to every subscriber of the game. Each subscriber has a bounded
+ * queue drained by a shared pool, a subscriber which falls behind by more than the queue capacity is disconnected.
+ * A write blocks its thread until the client reads it, so the pool grows up to {@code mancala.events.max-threads}
+ * for the subscribers being written to, and a subscriber whose write takes longer than
+ * {@code mancala.events.send-timeout} is disconnected, so a client which stops reading holds one thread at most.
+ * Events are named {@code state}, their id is the version of the game and their data is {@code GameStat} JSON.
+ */
+@Component
+public class GameEventStream implements GameListener {
+    private static final String EVENT_NAME = "state";
+
+    private final GameStatJsonCache gameStatJsonCache;
+    private final int queueCapacity;
+    private final int maxSubscribersPerGame;
+    private final long timeoutMillis;
+    private final long sendTimeoutNanos;
+    private final ThreadPoolExecutor dispatcher;
+    private final ScheduledExecutorService watchdog;
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    public GameEventStream(GameStatJsonCache gameStatJsonCache,
+                           @Value("${mancala.events.queue-capacity:16}") int queueCapacity,
+                           @Value("${mancala.events.max-subscribers-per-game:64}") int maxSubscribersPerGame,
+                           @Value("${mancala.events.timeout:30m}") Duration timeout,
+                           @Value("${mancala.events.dispatcher-threads:4}") int dispatcherThreads,
+                           @Value("${mancala.events.max-threads:256}") int maxThreads,
+                           @Value("${mancala.events.send-timeout:10s}") Duration sendTimeout) {
+        this.gameStatJsonCache = gameStatJsonCache;
+        this.queueCapacity = queueCapacity;
+        this.maxSubscribersPerGame = maxSubscribersPerGame;
+        this.timeoutMillis = timeout.toMillis();
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        AtomicInteger count = new AtomicInteger();
+        this.dispatcher = new ThreadPoolExecutor(dispatcherThreads, Math.max(dispatcherThreads, maxThreads),
+                1, TimeUnit.MINUTES, new SynchronousQueue<>(), r -> {
+            Thread thread = new Thread(r, "game-events-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "game-events-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, sendTimeout.toMillis() / 2);
+        watchdog.scheduleWithFixedDelay(this::disconnectStalled, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Subscribes to changes of a game, the current state is sent first.
+     * The current state is read once the subscriber is registered, so a change published meanwhile is not missed.
+     * @param gameId id of the game
+     * @param snapshot reads the current state of the game
+     * @return emitter of the events
+     */
+    public SseEmitter subscribe(String gameId, Supplier<GameSnapshot> snapshot) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(gameId, emitter);
+        Set<Subscriber> gameSubscribers = subscribers.compute(gameId, (id, set) -> {
+            if (set == null) {
+                set = ConcurrentHashMap.newKeySet();
+            }
+            if (set.size() < maxSubscribersPerGame) {
+                set.add(subscriber);
+            }
+            return set;
+        });
+        if (!gameSubscribers.contains(subscriber)) {
+            throw new IllegalStateException("Too many subscribers of the game. Try again later");
+        }
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> unsubscribe(subscriber));
+        GameSnapshot current;
+        try {
+            current = snapshot.get();
+        } catch (RuntimeException e) {
+            unsubscribe(subscriber);
+            throw e;
+        }
+        subscriber.offer(toEvent(gameId, current));
+        return emitter;
+    }
+
+    @Override
+    public void onGameChanged(String gameId, GameSnapshot snapshot) {
+        Set<Subscriber> gameSubscribers = subscribers.get(gameId);
+        if (gameSubscribers == null || gameSubscribers.isEmpty()) {
+            return;
+        }
+        Event event = toEvent(gameId, snapshot);
+        for (Subscriber subscriber : gameSubscribers) {
+            subscriber.offer(event);
+        }
+    }
+
+    int getSubscriberCount(String gameId) {
+        Set<Subscriber> gameSubscribers = subscribers.get(gameId);
+        return gameSubscribers == null ? 0 : gameSubscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        watchdog.shutdownNow();
+        dispatcher.shutdownNow();
+        subscribers.values().forEach(set -> set.forEach(s -> s.emitter.complete()));
+    }
+
+    private Event toEvent(String gameId, GameSnapshot snapshot) {
+        var gameStat = gameStatJsonCache.get(gameId, snapshot);
+        return new Event(gameStat.getVersion(), SseEmitter.event()
+                .id(Long.toString(gameStat.getVersion()))
+                .name(EVENT_NAME)
+                .data(gameStat.getJson(), MediaType.APPLICATION_JSON)
+                .build());
+    }
+
+    private void disconnectStalled() {
+        long now = System.nanoTime();
+        for (Set<Subscriber> gameSubscribers : subscribers.values()) {
+            for (Subscriber subscriber : gameSubscribers) {
+                long sendStarted = subscriber.sendStarted;
+                if (sendStarted != 0 && now - sendStarted > sendTimeoutNanos) {
+                    subscriber.disconnect();
+                }
+            }
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.gameId, (id, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private static final class Event {
+        private final long version;
+        private final Set<DataWithMediaType> data;
+
+        private Event(long version, Set<DataWithMediaType> data) {
+            this.version = version;
+            this.data = data;
+        }
+    }
+
+    private class Subscriber {
+        private final String gameId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Event> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private long lastSentVersion = -1;
+        /**
+         * When the write in progress started, 0 if there is none.
+         */
+        private volatile long sendStarted;
+        private volatile boolean disconnected;
+
+        private Subscriber(String gameId, SseEmitter emitter) {
+            this.gameId = gameId;
+            this.emitter = emitter;
+        }
+
+        private void offer(Event event) {
+            if (!queue.offer(event)) {
+                // slow consumer, it can reconnect and start from the latest state
+                disconnect();
+                return;
+            }
+            schedule();
+        }
+
+        /**
+         * Stops sending to the subscriber. The emitter is locked by a write in progress, so it is completed
+         * by the writer once the write returns.
+         */
+        private void disconnect() {
+            disconnected = true;
+            unsubscribe(this);
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    dispatcher.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // every thread is writing, none of them to this subscriber, it can reconnect later
+                    unsubscribe(this);
+                    emitter.complete();
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                Event event;
+                while (!disconnected && (event = queue.poll()) != null) {
+                    // changes of the same game may be published out of order, the current state twice
+                    if (event.version <= lastSentVersion) {
+                        continue;
+                    }
+                    lastSentVersion = event.version;
+                    sendStarted = System.nanoTime() | 1;
+                    emitter.send(event.data);
+                    sendStarted = 0;
+                }
+                if (disconnected) {
+                    emitter.complete();
+                    return;
+                }
+            } catch (IOException | IllegalStateException e) {
+                unsubscribe(this);
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                sendStarted = 0;
+                scheduled.set(false);
+            }
+            if (!queue.isEmpty() || disconnected) {
+                schedule();
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package xyz.a5s7.mancala.app.rest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+import xyz.a5s7.mancala.domain.model.statistics.GameSnapshot;
+import xyz.a5s7.mancala.domain.service.GameListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps JSON of the latest snapshot of each game, so a snapshot is serialized once however often it is read.
+ * The JSON of an evicted game is dropped with it.
+ */
+@Component
+public class GameStatJsonCache implements GameListener {
+    private final ObjectMapper objectMapper;
+    private final Map<String, SerializedGameStat> cache = new ConcurrentHashMap<>();
+
+    public GameStatJsonCache(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public SerializedGameStat get(String gameId, GameSnapshot snapshot) {
+        SerializedGameStat cached = cache.get(gameId);
+        if (cached != null && cached.getVersion() >= snapshot.getVersion()) {
+            return cached;
+        }
+        SerializedGameStat serialized = serialize(snapshot);
+        // a concurrent reader may have cached a newer version meanwhile
+        return cache.merge(gameId, serialized, (old, cur) -> old.getVersion() >= cur.getVersion() ? old : cur);
+    }
+
+    public void remove(String gameId) {
+        cache.remove(gameId);
+    }
+
+    @Override
+    public void onGameChanged(String gameId, GameSnapshot snapshot) {
+        // serialized when read
+    }
+
+    @Override
+    public void onGameEvicted(String gameId) {
+        remove(gameId);
+    }
+
+    private SerializedGameStat serialize(GameSnapshot snapshot) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(snapshot.getGameStat());
+            return new SerializedGameStat(snapshot.getVersion(), "\"" + snapshot.getVersion() + "\"", json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize game stat", e);
+        }
+    }
+
+    @Value
+    public static class SerializedGameStat {
+        long version;
+        /**
+         * Strong entity tag of the version.
+         */
+        String etag;
+        byte[] json;
+    }
+}
@@ -0,0 +1,98 @@
+package xyz.a5s7.mancala.app.rest;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import xyz.a5s7.mancala.app.rest.model.MatchRequest;
+import xyz.a5s7.mancala.domain.model.GamePlayer;
+import xyz.a5s7.mancala.domain.service.Matchmaker;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Matchmaking: a player waits in the lobby, then long-polls for the game it is matched into.
+ */
+@RestController
+@RequestMapping("/matches")
+public class MatchmakingController {
+    private final Matchmaker matchmaker;
+    private final long pollTimeoutMillis;
+
+    public MatchmakingController(Matchmaker matchmaker,
+                                 @Value("${mancala.matchmaking.poll-timeout:30s}") Duration pollTimeout) {
+        this.matchmaker = matchmaker;
+        this.pollTimeoutMillis = pollTimeout.toMillis();
+    }
+
+    /**
+     * Queues a player for a game, responds with 202 Accepted and the location to poll for the match.
+     */
+    @PostMapping
+    public ResponseEntity<Void> enqueue(@Validated @RequestBody MatchRequest request) {
+        matchmaker.enqueue(request.getPlayerId(), request.getPlayers());
+        return ResponseEntity.accepted()
+                .location(URI.create("/matches/" + request.getPlayerId()))
+                .build();
+    }
+
+    /**
+     * Waits for the match of a player: the player of its game once it is created,
+     * 204 No Content if the player is still waiting when the poll times out, 404 if the player is not waiting.
+     */
+    @GetMapping("/{playerId}")
+    public DeferredResult<ResponseEntity<GamePlayer>> poll(@PathVariable String playerId) {
+        DeferredResult<ResponseEntity<GamePlayer>> result =
+                new DeferredResult<>(pollTimeoutMillis, ResponseEntity.noContent().build());
+        CompletableFuture<GamePlayer> match = matchmaker.getMatch(playerId);
+        if (match == null) {
+            result.setResult(ResponseEntity.notFound().build());
+            return result;
+        }
+        match.whenComplete((player, e) -> {
+            Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+            if (cause == null) {
+                result.setResult(ResponseEntity.ok(player));
+            } else if (cause instanceof CancellationException) {
+                result.setResult(ResponseEntity.notFound().build());
+            } else {
+                result.setErrorResult(cause);
+            }
+        });
+        return result;
+    }
+
+    @DeleteMapping("/{playerId}")
+    public ResponseEntity<Void> cancel(@PathVariable String playerId) {
+        if (!matchmaker.cancel(playerId)) {
+            throw new IllegalStateException("Player is not waiting");
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handleIllegalArgumentException(IllegalArgumentException ex) {
+        return ex.getMessage();
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public String handleIllegalStateException(IllegalStateException ex) {
+        return ex.getMessage();
+    }
+}
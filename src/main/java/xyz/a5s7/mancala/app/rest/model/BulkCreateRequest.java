@@ -0,0 +1,18 @@
+package xyz.a5s7.mancala.app.rest.model;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@NoArgsConstructor
+@Getter
+@EqualsAndHashCode
+@ToString
+public final class BulkCreateRequest {
+    @Min(1)
+    @Max(1000)
+    int count;
+}
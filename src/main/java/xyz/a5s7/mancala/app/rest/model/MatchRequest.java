@@ -0,0 +1,22 @@
+package xyz.a5s7.mancala.app.rest.model;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import xyz.a5s7.mancala.domain.model.GameBoard;
+
+@NoArgsConstructor
+@Getter
+@EqualsAndHashCode
+@ToString
+public final class MatchRequest {
+    @NotNull
+    String playerId;
+    @Min(GameBoard.MIN_PLAYERS)
+    @Max(GameBoard.MAX_PLAYERS)
+    int players = GameBoard.MIN_PLAYERS;
+}
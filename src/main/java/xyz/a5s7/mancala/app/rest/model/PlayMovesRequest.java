@@ -0,0 +1,19 @@
+package xyz.a5s7.mancala.app.rest.model;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.util.List;
+
+@NoArgsConstructor
+@Getter
+@EqualsAndHashCode
+@ToString
+public final class PlayMovesRequest {
+    @NotEmpty
+    List<@NotNull Integer> pits;
+}
@@ -0,0 +1,16 @@
+package xyz.a5s7.mancala.app.websocket;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Value;
+
+/**
+ * Rejected move, status is the HTTP status the REST API would respond with.
+ * A move of a game handed off to another node has status 307 and the location of the node to reconnect to.
+ */
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ErrorFrame {
+    int status;
+    String error;
+    String location;
+}
@@ -0,0 +1,62 @@
+package xyz.a5s7.mancala.app.websocket;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import xyz.a5s7.mancala.domain.model.GamePlayer;
+import xyz.a5s7.mancala.domain.service.GameMovedException;
+import xyz.a5s7.mancala.domain.service.GameService;
+import xyz.a5s7.mancala.domain.service.GameShards;
+
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * Authenticates a player once per connection: the player must be registered in the game of the path.
+ */
+@Component
+public class GamePlayerHandshakeInterceptor implements HandshakeInterceptor {
+    static final String PATH_PATTERN = "/games/{gameId}/players/{playerId}/ws";
+    static final String PLAYER_ATTRIBUTE = "gamePlayer";
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final GameService gameService;
+    private final GameShards shards;
+
+    public GamePlayerHandshakeInterceptor(GameService gameService, GameShards shards) {
+        this.gameService = gameService;
+        this.shards = shards;
+    }
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        String path = request.getURI().getPath();
+        if (!pathMatcher.match(PATH_PATTERN, path)) {
+            response.setStatusCode(HttpStatus.NOT_FOUND);
+            return false;
+        }
+        Map<String, String> variables = pathMatcher.extractUriTemplateVariables(PATH_PATTERN, path);
+        try {
+            GamePlayer player = gameService.getGamePlayer(variables.get("gameId"), variables.get("playerId"));
+            attributes.put(PLAYER_ATTRIBUTE, player);
+            return true;
+        } catch (GameMovedException e) {
+            response.setStatusCode(HttpStatus.TEMPORARY_REDIRECT);
+            response.getHeaders().setLocation(URI.create(shards.ownerOf(e.getGameId()) + path));
+            return false;
+        } catch (IllegalArgumentException e) {
+            response.setStatusCode(HttpStatus.FORBIDDEN);
+            return false;
+        }
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+}
@@ -0,0 +1,114 @@
+package xyz.a5s7.mancala.app.websocket;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+import xyz.a5s7.mancala.app.rest.GameStatJsonCache;
+import xyz.a5s7.mancala.domain.model.statistics.GameSnapshot;
+import xyz.a5s7.mancala.domain.service.GameListener;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Open WebSocket connections by game. Sends a state frame to every connection of a game when the game changes.
+ * <p>
+ * Sends are buffered up to a limit, a connection which cannot keep up is closed and removed from its game.
+ */
+@Component
+public class GameSocketSessions implements GameListener {
+    private final GameStatJsonCache gameStatJsonCache;
+    private final int sendTimeLimitMillis;
+    private final int bufferSizeLimit;
+    private final Map<String, Set<GameSocketSession>> sessions = new ConcurrentHashMap<>();
+
+    public GameSocketSessions(GameStatJsonCache gameStatJsonCache,
+                              @Value("${mancala.websocket.send-time-limit:5s}") Duration sendTimeLimit,
+                              @Value("${mancala.websocket.buffer-size-limit:65536}") int bufferSizeLimit) {
+        this.gameStatJsonCache = gameStatJsonCache;
+        this.sendTimeLimitMillis = (int) sendTimeLimit.toMillis();
+        this.bufferSizeLimit = bufferSizeLimit;
+    }
+
+    GameSocketSession add(String gameId, WebSocketSession session) {
+        var socketSession = new GameSocketSession(gameId, new ConcurrentWebSocketSessionDecorator(
+                session, sendTimeLimitMillis, bufferSizeLimit, ConcurrentWebSocketSessionDecorator.OverflowStrategy.TERMINATE));
+        sessions.computeIfAbsent(gameId, id -> ConcurrentHashMap.newKeySet()).add(socketSession);
+        return socketSession;
+    }
+
+    void remove(String gameId, GameSocketSession socketSession) {
+        sessions.computeIfPresent(gameId, (id, set) -> {
+            set.remove(socketSession);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    int getSessionCount(String gameId) {
+        Set<GameSocketSession> gameSessions = sessions.get(gameId);
+        return gameSessions == null ? 0 : gameSessions.size();
+    }
+
+    @Override
+    public void onGameChanged(String gameId, GameSnapshot snapshot) {
+        Set<GameSocketSession> gameSessions = sessions.get(gameId);
+        if (gameSessions == null || gameSessions.isEmpty()) {
+            return;
+        }
+        sendState(gameId, snapshot, gameSessions);
+    }
+
+    void sendState(String gameId, GameSnapshot snapshot, Iterable<GameSocketSession> targets) {
+        var gameStat = gameStatJsonCache.get(gameId, snapshot);
+        for (GameSocketSession target : targets) {
+            target.sendState(gameStat.getVersion(), gameStat.getJson());
+        }
+    }
+
+    class GameSocketSession {
+        private final String gameId;
+        private final WebSocketSession session;
+        private long lastSentVersion = -1;
+
+        private GameSocketSession(String gameId, WebSocketSession session) {
+            this.gameId = gameId;
+            this.session = session;
+        }
+
+        synchronized void sendState(long version, byte[] json) {
+            // changes of the same game may be published out of order
+            if (version < lastSentVersion) {
+                return;
+            }
+            lastSentVersion = version;
+            send(new TextMessage(json));
+        }
+
+        void send(TextMessage message) {
+            try {
+                session.sendMessage(message);
+            } catch (IOException | IllegalStateException e) {
+                close();
+            } catch (SessionLimitExceededException e) {
+                // slow consumer, the decorator drops its sends but leaves it open
+                remove(gameId, this);
+                close();
+            }
+        }
+
+        private void close() {
+            try {
+                session.close(CloseStatus.SESSION_NOT_RELIABLE);
+            } catch (IOException ignored) {
+                // the connection is gone already
+            }
+        }
+    }
+}
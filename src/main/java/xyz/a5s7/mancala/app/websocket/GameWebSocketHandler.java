@@ -0,0 +1,100 @@
+package xyz.a5s7.mancala.app.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import xyz.a5s7.mancala.app.websocket.GameSocketSessions.GameSocketSession;
+import xyz.a5s7.mancala.domain.model.GamePlayer;
+import xyz.a5s7.mancala.domain.service.GameMovedException;
+import xyz.a5s7.mancala.domain.service.GameService;
+import xyz.a5s7.mancala.domain.service.GameShards;
+
+import java.util.List;
+
+/**
+ * Move-and-state channel of a player, connected at {@code /games/{gameId}/players/{playerId}/ws}.
+ * <p>
+ * After connecting the player receives the current state. A move frame is the pit number as text, e.g. {@code 3}.
+ * Every player of the game receives a state frame with {@code GameStat} JSON after each change of the game.
+ * A rejected move is answered to the mover only, with {@code {"status":400|409,"error":"..."}} like the REST API.
+ * A move of a game handed off to another node is answered with {@code {"status":307,"error":"...","location":"..."}},
+ * the location is the channel of the player on the node which took the game over.
+ */
+@Component
+public class GameWebSocketHandler extends TextWebSocketHandler {
+    private static final String SOCKET_SESSION_ATTRIBUTE = "gameSocketSession";
+
+    private final GameService gameService;
+    private final GameSocketSessions gameSocketSessions;
+    private final GameShards shards;
+    private final ObjectMapper objectMapper;
+
+    public GameWebSocketHandler(GameService gameService, GameSocketSessions gameSocketSessions, GameShards shards,
+                                ObjectMapper objectMapper) {
+        this.gameService = gameService;
+        this.gameSocketSessions = gameSocketSessions;
+        this.shards = shards;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        GamePlayer player = getPlayer(session);
+        GameSocketSession socketSession = gameSocketSessions.add(player.getGameId(), session);
+        session.getAttributes().put(SOCKET_SESSION_ATTRIBUTE, socketSession);
+        gameSocketSessions.sendState(player.getGameId(), gameService.getGameSnapshot(player.getGameId()),
+                List.of(socketSession));
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        GameSocketSession socketSession = (GameSocketSession) session.getAttributes().get(SOCKET_SESSION_ATTRIBUTE);
+        int pit;
+        try {
+            pit = Integer.parseInt(message.getPayload().trim());
+        } catch (NumberFormatException e) {
+            socketSession.send(error(HttpStatus.BAD_REQUEST, "Pit must be a number"));
+            return;
+        }
+        try {
+            // the state frame is sent by GameSocketSessions to all players of the game
+            gameService.play(getPlayer(session), pit);
+        } catch (GameMovedException e) {
+            socketSession.send(error(HttpStatus.TEMPORARY_REDIRECT, e.getMessage(),
+                    shards.ownerOf(e.getGameId()) + session.getUri().getPath()));
+        } catch (IllegalArgumentException e) {
+            socketSession.send(error(HttpStatus.BAD_REQUEST, e.getMessage()));
+        } catch (IllegalStateException e) {
+            socketSession.send(error(HttpStatus.CONFLICT, e.getMessage()));
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        GameSocketSession socketSession = (GameSocketSession) session.getAttributes().get(SOCKET_SESSION_ATTRIBUTE);
+        if (socketSession != null) {
+            gameSocketSessions.remove(getPlayer(session).getGameId(), socketSession);
+        }
+    }
+
+    private static GamePlayer getPlayer(WebSocketSession session) {
+        return (GamePlayer) session.getAttributes().get(GamePlayerHandshakeInterceptor.PLAYER_ATTRIBUTE);
+    }
+
+    private TextMessage error(HttpStatus status, String message) {
+        return error(status, message, null);
+    }
+
+    private TextMessage error(HttpStatus status, String message, String location) {
+        try {
+            return new TextMessage(objectMapper.writeValueAsBytes(new ErrorFrame(status.value(), message, location)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize error", e);
+        }
+    }
+}
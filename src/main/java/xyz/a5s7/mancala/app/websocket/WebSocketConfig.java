@@ -0,0 +1,25 @@
+package xyz.a5s7.mancala.app.websocket;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+    private final GameWebSocketHandler gameWebSocketHandler;
+    private final GamePlayerHandshakeInterceptor gamePlayerHandshakeInterceptor;
+
+    public WebSocketConfig(GameWebSocketHandler gameWebSocketHandler,
+                           GamePlayerHandshakeInterceptor gamePlayerHandshakeInterceptor) {
+        this.gameWebSocketHandler = gameWebSocketHandler;
+        this.gamePlayerHandshakeInterceptor = gamePlayerHandshakeInterceptor;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(gameWebSocketHandler, "/games/*/players/*/ws")
+                .addInterceptors(gamePlayerHandshakeInterceptor);
+    }
+}
@@ -0,0 +1,108 @@
+package xyz.a5s7.mancala.domain.model;
+
+import xyz.a5s7.mancala.domain.model.statistics.GameSnapshot;
+import xyz.a5s7.mancala.domain.model.statistics.GameStat;
+import xyz.a5s7.mancala.domain.model.statistics.MovePreview;
+
+import java.util.List;
+
+/**
+ * Board of a Mancala game, the rules are described by {@link GameBoard}.
+ * <p>
+ * {@link GameBoard} plays any number of players, pits and stones. {@link PackedGameBoard} plays two players
+ * in a couple of longs, {@link #of(int, int, int, int)} picks it whenever the game fits.
+ * <p>
+ * A board is not thread-safe, moves of a game must be played by one thread at a time.
+ * Any thread can read the published snapshot.
+ */
+public interface Board {
+
+    /**
+     * Creates a board of the most compact form the game fits.
+     */
+    static Board of(int numberOfPlayers, int pits, int stones, int curPlayer) {
+        if (PackedGameBoard.fits(numberOfPlayers, pits, (long) numberOfPlayers * pits * stones)) {
+            return new PackedGameBoard(pits, stones, curPlayer);
+        }
+        return new GameBoard(numberOfPlayers, pits, stones, curPlayer);
+    }
+
+    /**
+     * Plays a move of the current player.
+     * @throws IllegalStateException if it is not the player's turn or the game is finished
+     * @throws IllegalArgumentException if the pit is out of range or empty
+     */
+    void play(int player, int pit);
+
+    /**
+     * Checks that a move can be played, {@link #play(int, int)} does not fail once it has passed.
+     * @throws IllegalStateException if it is not the player's turn or the game is finished
+     * @throws IllegalArgumentException if the pit is out of range or empty
+     */
+    default void checkMove(int player, int pit) {
+        if (getCurPlayer() != player) {
+            throw new IllegalStateException("Not your turn");
+        }
+        if (pit < 0 || pit >= getPitsPerPlayer()) {
+            throw new IllegalArgumentException("Pit must be in range 0.." + (getPitsPerPlayer() - 1));
+        }
+        if (isGameFinished()) {
+            throw new IllegalStateException("Game is finished");
+        }
+        if (getStonesInPit(player, pit) == 0) {
+            throw new IllegalArgumentException("Pit must have stones");
+        }
+    }
+
+    int getCurPlayer();
+
+    int getNumberOfPlayers();
+
+    int getPitsPerPlayer();
+
+    boolean isGameFinished();
+
+    /**
+     * @return number of moves played
+     */
+    long getVersion();
+
+    int getStonesInPit(int player, int pit);
+
+    int getLargePit(int player);
+
+    GameStat getGameStat();
+
+    /**
+     * Previews a move of the current player without playing it.
+     * @throws IllegalStateException if the game is finished
+     * @throws IllegalArgumentException if the pit is out of range or empty
+     */
+    default MovePreview previewMove(int pit) {
+        return MovePreviews.of(this, pit);
+    }
+
+    /**
+     * @return previews of every move the current player can make, empty if the game is finished
+     */
+    default List<MovePreview> previewMoves() {
+        return MovePreviews.of(this);
+    }
+
+    /**
+     * Returns snapshot of the current version. Must be called by the thread which plays.
+     */
+    GameSnapshot getSnapshot();
+
+    /**
+     * Returns the snapshot of the last version published by {@link #getSnapshot()}. Can be called by any thread.
+     */
+    GameSnapshot getPublishedSnapshot();
+
+    /**
+     * Returns whether the game of the published snapshot is finished. Can be called by any thread.
+     */
+    default boolean isPublishedGameFinished() {
+        return getPublishedSnapshot().getGameStat().isGameOver();
+    }
+}
@@ -1,14 +1,11 @@
 package xyz.a5s7.mancala.domain.model;
 
 import lombok.Getter;
-import xyz.a5s7.mancala.domain.model.statistics.BoardState;
+import xyz.a5s7.mancala.domain.model.statistics.GameSnapshot;
 import xyz.a5s7.mancala.domain.model.statistics.GameStat;
-import xyz.a5s7.mancala.domain.model.statistics.PlayerStat;
 
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.IntStream;
 
 /**
  * Mancala game for specified number of players.
@@ -29,20 +26,48 @@ import java.util.stream.IntStream;
  * The game is over as soon as one of the sides runs out of stones. The player who
  * still has stones in his pits keeps them and puts them in his big pit. The winner of
  * the game is the player who has the most stones in his big pit.
+ * <p>
+ * All players share one flat {@code int[]} board: player {@code p} owns cells
+ * {@code p * (pits + 1) .. p * (pits + 1) + pits - 1}, followed by its big pit.
+ * A move only touches this array, so it does not allocate. The player views keep the {@link Zobrist} hash of
+ * their cells as they change, {@link #getHash()} combines them with the key of the player to move.
+ * <p>
+ * Every move increments the board's version. The {@link GameStat} of the latest version is built once and
+ * published as a {@link GameSnapshot}, which can be read by any thread.
+ * <p>
+ * The board is not thread-safe, moves of a game must be played by one thread at a time.
  */
-public class GameBoard {
+public class GameBoard implements Board {
     public static final int MIN_PLAYERS = 2;
     public static final int MAX_PLAYERS = 6;
     public static final int MIN_PITS_PER_PLAYER = 1;
-    private final List<PlayerBoard> playerBoards;
+    private final int[] cells;
+    private final PlayerBoard[] playerBoards;
+    @Getter
     private int curPlayer;
     @Getter
     private final int numberOfPlayers;
+    @Getter
     private final int pitsPerPlayer;
+    /**
+     * Number of cells owned by a player: pits and the big pit.
+     */
+    private final int stride;
+    /**
+     * Number of cells a stone is sown to during one lap around the board: all pits and own big pit.
+     */
+    private final int lapLength;
 
+    @Getter
     private boolean gameFinished;
     @Getter
-    private volatile boolean gameReady;
+    private long version;
+    /**
+     * Stones captured by the last move, the capturing stone included, 0 if the move captured none.
+     */
+    @Getter
+    private int lastCaptured;
+    private volatile GameSnapshot snapshot;
 
     public GameBoard(int numberOfPlayers, int pits, int stones, int curPlayer) {
         this.numberOfPlayers = numberOfPlayers;
@@ -52,11 +77,14 @@ public class GameBoard {
         if (stones <= 0) {
             throw new IllegalArgumentException("Pit must have stones");
         }
-        playerBoards = new ArrayList<>(numberOfPlayers);
+        this.stride = pitsPerPlayer + 1;
+        this.lapLength = numberOfPlayers * pitsPerPlayer + 1;
+        cells = new int[numberOfPlayers * stride];
         for (int i = 0; i < numberOfPlayers; i++) {
-            playerBoards.add(new PlayerBoard(pitsPerPlayer, stones));
+            Arrays.fill(cells, i * stride, i * stride + pitsPerPlayer, stones);
         }
-        gameReady = true;
+        playerBoards = createPlayerBoards();
+        snapshot = getSnapshot();
     }
 
     private void checkArguments() {
@@ -71,18 +99,64 @@ public class GameBoard {
         }
     }
 
+    /**
+     * Creates a game from the given player boards. The boards are copied into the game's flat board,
+     * so later changes of the game are not visible through them.
+     */
     public GameBoard(List<PlayerBoard> playerBoards, int curPlayer) {
-        this.playerBoards = playerBoards;
         this.numberOfPlayers = playerBoards.size();
         this.curPlayer = curPlayer;
-        this.pitsPerPlayer = playerBoards.get(0).getPits().size();
+        this.pitsPerPlayer = playerBoards.get(0).getPitsNum();
         checkArguments();
         for (PlayerBoard playerBoard : playerBoards) {
-            if (playerBoard.getPits().size() != pitsPerPlayer) {
+            if (playerBoard.getPitsNum() != pitsPerPlayer) {
                 throw new IllegalArgumentException("All players must have the same number of pits");
             }
         }
-        gameReady = true;
+        this.stride = pitsPerPlayer + 1;
+        this.lapLength = numberOfPlayers * pitsPerPlayer + 1;
+        cells = new int[numberOfPlayers * stride];
+        for (int i = 0; i < numberOfPlayers; i++) {
+            PlayerBoard playerBoard = playerBoards.get(i);
+            for (int pit = 0; pit < pitsPerPlayer; pit++) {
+                cells[i * stride + pit] = playerBoard.getStonesInPit(pit);
+            }
+            cells[i * stride + pitsPerPlayer] = playerBoard.getLargePit();
+        }
+        this.playerBoards = createPlayerBoards();
+        snapshot = getSnapshot();
+    }
+
+    /**
+     * Restores a game saved by {@link GameBoardCodec}.
+     * @param cells board of all players, pits of each player followed by the big pit, it is not copied
+     */
+    GameBoard(int numberOfPlayers, int pits, int curPlayer, int[] cells, boolean gameFinished, long version) {
+        this.numberOfPlayers = numberOfPlayers;
+        this.pitsPerPlayer = pits;
+        this.curPlayer = curPlayer;
+        checkArguments();
+        this.stride = pitsPerPlayer + 1;
+        this.lapLength = numberOfPlayers * pitsPerPlayer + 1;
+        if (cells.length != numberOfPlayers * stride) {
+            throw new IllegalArgumentException("Board must have " + numberOfPlayers * stride + " cells");
+        }
+        this.cells = cells;
+        this.gameFinished = gameFinished;
+        this.version = version;
+        this.playerBoards = createPlayerBoards();
+        snapshot = getSnapshot();
+    }
+
+    /**
+     * Creates player views over the filled board, the views count the stones in their pits.
+     */
+    private PlayerBoard[] createPlayerBoards() {
+        PlayerBoard[] boards = new PlayerBoard[numberOfPlayers];
+        for (int i = 0; i < numberOfPlayers; i++) {
+            boards[i] = new PlayerBoard(cells, i * stride, pitsPerPlayer);
+        }
+        return boards;
     }
 
     public void play(int player, int pit) {
@@ -95,71 +169,116 @@ public class GameBoard {
         if (gameFinished) {
             throw new IllegalStateException("Game is finished");
         }
-        if (!gameReady) {
-            throw new IllegalStateException("Game is not ready. Please wait for your turn");
-        }
 
-        gameReady = false;
-        PlayerBoard curPlayerBoard = playerBoards.get(curPlayer);
+        PlayerBoard curPlayerBoard = playerBoards[curPlayer];
         if (curPlayerBoard.getStonesInPit(pit) == 0) {
-            gameReady = true;
             throw new IllegalArgumentException("Pit must have stones");
         }
 
+        lastCaptured = 0;
         int stones = curPlayerBoard.emptyPit(pit);
-        int start = pit + 1;
-        int playerIdx = curPlayer;
-        boolean isCurPlayerSowing = true;
-        while (stones > 0) {//O(stones), but can be O(players * pits), constant time
-            isCurPlayerSowing = playerIdx == curPlayer;
-            stones = playerBoards.get(playerIdx).sowStones(start, stones, isCurPlayerSowing);
-            start = 0;
-            playerIdx = getNextPlayerIdx(playerIdx);
-        }
-        if (isCurPlayerSowing) {// if landed in own pit
-            if (stones < 0) {
-                int landedPit = pitsPerPlayer + stones;
-                if (curPlayerBoard.getStonesInPit(landedPit) == 1) {
-                    int nextPlayerStones = getNextPlayerBoard(curPlayer).emptyPit(landedPit);
-                    //only capture stones if there are stones in the opposite pit
-                    if (nextPlayerStones > 0) {
-                        //player captures his own stone and all stones in the other player’s pit
-                        int captured = nextPlayerStones + curPlayerBoard.emptyPit(landedPit);
-                        curPlayerBoard.captureStones(captured);
-                    }
+        if (stones > lapLength) {
+            // full laps are sown at once, the last lap is always sown stone by stone to find where it ends
+            int laps = (stones - 1) / lapLength;
+            sowLaps(laps);
+            stones -= laps * lapLength;
+        }
+        int owner = curPlayer;
+        int pos = pit;
+        while (stones > 0) {//at most one lap, O(players * pits)
+            pos++;
+            // opponents' big pits are skipped
+            if (pos > pitsPerPlayer || (pos == pitsPerPlayer && owner != curPlayer)) {
+                pos = 0;
+                owner = getNextPlayerIdx(owner);
+            }
+            playerBoards[owner].addStones(pos, 1);
+            stones--;
+        }
+        // if landed in own big pit, player gets another turn
+        if (owner != curPlayer || pos != pitsPerPlayer) {
+            if (owner == curPlayer && curPlayerBoard.getStonesInPit(pos) == 1) {// if landed in own empty pit
+                int nextPlayerStones = getNextPlayerBoard(curPlayer).emptyPit(pos);
+                //only capture stones if there are stones in the opposite pit
+                if (nextPlayerStones > 0) {
+                    //player captures his own stone and all stones in the other player’s pit
+                    int captured = nextPlayerStones + curPlayerBoard.emptyPit(pos);
+                    curPlayerBoard.captureStones(captured);
+                    lastCaptured = captured;
                 }
-                curPlayer = getNextPlayerIdx(curPlayer);
             }
-        } else {
             curPlayer = getNextPlayerIdx(curPlayer);
         }
 
-        gameFinished = isGameFinished();
+        gameFinished = hasEmptySide();
         if (gameFinished) {
-            playerBoards.forEach(PlayerBoard::finish);
+            for (PlayerBoard board : playerBoards) {
+                board.finish();
+            }
+        }
+        assert isStonesInPitsConsistent();
+        version++;
+    }
+
+    /**
+     * Sows full laps around the board: every pit and the big pit of the current player gets {@code laps} stones.
+     */
+    private void sowLaps(int laps) {
+        for (PlayerBoard board : playerBoards) {
+            board.addStonesToPits(laps);
+        }
+        playerBoards[curPlayer].addStones(pitsPerPlayer, laps);
+    }
+
+    public int getStonesInPit(int player, int pit) {
+        return playerBoards[player].getStonesInPit(pit);
+    }
+
+    public int getLargePit(int player) {
+        return playerBoards[player].getLargePit();
+    }
+
+    /**
+     * @return Zobrist hash of the position, the same as {@link Zobrist#hash(int[], int)} of the board
+     * and the player to move
+     */
+    public long getHash() {
+        long hash = Zobrist.player(curPlayer);
+        for (PlayerBoard board : playerBoards) {
+            hash ^= board.getHash();
         }
-        gameReady = true;
+        return hash;
     }
 
     public GameStat getGameStat() {
-        return new GameStat(curPlayer, getLeaderBoard(), getGameView(), gameFinished);
+        return getSnapshot().getGameStat();
     }
 
-    private List<BoardState> getGameView() {
-        return IntStream.range(0, playerBoards.size())
-                .mapToObj(i -> new BoardState(i, playerBoards.get(i).getPits(), playerBoards.get(i).getLargePit()))
-                .toList();
+    /**
+     * Returns snapshot of the current version, building it if the board has changed since the last call.
+     * Must be called by the thread which plays.
+     * @return snapshot of the current version
+     */
+    public GameSnapshot getSnapshot() {
+        GameSnapshot current = snapshot;
+        if (current == null || current.getVersion() != version) {
+            current = new GameSnapshot(version, GameStats.of(this));
+            snapshot = current;
+        }
+        return current;
     }
 
-    private List<PlayerStat> getLeaderBoard() {
-        return IntStream.range(0, playerBoards.size())
-                .mapToObj(i -> new PlayerStat(i, playerBoards.get(i).getLargePit()))
-                .sorted(Comparator.comparingInt(PlayerStat::getScore).reversed())
-                .toList();
+    /**
+     * Returns the last snapshot built by {@link #getSnapshot()}. Can be called by any thread,
+     * the snapshot may be behind the board if a move was played and no snapshot was built since.
+     * @return the last built snapshot
+     */
+    public GameSnapshot getPublishedSnapshot() {
+        return snapshot;
     }
 
 
-    private boolean isGameFinished() {
+    private boolean hasEmptySide() {
         for (PlayerBoard board : playerBoards) {
             if (!board.hasStones()) {
                 return true;
@@ -168,12 +287,21 @@ public class GameBoard {
         return false;
     }
 
+    private boolean isStonesInPitsConsistent() {
+        for (PlayerBoard board : playerBoards) {
+            if (!board.isStonesInPitsConsistent()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private int getNextPlayerIdx(int curIdx) {
         return (curIdx + MIN_PITS_PER_PLAYER) % numberOfPlayers;
     }
 
     private PlayerBoard getNextPlayerBoard(int curIdx) {
-        return playerBoards.get(getNextPlayerIdx(curIdx));
+        return playerBoards[getNextPlayerIdx(curIdx)];
     }
 
 }
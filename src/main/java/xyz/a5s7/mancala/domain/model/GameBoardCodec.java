@@ -0,0 +1,101 @@
+package xyz.a5s7.mancala.domain.model;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Dense binary form of a {@link Board}.
+ * <p>
+ * A board is written as its version, number of players, pits per player, current player, finished flag
+ * and the stones of every cell. Numbers are written as unsigned varints, so a pit of less than 128 stones
+ * takes one byte: a 2-player game of 6 pits takes about 20 bytes.
+ */
+public final class GameBoardCodec {
+    private static final int FORMAT = 1;
+
+    private GameBoardCodec() {
+    }
+
+    public static void write(Board board, DataOutput out) throws IOException {
+        out.writeByte(FORMAT);
+        writeVarLong(out, board.getVersion());
+        out.writeByte(board.getNumberOfPlayers());
+        writeVarLong(out, board.getPitsPerPlayer());
+        out.writeByte(board.getCurPlayer());
+        out.writeBoolean(board.isGameFinished());
+        for (int player = 0; player < board.getNumberOfPlayers(); player++) {
+            for (int pit = 0; pit < board.getPitsPerPlayer(); pit++) {
+                writeVarLong(out, board.getStonesInPit(player, pit));
+            }
+            writeVarLong(out, board.getLargePit(player));
+        }
+    }
+
+    /**
+     * Reads a board written by {@link #write(Board, DataOutput)}, packed if it fits {@link PackedGameBoard}.
+     * @throws IOException if the input is not a board of a known format
+     */
+    public static Board read(DataInput in) throws IOException {
+        int format = in.readUnsignedByte();
+        if (format != FORMAT) {
+            throw new IOException("Unknown board format " + format);
+        }
+        long version = readVarLong(in);
+        int players = in.readUnsignedByte();
+        int pits = readVarInt(in);
+        int curPlayer = in.readUnsignedByte();
+        boolean finished = in.readBoolean();
+        if (players < GameBoard.MIN_PLAYERS || players > GameBoard.MAX_PLAYERS) {
+            throw new IOException("Invalid number of players " + players);
+        }
+        int[] cells = new int[Math.multiplyExact(players, pits + 1)];
+        long stones = 0;
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = readVarInt(in);
+            stones += cells[i];
+        }
+        try {
+            if (PackedGameBoard.fits(players, pits, stones)) {
+                return new PackedGameBoard(pits, curPlayer, cells, finished, version);
+            }
+            return new GameBoard(players, pits, curPlayer, cells, finished, version);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid board", e);
+        }
+    }
+
+    /**
+     * Writes a non-negative number in 7-bit groups, the high bit of a byte is set if more bytes follow.
+     */
+    public static void writeVarLong(DataOutput out, long value) throws IOException {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value must be >= 0");
+        }
+        while (value >= 0x80) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    public static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    public static int readVarInt(DataInput in) throws IOException {
+        long value = readVarLong(in);
+        if (value > Integer.MAX_VALUE) {
+            throw new IOException("Varint out of int range " + value);
+        }
+        return (int) value;
+    }
+}
@@ -1,5 +1,6 @@
 package xyz.a5s7.mancala.domain.model;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.Value;
 
 /**
@@ -7,10 +8,37 @@ import lombok.Value;
  */
 @Value
 public class GamePlayer {
+    /**
+     * Bits of a session holding the turn, enough for {@link GameBoard#MAX_PLAYERS}.
+     */
+    private static final int TURN_BITS = 3;
+    private static final long TURN_MASK = (1L << TURN_BITS) - 1;
+
     String playerId;
     String gameId;
     /**
      * Player's turn in a game.
      */
     int turn;
+    /**
+     * Handle of the player in the game: the turn in the low bits and a hash of the game and player ids in the others.
+     * A move sent with the session is checked against the player of the turn without comparing ids.
+     * It is derived from the ids, so it is the same after the game is compacted or recovered.
+     */
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    long session;
+
+    public GamePlayer(String playerId, String gameId, int turn) {
+        this.playerId = playerId;
+        this.gameId = gameId;
+        this.turn = turn;
+        this.session = (KeyHash.of(gameId + '/' + playerId) & ~TURN_MASK) | turn;
+    }
+
+    /**
+     * @return turn of the player a session was issued to, the session may be forged
+     */
+    public static int turnOf(long session) {
+        return (int) (session & TURN_MASK);
+    }
 }
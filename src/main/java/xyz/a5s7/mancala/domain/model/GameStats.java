@@ -0,0 +1,35 @@
+package xyz.a5s7.mancala.domain.model;
+
+import xyz.a5s7.mancala.domain.model.statistics.BoardState;
+import xyz.a5s7.mancala.domain.model.statistics.GameStat;
+import xyz.a5s7.mancala.domain.model.statistics.PlayerStat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Builds {@link GameStat} of a board.
+ */
+final class GameStats {
+
+    private GameStats() {
+    }
+
+    static GameStat of(Board board) {
+        int players = board.getNumberOfPlayers();
+        int pits = board.getPitsPerPlayer();
+        List<BoardState> state = new ArrayList<>(players);
+        List<PlayerStat> leaderBoard = new ArrayList<>(players);
+        for (int i = 0; i < players; i++) {
+            Integer[] playerPits = new Integer[pits];
+            for (int pit = 0; pit < pits; pit++) {
+                playerPits[pit] = board.getStonesInPit(i, pit);
+            }
+            state.add(new BoardState(i, List.of(playerPits), board.getLargePit(i)));
+            leaderBoard.add(new PlayerStat(i, board.getLargePit(i)));
+        }
+        leaderBoard.sort(Comparator.comparingInt(PlayerStat::getScore).reversed());
+        return new GameStat(board.getCurPlayer(), List.copyOf(leaderBoard), List.copyOf(state), board.isGameFinished());
+    }
+}
@@ -0,0 +1,28 @@
+package xyz.a5s7.mancala.domain.model;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Hash of string keys such as ids.
+ * <p>
+ * 64-bit FNV-1a of the UTF-8 bytes, mixed by the MurmurHash3 finalizer so that close keys spread over all bits.
+ * The hash is the same in every run, so it can be shared by nodes and kept across restarts.
+ */
+public final class KeyHash {
+    private KeyHash() {
+    }
+
+    public static long of(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
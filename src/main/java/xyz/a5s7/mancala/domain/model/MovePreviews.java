@@ -0,0 +1,131 @@
+package xyz.a5s7.mancala.domain.model;
+
+import xyz.a5s7.mancala.domain.model.statistics.MovePreview;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Previews moves by the rules of {@link GameBoard} without playing them.
+ * <p>
+ * A move sows full laps and at most one more lap, so every cell is reached at most once after the laps. The cells
+ * are numbered in the order stones are sown from the first pit of the player to move: its pits, its big pit and the
+ * pits of the next players. A cell gets a stone of the last lap if it is no further from the pit moved than the
+ * stones left after the laps. The count of a cell after the move is computed from the board as it is read, so
+ * a preview reads each cell a few times and allocates only its result.
+ */
+final class MovePreviews {
+    private MovePreviews() {
+    }
+
+    /**
+     * @return previews of the moves of the player to move, empty if the game is finished
+     */
+    static List<MovePreview> of(Board board) {
+        List<MovePreview> previews = new ArrayList<>(board.getPitsPerPlayer());
+        if (board.isGameFinished()) {
+            return previews;
+        }
+        for (int pit = 0; pit < board.getPitsPerPlayer(); pit++) {
+            if (board.getStonesInPit(board.getCurPlayer(), pit) > 0) {
+                previews.add(of(board, pit));
+            }
+        }
+        return previews;
+    }
+
+    /**
+     * @throws IllegalStateException if the game is finished
+     * @throws IllegalArgumentException if the pit is out of range or empty
+     */
+    static MovePreview of(Board board, int pit) {
+        int pits = board.getPitsPerPlayer();
+        int players = board.getNumberOfPlayers();
+        int mover = board.getCurPlayer();
+        if (pit < 0 || pit >= pits) {
+            throw new IllegalArgumentException("Pit must be in range 0.." + (pits - 1));
+        }
+        if (board.isGameFinished()) {
+            throw new IllegalStateException("Game is finished");
+        }
+        int stones = board.getStonesInPit(mover, pit);
+        if (stones == 0) {
+            throw new IllegalArgumentException("Pit must have stones");
+        }
+        int lapLength = players * pits + 1;
+        // as GameBoard.play, full laps are sown at once when there are more stones than a lap
+        int laps = stones > lapLength ? (stones - 1) / lapLength : 0;
+        int last = stones - laps * lapLength;
+
+        int landing = (pit + last) % lapLength;
+        int landingPlayer = landing <= pits ? mover : (mover + 1 + (landing - pits - 1) / pits) % players;
+        int landingPit = landing <= pits ? landing : (landing - pits - 1) % pits;
+        boolean extraTurn = landingPlayer == mover && landingPit == pits;
+
+        int captured = 0;
+        if (landingPlayer == mover && !extraTurn && stonesInPit(board, pit, laps, last, mover, landingPit) == 1) {
+            int opposite = stonesInPit(board, pit, laps, last, (mover + 1) % players, landingPit);
+            if (opposite > 0) {
+                captured = opposite + 1;
+            }
+        }
+        int emptied = captured > 0 ? landingPit : -1;
+
+        boolean gameOver = false;
+        for (int player = 0; player < players && !gameOver; player++) {
+            gameOver = stonesInPits(board, pit, laps, last, player, emptied) == 0;
+        }
+        List<Integer> largePits = new ArrayList<>(players);
+        for (int player = 0; player < players; player++) {
+            int largePit = board.getLargePit(player);
+            if (player == mover) {
+                largePit += laps + (isSown(board, pit, last, player, pits) ? 1 : 0) + captured;
+            }
+            if (gameOver) {
+                largePit += stonesInPits(board, pit, laps, last, player, emptied);
+            }
+            largePits.add(largePit);
+        }
+        return new MovePreview(pit, landingPlayer, landingPit, extraTurn, captured, gameOver, largePits);
+    }
+
+    /**
+     * @param from pit moved
+     * @param last stones of the last lap
+     * @return whether a cell gets a stone of the last lap, the cell must not be a big pit of another player
+     */
+    private static boolean isSown(Board board, int from, int last, int player, int pit) {
+        int players = board.getNumberOfPlayers();
+        int pits = board.getPitsPerPlayer();
+        int mover = board.getCurPlayer();
+        int lapLength = players * pits + 1;
+        int order = player == mover ? pit : pits + 1 + ((player - mover + players) % players - 1) * pits + pit;
+        int distance = (order - from + lapLength) % lapLength;
+        // the pit moved is reached last
+        return (distance == 0 ? lapLength : distance) <= last;
+    }
+
+    /**
+     * @return stones in a pit after sowing
+     */
+    private static int stonesInPit(Board board, int from, int laps, int last, int player, int pit) {
+        int stones = player == board.getCurPlayer() && pit == from ? 0 : board.getStonesInPit(player, pit);
+        return stones + laps + (isSown(board, from, last, player, pit) ? 1 : 0);
+    }
+
+    /**
+     * @param emptied pit emptied by a capture on the sides of the mover and the next player, -1 if none
+     * @return stones in the pits of a player after the move
+     */
+    private static int stonesInPits(Board board, int from, int laps, int last, int player, int emptied) {
+        int mover = board.getCurPlayer();
+        boolean captured = player == mover || player == (mover + 1) % board.getNumberOfPlayers();
+        int total = 0;
+        for (int pit = 0; pit < board.getPitsPerPlayer(); pit++) {
+            if (pit != emptied || !captured) {
+                total += stonesInPit(board, from, laps, last, player, pit);
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,289 @@
+package xyz.a5s7.mancala.domain.model;
+
+import xyz.a5s7.mancala.domain.model.statistics.GameSnapshot;
+import xyz.a5s7.mancala.domain.model.statistics.GameStat;
+
+/**
+ * Two-player board packed into two longs, for games of at most 8 pits per player and 127 stones.
+ * <p>
+ * The cells are laid out as in {@link GameBoard}: the pits of a player followed by the big pit. Each cell takes
+ * 7 bits, cells 0..8 are in the low word and cells 9..17 in the high word. The top bit of the low word is the current
+ * player, the top bit of the high word is set when the game is finished.
+ * <p>
+ * A move changes the {@link Cells} in place and allocates nothing. As with {@link GameBoard}, other threads read
+ * the snapshot published by {@link #getSnapshot()}, built once per version: a standard game takes 64 bytes and about
+ * 380 of snapshot, instead of about 600 a {@link GameBoard} and its snapshot take.
+ * <p>
+ * The board is not thread-safe, moves of a game must be played by one thread at a time.
+ */
+public final class PackedGameBoard implements Board {
+    public static final int PLAYERS = 2;
+    public static final int MAX_PITS = 8;
+    public static final int MAX_STONES = (1 << Cells.BITS) - 1;
+
+    private final int pitsPerPlayer;
+    private final Cells cells;
+    private volatile GameSnapshot snapshot;
+
+    public PackedGameBoard(int pits, int stones, int curPlayer) {
+        checkArguments(pits, curPlayer);
+        if (stones <= 0) {
+            throw new IllegalArgumentException("Pit must have stones");
+        }
+        if (!fits(PLAYERS, pits, (long) PLAYERS * pits * stones)) {
+            throw new IllegalArgumentException("Board must have at most " + MAX_STONES + " stones");
+        }
+        this.pitsPerPlayer = pits;
+        Cells initial = new Cells(0, 0, 0);
+        for (int player = 0; player < PLAYERS; player++) {
+            for (int pit = 0; pit < pits; pit++) {
+                initial.set(player * (pits + 1) + pit, stones);
+            }
+        }
+        initial.setCurPlayer(curPlayer);
+        this.cells = initial;
+    }
+
+    /**
+     * Restores a board saved by {@link GameBoardCodec}.
+     * @param cells pits of each player followed by the big pit
+     */
+    PackedGameBoard(int pits, int curPlayer, int[] cells, boolean gameFinished, long version) {
+        checkArguments(pits, curPlayer);
+        if (cells.length != PLAYERS * (pits + 1)) {
+            throw new IllegalArgumentException("Board must have " + PLAYERS * (pits + 1) + " cells");
+        }
+        this.pitsPerPlayer = pits;
+        Cells restored = new Cells(0, 0, version);
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] < 0 || cells[i] > MAX_STONES) {
+                throw new IllegalArgumentException("Cell must have 0.." + MAX_STONES + " stones");
+            }
+            restored.set(i, cells[i]);
+        }
+        restored.setCurPlayer(curPlayer);
+        restored.setFinished(gameFinished);
+        this.cells = restored;
+    }
+
+    /**
+     * @return whether a game of the given size can be packed
+     */
+    public static boolean fits(int numberOfPlayers, int pits, long totalStones) {
+        return numberOfPlayers == PLAYERS && pits >= GameBoard.MIN_PITS_PER_PLAYER && pits <= MAX_PITS
+                && totalStones <= MAX_STONES;
+    }
+
+    private static void checkArguments(int pits, int curPlayer) {
+        if (curPlayer < 0 || curPlayer >= PLAYERS) {
+            throw new IllegalArgumentException("Current player must be in range 0.." + PLAYERS);
+        }
+        if (pits < GameBoard.MIN_PITS_PER_PLAYER || pits > MAX_PITS) {
+            throw new IllegalArgumentException("Number of pits must be in range 1.." + MAX_PITS);
+        }
+    }
+
+    @Override
+    public void play(int player, int pit) {
+        int curPlayer = cells.getCurPlayer();
+        if (curPlayer != player) {
+            throw new IllegalStateException("Not your turn");
+        }
+        if (pit < 0 || pit >= pitsPerPlayer) {
+            throw new IllegalArgumentException("Pit must be in range 0.." + (pitsPerPlayer-1));
+        }
+        if (cells.isFinished()) {
+            throw new IllegalStateException("Game is finished");
+        }
+        int stride = pitsPerPlayer + 1;
+        int start = curPlayer * stride + pit;
+        int stones = cells.get(start);
+        if (stones == 0) {
+            throw new IllegalArgumentException("Pit must have stones");
+        }
+
+        cells.version++;
+        cells.set(start, 0);
+        int lapLength = PLAYERS * pitsPerPlayer + 1;
+        if (stones > lapLength) {
+            int laps = (stones - 1) / lapLength;
+            for (int owner = 0; owner < PLAYERS; owner++) {
+                for (int i = 0; i < pitsPerPlayer; i++) {
+                    cells.add(owner * stride + i, laps);
+                }
+            }
+            cells.add(curPlayer * stride + pitsPerPlayer, laps);
+            stones -= laps * lapLength;
+        }
+        int owner = curPlayer;
+        int pos = pit;
+        while (stones > 0) {
+            pos++;
+            // the opponent's big pit is skipped
+            if (pos > pitsPerPlayer || (pos == pitsPerPlayer && owner != curPlayer)) {
+                pos = 0;
+                owner = 1 - owner;
+            }
+            cells.add(owner * stride + pos, 1);
+            stones--;
+        }
+        // if landed in own big pit, player gets another turn
+        if (owner != curPlayer || pos != pitsPerPlayer) {
+            int own = curPlayer * stride + pos;
+            int opposite = (1 - curPlayer) * stride + pos;
+            if (owner == curPlayer && cells.get(own) == 1 && cells.get(opposite) > 0) {
+                cells.add(curPlayer * stride + pitsPerPlayer, cells.get(opposite) + 1);
+                cells.set(opposite, 0);
+                cells.set(own, 0);
+            }
+            cells.setCurPlayer(1 - curPlayer);
+        }
+
+        int stonesInPits0 = 0;
+        int stonesInPits1 = 0;
+        for (int i = 0; i < pitsPerPlayer; i++) {
+            stonesInPits0 += cells.get(i);
+            stonesInPits1 += cells.get(stride + i);
+        }
+        if (stonesInPits0 == 0 || stonesInPits1 == 0) {
+            cells.setFinished(true);
+            for (int i = 0; i < pitsPerPlayer; i++) {
+                cells.set(i, 0);
+                cells.set(stride + i, 0);
+            }
+            cells.add(pitsPerPlayer, stonesInPits0);
+            cells.add(stride + pitsPerPlayer, stonesInPits1);
+        }
+    }
+
+    @Override
+    public int getCurPlayer() {
+        return cells.getCurPlayer();
+    }
+
+    @Override
+    public int getNumberOfPlayers() {
+        return PLAYERS;
+    }
+
+    @Override
+    public int getPitsPerPlayer() {
+        return pitsPerPlayer;
+    }
+
+    @Override
+    public boolean isGameFinished() {
+        return cells.isFinished();
+    }
+
+    @Override
+    public long getVersion() {
+        return cells.version;
+    }
+
+    @Override
+    public int getStonesInPit(int player, int pit) {
+        if (pit < 0 || pit >= pitsPerPlayer) {
+            throw new IndexOutOfBoundsException("Pit " + pit + " out of bounds for length " + pitsPerPlayer);
+        }
+        return cells.get(checkPlayer(player) * (pitsPerPlayer + 1) + pit);
+    }
+
+    @Override
+    public int getLargePit(int player) {
+        return cells.get(checkPlayer(player) * (pitsPerPlayer + 1) + pitsPerPlayer);
+    }
+
+    @Override
+    public GameStat getGameStat() {
+        return getSnapshot().getGameStat();
+    }
+
+    /**
+     * Returns snapshot of the current version, building it if the board has changed since the last call.
+     * Must be called by the thread which plays.
+     */
+    @Override
+    public GameSnapshot getSnapshot() {
+        GameSnapshot current = snapshot;
+        if (current == null || current.getVersion() != cells.version) {
+            current = new GameSnapshot(cells.version, GameStats.of(this));
+            snapshot = current;
+        }
+        return current;
+    }
+
+    /**
+     * Returns the last snapshot built by {@link #getSnapshot()}. Can be called by any thread,
+     * the snapshot may be behind the board if a move was played and no snapshot was built since.
+     */
+    @Override
+    public GameSnapshot getPublishedSnapshot() {
+        return snapshot;
+    }
+
+    private static int checkPlayer(int player) {
+        if (player < 0 || player >= PLAYERS) {
+            throw new IndexOutOfBoundsException("Player " + player + " out of bounds for length " + PLAYERS);
+        }
+        return player;
+    }
+
+    /**
+     * Cells of the board, changed in place by the thread which plays.
+     */
+    private static final class Cells {
+        private static final int BITS = 7;
+        private static final int CELLS_PER_WORD = 9;
+        private static final long MASK = (1L << BITS) - 1;
+        private static final long FLAG = 1L << 63;
+
+        private long lo;
+        private long hi;
+        private long version;
+
+        private Cells(long lo, long hi, long version) {
+            this.lo = lo;
+            this.hi = hi;
+            this.version = version;
+        }
+
+        private int get(int cell) {
+            if (cell < CELLS_PER_WORD) {
+                return (int) ((lo >>> (cell * BITS)) & MASK);
+            }
+            return (int) ((hi >>> ((cell - CELLS_PER_WORD) * BITS)) & MASK);
+        }
+
+        private void set(int cell, int stones) {
+            if (cell < CELLS_PER_WORD) {
+                int shift = cell * BITS;
+                lo = (lo & ~(MASK << shift)) | ((long) stones << shift);
+            } else {
+                int shift = (cell - CELLS_PER_WORD) * BITS;
+                hi = (hi & ~(MASK << shift)) | ((long) stones << shift);
+            }
+        }
+
+        private void add(int cell, int stones) {
+            // the total of stones fits a cell, so a sum never overflows into the next one
+            set(cell, get(cell) + stones);
+        }
+
+        private int getCurPlayer() {
+            return (lo & FLAG) == 0 ? 0 : 1;
+        }
+
+        private void setCurPlayer(int player) {
+            lo = player == 0 ? lo & ~FLAG : lo | FLAG;
+        }
+
+        private boolean isFinished() {
+            return (hi & FLAG) != 0;
+        }
+
+        private void setFinished(boolean finished) {
+            hi = finished ? hi | FLAG : hi & ~FLAG;
+        }
+    }
+}
@@ -1,29 +1,72 @@
 package xyz.a5s7.mancala.domain.model;
 
-import lombok.Getter;
-
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * Mancala's player board.
+ * <p>
+ * The board is a view over a slice of an {@code int[]}: {@code pitsNum} pits followed by the large pit.
+ * Boards created by {@link GameBoard} share one flat array for all players, standalone boards own their array.
+ * <p>
+ * The board keeps a running count of stones in its pits, so that checking for stones or collecting them
+ * does not scan the pits. The count is checked against the pits when assertions are enabled.
+ * <p>
+ * It also keeps the {@link Zobrist} hash of its cells, keyed by their index in the array, so that the hashes
+ * of the views of a shared board combine into the hash of the board. A change of a cell updates it in O(1).
  */
 public class PlayerBoard {
-    private final List<Integer> pits;
+    private final int[] cells;
+    private final int offset;
     private final int pitsNum;
-    @Getter
-    private int largePit = 0;
+    /**
+     * Number of stones in the pits, the large pit is not included.
+     */
+    private int stonesInPits;
+    /**
+     * XOR of the Zobrist keys of the pits and the large pit.
+     */
+    private long hash;
 
     public PlayerBoard(int pitsNum, int stones) {
-        pits = new ArrayList<>(Collections.nCopies(pitsNum, stones));
-        this.pitsNum = pitsNum;
+        this(newCells(pitsNum, stones), 0, pitsNum);
     }
 
     public PlayerBoard(List<Integer> pits, int largePit) {
-        this.pits = new ArrayList<>(pits);
-        this.pitsNum = pits.size();
-        this.largePit = largePit;
+        this(newCells(pits, largePit), 0, pits.size());
+    }
+
+    /**
+     * Creates a view over the player's slice of a shared board.
+     * @param cells shared board
+     * @param offset index of the first pit of the player
+     * @param pitsNum number of pits, the large pit is stored right after them
+     */
+    PlayerBoard(int[] cells, int offset, int pitsNum) {
+        this.cells = cells;
+        this.offset = offset;
+        this.pitsNum = pitsNum;
+        for (int i = offset; i < offset + pitsNum; i++) {
+            stonesInPits += cells[i];
+        }
+        for (int i = offset; i <= offset + pitsNum; i++) {
+            hash ^= Zobrist.cell(i, cells[i]);
+        }
+    }
+
+    private static int[] newCells(int pitsNum, int stones) {
+        int[] cells = new int[pitsNum + 1];
+        Arrays.fill(cells, 0, pitsNum, stones);
+        return cells;
+    }
+
+    private static int[] newCells(List<Integer> pits, int largePit) {
+        int[] cells = new int[pits.size() + 1];
+        for (int i = 0; i < pits.size(); i++) {
+            cells[i] = pits.get(i);
+        }
+        cells[pits.size()] = largePit;
+        return cells;
     }
 
     /**
@@ -32,8 +75,11 @@ public class PlayerBoard {
      * @return number of stones in pit
      */
     public int emptyPit(int pit) {
-        int stonesInPit = pits.get(pit);
-        pits.set(pit, 0);
+        int idx = offset + checkPit(pit);
+        int stonesInPit = cells[idx];
+        add(idx, -stonesInPit);
+        stonesInPits -= stonesInPit;
+        assert isStonesInPitsConsistent();
         return stonesInPit;
     }
 
@@ -58,27 +104,52 @@ public class PlayerBoard {
         }
         int i = start;
         while (i < pitsNum && stones > 0) {
-            pits.set(i, pits.get(i) + 1);
+            add(offset + i, 1);
             i++;
             stones--;
         }
+        stonesInPits += i - start;
         if (isSowLargePit && stones > 0 && i == pitsNum) {
-            largePit++;
+            add(offset + pitsNum, 1);
             i++;
             stones--;
         }
+        assert isStonesInPitsConsistent();
         if (stones > 0) {
             return stones;
         }
         return -(pitsNum+1 - i);
     }
 
+    /**
+     * Adds stones to a single pit or to the large pit.
+     * @param pit index of pit, pitsNum for the large pit
+     * @param stones number of stones to add
+     */
+    void addStones(int pit, int stones) {
+        add(offset + pit, stones);
+        if (pit < pitsNum) {
+            stonesInPits += stones;
+        }
+    }
+
+    /**
+     * Adds the same number of stones to every pit, the large pit is not changed.
+     * @param stones number of stones to add to each pit
+     */
+    void addStonesToPits(int stones) {
+        for (int i = offset; i < offset + pitsNum; i++) {
+            add(i, stones);
+        }
+        stonesInPits += pitsNum * stones;
+    }
+
     /**
      * Captures stones from the specified pit.
      * @param nextPlayerStones number of stones in the next player's pit
      */
     public void captureStones(int nextPlayerStones) {
-        largePit += nextPlayerStones;
+        add(offset + pitsNum, nextPlayerStones);
     }
 
     /**
@@ -86,7 +157,7 @@ public class PlayerBoard {
      * @return true if player has stones left
      */
     public boolean hasStones() {
-        return pits.stream().anyMatch(stones-> stones > 0);
+        return stonesInPits > 0;
     }
 
     /**
@@ -94,17 +165,71 @@ public class PlayerBoard {
      * @return number of stones collected
      */
     public int finish() {
-        int totalStones = pits.stream().mapToInt(Integer::intValue).sum();
-        largePit += totalStones;
-        Collections.fill(pits, 0);
+        int totalStones = stonesInPits;
+        if (totalStones > 0) {
+            for (int i = offset; i < offset + pitsNum; i++) {
+                add(i, -cells[i]);
+            }
+            add(offset + pitsNum, totalStones);
+            stonesInPits = 0;
+        }
         return totalStones;
     }
 
+    /**
+     * @return copy of the pits, the large pit is not included
+     */
     public List<Integer> getPits() {
-        return Collections.unmodifiableList(pits);
+        return Arrays.stream(cells, offset, offset + pitsNum).boxed().toList();
+    }
+
+    public int getStonesInPits() {
+        return stonesInPits;
+    }
+
+    public int getPitsNum() {
+        return pitsNum;
     }
 
     public int getStonesInPit(int idx) {
-        return pits.get(idx);
+        return cells[offset + checkPit(idx)];
+    }
+
+    public int getLargePit() {
+        return cells[offset + pitsNum];
+    }
+
+    /**
+     * @return Zobrist hash of the cells of the board, the player to move is not included
+     */
+    long getHash() {
+        return hash;
+    }
+
+    /**
+     * Adds stones to a cell of the array and updates the hash, the count of stones is updated by the caller.
+     */
+    private void add(int idx, int stones) {
+        int before = cells[idx];
+        cells[idx] = before + stones;
+        hash ^= Zobrist.cell(idx, before) ^ Zobrist.cell(idx, before + stones);
+    }
+
+    /**
+     * Recounts stones in the pits, used in assertions only.
+     */
+    boolean isStonesInPitsConsistent() {
+        int total = 0;
+        for (int i = offset; i < offset + pitsNum; i++) {
+            total += cells[i];
+        }
+        return total == stonesInPits;
+    }
+
+    private int checkPit(int pit) {
+        if (pit < 0 || pit >= pitsNum) {
+            throw new IndexOutOfBoundsException("Pit " + pit + " out of bounds for length " + pitsNum);
+        }
+        return pit;
     }
 }
@@ -0,0 +1,76 @@
+package xyz.a5s7.mancala.domain.model;
+
+/**
+ * Zobrist keys of Mancala positions.
+ * <p>
+ * A position is hashed as the XOR of a key per cell and its number of stones, and a key of the player to move.
+ * A change of a cell from {@code a} to {@code b} stones updates the hash by {@code cell(c, a) ^ cell(c, b)}.
+ * Keys are derived from the cell and the count by the SplitMix64 finalizer, so they are the same in every run
+ * and any count has a key. Keys of small boards are read from tables: the key of a count is the key of its low
+ * six bits XOR the key of its bucket of 64 counts, so counts of thousands of stones do not need a bigger table.
+ */
+public final class Zobrist {
+    private static final int TABLE_CELLS = 64;
+    private static final int TABLE_STONES = 64;
+    private static final int TABLE_BUCKETS = 64;
+    private static final long[] CELLS = new long[TABLE_CELLS * TABLE_STONES];
+    /**
+     * Keys of the buckets of 64 counts, the first bucket has key 0, so counts below 64 have the key of their cell.
+     */
+    private static final long[] BUCKETS = new long[TABLE_CELLS * TABLE_BUCKETS];
+    private static final long[] PLAYERS = new long[GameBoard.MAX_PLAYERS];
+
+    static {
+        for (int cell = 0; cell < TABLE_CELLS; cell++) {
+            for (int stones = 0; stones < TABLE_STONES; stones++) {
+                CELLS[cell * TABLE_STONES + stones] = mix(((long) cell << 32) | stones);
+            }
+            for (int bucket = 1; bucket < TABLE_BUCKETS; bucket++) {
+                BUCKETS[cell * TABLE_BUCKETS + bucket] = mix(((long) cell << 32) | (0x80000000L + bucket));
+            }
+        }
+        for (int player = 0; player < PLAYERS.length; player++) {
+            PLAYERS[player] = mix(-1L - player);
+        }
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @return key of a cell of a flat board holding a number of stones
+     */
+    public static long cell(int cell, int stones) {
+        if (cell < TABLE_CELLS && stones < TABLE_STONES * TABLE_BUCKETS) {
+            return CELLS[cell * TABLE_STONES + (stones & (TABLE_STONES - 1))]
+                    ^ BUCKETS[cell * TABLE_BUCKETS + stones / TABLE_STONES];
+        }
+        return mix(((long) cell << 32) | stones);
+    }
+
+    /**
+     * @return key of the player to move
+     */
+    public static long player(int player) {
+        return PLAYERS[player];
+    }
+
+    /**
+     * Hashes a position from scratch.
+     * @param cells pits of each player followed by the big pit
+     */
+    public static long hash(int[] cells, int curPlayer) {
+        long hash = player(curPlayer);
+        for (int cell = 0; cell < cells.length; cell++) {
+            hash ^= cell(cell, cells[cell]);
+        }
+        return hash;
+    }
+
+    private static long mix(long z) {
+        z += 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,15 @@
+package xyz.a5s7.mancala.domain.model.statistics;
+
+import lombok.Value;
+
+/**
+ * Game statistics at a given version of a game board.
+ */
+@Value
+public class GameSnapshot {
+    /**
+     * Version of the game board, incremented by every move.
+     */
+    long version;
+    GameStat gameStat;
+}
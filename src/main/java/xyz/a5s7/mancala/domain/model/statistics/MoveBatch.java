@@ -0,0 +1,18 @@
+package xyz.a5s7.mancala.domain.model.statistics;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Game statistics after a batch of moves, with the outcome of every move.
+ */
+@Value
+public class MoveBatch {
+    /**
+     * Version of the game board after the moves.
+     */
+    long version;
+    GameStat gameStat;
+    List<MoveOutcome> moves;
+}
@@ -0,0 +1,34 @@
+package xyz.a5s7.mancala.domain.model.statistics;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Value;
+
+/**
+ * Outcome of a move of a batch.
+ */
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MoveOutcome {
+    public enum Status {
+        /**
+         * Played, the player keeps the turn.
+         */
+        PLAYED,
+        /**
+         * Played, the turn has passed to another player or the game is finished.
+         */
+        TURN_OVER,
+        /**
+         * Not played as the move is not valid, the error tells why.
+         */
+        FAILED,
+        /**
+         * Not played as an earlier move has stopped the batch.
+         */
+        SKIPPED
+    }
+
+    int pit;
+    Status status;
+    String error;
+}
@@ -0,0 +1,31 @@
+package xyz.a5s7.mancala.domain.model.statistics;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * What a move of the player to move would do, the board is not changed.
+ */
+@Value
+public class MovePreview {
+    int pit;
+    /**
+     * Player whose pit the last stone lands in.
+     */
+    int landingPlayer;
+    /**
+     * Pit the last stone lands in, the number of pits for the big pit.
+     */
+    int landingPit;
+    boolean extraTurn;
+    /**
+     * Stones captured, the capturing stone included, 0 if the move captures none.
+     */
+    int captured;
+    boolean gameOver;
+    /**
+     * Big pit of every player after the move.
+     */
+    List<Integer> largePits;
+}
@@ -0,0 +1,13 @@
+package xyz.a5s7.mancala.domain.service;
+
+import lombok.Value;
+
+/**
+ * Game compacted by {@link GameRegistry}: its board and players in the form of {@code GameRegistry}.
+ */
+@Value
+public class CompactGame {
+    String gameId;
+    byte[] data;
+    boolean finished;
+}
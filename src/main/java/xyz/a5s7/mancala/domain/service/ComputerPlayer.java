@@ -0,0 +1,165 @@
+package xyz.a5s7.mancala.domain.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import xyz.a5s7.mancala.domain.model.GamePlayer;
+import xyz.a5s7.mancala.domain.model.statistics.GameSnapshot;
+import xyz.a5s7.mancala.domain.model.statistics.GameStat;
+import xyz.a5s7.mancala.engine.ParallelSearch;
+import xyz.a5s7.mancala.engine.SearchBoard;
+import xyz.a5s7.mancala.engine.SearchResult;
+import xyz.a5s7.mancala.engine.Tablebase;
+import xyz.a5s7.mancala.engine.TranspositionTable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plays the seat of {@link GameService#COMPUTER_PLAYER_ID} in games created by
+ * {@link GameService#createGameWithComputer()}.
+ * <p>
+ * When a change of such a game gives the computer the turn, its move is searched by {@link ParallelSearch}
+ * from a pool of its own, so the thread which made the change is not held up. The move is played for the version
+ * it was searched on: if the game has moved on meanwhile, the move is dropped and the newer change is searched.
+ * A move which fails otherwise is searched again on the latest state after {@code mancala.ai.retry-delay},
+ * unless the game has been handed off to another node. The games restored at startup in which the computer
+ * has the turn are taken up once the application is ready.
+ * <p>
+ * Up to {@code mancala.ai.threads} games are searched at once, and all searches share {@code mancala.ai.cores}
+ * search threads and one {@link TranspositionTable}, so the computer does not take the cores serving requests.
+ * Endgames are scored by the {@link Tablebase} file of {@code mancala.ai.tablebase}, if it is set.
+ */
+@Slf4j
+@Component
+public class ComputerPlayer implements GameListener {
+    private final GameService gameService;
+    private final Duration thinkTime;
+    private final int maxDepth;
+    private final Tablebase tablebase;
+    private final ParallelSearch search;
+    private final ExecutorService executor;
+    private final Duration retryDelay;
+    private final ScheduledExecutorService retries;
+
+    public ComputerPlayer(@Lazy GameService gameService,
+                          @Value("${mancala.ai.threads:2}") int threads,
+                          @Value("${mancala.ai.cores:2}") int cores,
+                          @Value("${mancala.ai.think-time:500ms}") Duration thinkTime,
+                          @Value("${mancala.ai.max-depth:64}") int maxDepth,
+                          @Value("${mancala.ai.table-size:1048576}") int tableSize,
+                          @Value("${mancala.ai.tablebase:}") String tablebase,
+                          @Value("${mancala.ai.retry-delay:1s}") Duration retryDelay) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be > 0");
+        }
+        this.gameService = gameService;
+        this.thinkTime = thinkTime;
+        this.maxDepth = maxDepth;
+        this.retryDelay = retryDelay;
+        try {
+            this.tablebase = tablebase.isBlank() ? null : Tablebase.open(Path.of(tablebase));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open tablebase " + tablebase, e);
+        }
+        this.search = new ParallelSearch(new TranspositionTable(tableSize), this.tablebase, cores);
+        AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "computer-player-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.retries = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "computer-player-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeGames() {
+        int games = gameService.resumeGames(GameService.COMPUTER_PLAYER_ID);
+        if (games > 0) {
+            log.info("Computer resumes {} games restored at startup", games);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retries.shutdownNow();
+        executor.shutdownNow();
+        search.shutdown();
+        if (tablebase != null) {
+            try {
+                tablebase.close();
+            } catch (IOException e) {
+                log.warn("Cannot close tablebase", e);
+            }
+        }
+    }
+
+    @Override
+    public void onGameChanged(String gameId, GameSnapshot snapshot) {
+        GameStat stat = snapshot.getGameStat();
+        if (stat.isGameOver() || !gameService.isPlayerRegistered(gameId, GameService.COMPUTER_PLAYER_ID)) {
+            return;
+        }
+        GamePlayer computer = gameService.getGamePlayer(gameId, GameService.COMPUTER_PLAYER_ID);
+        if (computer.getTurn() != stat.getNextPlayer() || stat.getState().size() != 2) {
+            return;
+        }
+        try {
+            executor.execute(() -> play(gameId, snapshot));
+        } catch (RejectedExecutionException e) {
+            log.debug("Computer player is shut down, move of game {} is not played", gameId);
+        }
+    }
+
+    private void play(String gameId, GameSnapshot snapshot) {
+        SearchResult result = search.search(SearchBoard.of(snapshot.getGameStat()), maxDepth, thinkTime.toNanos());
+        log.debug("Computer plays pit {} of game {}: score {}, depth {}, {} nodes",
+                result.getPit(), gameId, result.getScore(), result.getDepth(), result.getNodes());
+        try {
+            gameService.play(gameId, GameService.COMPUTER_PLAYER_ID, result.getPit(), snapshot.getVersion());
+        } catch (GameVersionConflictException e) {
+            // a newer change is searched on its own
+            log.debug("Game {} has moved on from version {}", gameId, snapshot.getVersion());
+        } catch (GameMovedException e) {
+            // the node which took the game over plays it
+            log.debug("Game {} has moved to another node", gameId);
+        } catch (RuntimeException e) {
+            log.warn("Computer cannot play pit {} of game {}, retrying in {}: {}",
+                    result.getPit(), gameId, retryDelay, e.getMessage());
+            retry(gameId);
+        }
+    }
+
+    private void retry(String gameId) {
+        try {
+            retries.schedule(() -> {
+                GameSnapshot snapshot;
+                try {
+                    snapshot = gameService.getGameSnapshot(gameId);
+                } catch (IllegalArgumentException | IllegalStateException e) {
+                    log.debug("Game {} is not here anymore, move is not retried: {}", gameId, e.getMessage());
+                    return;
+                }
+                onGameChanged(gameId, snapshot);
+            }, retryDelay.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.debug("Computer player is shut down, move of game {} is not retried", gameId);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package xyz.a5s7.mancala.domain.service;
+
+import lombok.Getter;
+import xyz.a5s7.mancala.domain.model.Board;
+import xyz.a5s7.mancala.domain.model.GamePlayer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Single writer of a game.
+ * <p>
+ * Commands are queued to the game's mailbox and applied one at a time, in order of submission, by a task of a shared
+ * executor. A game holds no thread while its mailbox is empty, so an idle game costs only its memory.
+ * The board and the players are changed by commands only. Any thread can read the published snapshot of the board
+ * and the players.
+ * <p>
+ * A game compacted or handed off by {@link GameRegistry} is retired: commands queued after that fail with
+ * {@link GameRetiredException}, wait until the registry has removed the game from its hot tier and are resubmitted
+ * to the game restored from its compacted form.
+ */
+class GameActor {
+    /**
+     * Number of commands applied before the game yields its thread to other games.
+     */
+    private static final int THROUGHPUT = 64;
+
+    @Getter
+    private final String gameId;
+    @Getter
+    private final Board gameBoard;
+    /**
+     * Players in order of their turns and by their ids, replaced by the single writer on registration.
+     */
+    private volatile List<GamePlayer> players = List.of();
+    private volatile Map<String, GamePlayer> playersById = Map.of();
+    private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Executor executor;
+    /**
+     * Set by the single writer, read by the registry.
+     */
+    private volatile boolean retired;
+    /**
+     * Completed by the registry once the retired game is removed from the hot tier.
+     */
+    private final CompletableFuture<Void> removal = new CompletableFuture<>();
+    private volatile long lastAccess;
+
+    GameActor(String gameId, Board gameBoard, Executor executor) {
+        this.gameId = gameId;
+        this.gameBoard = gameBoard;
+        this.executor = executor;
+    }
+
+    /**
+     * Queues a command to the game.
+     * @param command command applied to the game by its single writer
+     * @return result of the command, or the exception it has thrown
+     */
+    <T> CompletableFuture<T> submit(Function<GameActor, T> command) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        mailbox.add(() -> {
+            try {
+                if (retired) {
+                    throw new GameRetiredException(removal);
+                }
+                result.complete(command.apply(this));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        if (queued.getAndIncrement() == 0) {
+            executor.execute(this::drain);
+        }
+        return result;
+    }
+
+    private void drain() {
+        for (int i = 0; i < THROUGHPUT; i++) {
+            // a command is counted after it is queued, so it is there
+            mailbox.poll().run();
+            if (queued.decrementAndGet() == 0) {
+                return;
+            }
+        }
+        executor.execute(this::drain);
+    }
+
+    /**
+     * @return players in order of their turns
+     */
+    List<GamePlayer> getPlayers() {
+        return players;
+    }
+
+    int getPlayerCount() {
+        return players.size();
+    }
+
+    /**
+     * @return registered player of the id, or null
+     */
+    GamePlayer getPlayer(String playerId) {
+        return playersById.get(playerId);
+    }
+
+    /**
+     * @return registered player the session was issued to, or null
+     */
+    GamePlayer getPlayer(long session) {
+        int turn = GamePlayer.turnOf(session);
+        List<GamePlayer> registered = players;
+        if (turn >= registered.size()) {
+            return null;
+        }
+        GamePlayer player = registered.get(turn);
+        return player.getSession() == session ? player : null;
+    }
+
+    /**
+     * Adds a player, must be called by a command.
+     */
+    void addPlayer(GamePlayer player) {
+        Map<String, GamePlayer> byId = new HashMap<>(playersById);
+        byId.put(player.getPlayerId(), player);
+        List<GamePlayer> inTurns = new ArrayList<>(players);
+        inTurns.add(player);
+        playersById = Map.copyOf(byId);
+        players = List.copyOf(inTurns);
+    }
+
+    /**
+     * Marks the game as compacted, must be called by a command.
+     */
+    void retire() {
+        retired = true;
+    }
+
+    /**
+     * Releases the commands waiting for the retired game to be removed from the hot tier.
+     */
+    void removed() {
+        removal.complete(null);
+    }
+
+    boolean isRetired() {
+        return retired;
+    }
+
+    long getLastAccess() {
+        return lastAccess;
+    }
+
+    void touch(long now) {
+        lastAccess = now;
+    }
+
+    /**
+     * Waits for the result of a command, rethrowing the exception thrown by the command.
+     */
+    static <T> T await(CompletableFuture<T> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
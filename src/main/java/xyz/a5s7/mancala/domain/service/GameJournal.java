@@ -0,0 +1,83 @@
+package xyz.a5s7.mancala.domain.service;
+
+import xyz.a5s7.mancala.domain.model.Board;
+
+/**
+ * Append-only record of the changes made by {@link GameService}.
+ * <p>
+ * Changes of a game are appended by its single writer, in the order they are applied. An append returns the
+ * position after the record, {@link #sync(long)} waits until the records up to a position are as durable as the
+ * journal promises. The service syncs after releasing the game, so that the changes of many games share one sync.
+ */
+public interface GameJournal extends AutoCloseable {
+    /**
+     * Journal which records nothing.
+     */
+    GameJournal NONE = new GameJournal() {
+        @Override
+        public long appendCreate(String gameId, Board gameBoard) {
+            return 0;
+        }
+
+        @Override
+        public long appendRegister(String gameId, String playerId) {
+            return 0;
+        }
+
+        @Override
+        public long appendMove(String gameId, int turn, int pit, long version) {
+            return 0;
+        }
+
+        @Override
+        public long appendImport(CompactGame game) {
+            return 0;
+        }
+
+        @Override
+        public long appendRemove(String gameId) {
+            return 0;
+        }
+
+        @Override
+        public void sync(long position) {
+        }
+    };
+
+    /**
+     * Records a new game.
+     * @param gameBoard initial board of the game
+     */
+    long appendCreate(String gameId, Board gameBoard);
+
+    /**
+     * Records a player registered in a game, the turn of the player is the number of players registered before.
+     */
+    long appendRegister(String gameId, String playerId);
+
+    /**
+     * Records a move.
+     * @param version version of the game after the move
+     */
+    long appendMove(String gameId, int turn, int pit, long version);
+
+    /**
+     * Records a game taken over from another node, it replaces the game of the same id.
+     */
+    long appendImport(CompactGame game);
+
+    /**
+     * Records a game handed off to another node or expired.
+     */
+    long appendRemove(String gameId);
+
+    /**
+     * Waits until the records up to the position are durable.
+     * @throws java.io.UncheckedIOException if the records can not be written
+     */
+    void sync(long position);
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,26 @@
+package xyz.a5s7.mancala.domain.service;
+
+import xyz.a5s7.mancala.domain.model.statistics.GameSnapshot;
+
+/**
+ * Listener of game changes made by {@link GameService}.
+ * <p>
+ * Listeners are called on the thread which changed the game, after the change is done.
+ * Listeners of the same game may be called concurrently and out of order, use the snapshot version to order them.
+ */
+public interface GameListener {
+    /**
+     * Called after a player is registered in a game or a move is played.
+     * @param gameId id of the changed game
+     * @param snapshot state of the game after the change
+     */
+    void onGameChanged(String gameId, GameSnapshot snapshot);
+
+    /**
+     * Called after a game is compacted or removed by {@link GameRegistry}, so that data kept for the game
+     * can be released. A compacted game is restored on its next access.
+     * @param gameId id of the evicted game
+     */
+    default void onGameEvicted(String gameId) {
+    }
+}
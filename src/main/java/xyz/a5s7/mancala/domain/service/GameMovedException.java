@@ -0,0 +1,16 @@
+package xyz.a5s7.mancala.domain.service;
+
+import lombok.Getter;
+
+/**
+ * Thrown for a game handed off to another node after the request for it was accepted.
+ */
+@Getter
+public class GameMovedException extends IllegalStateException {
+    private final String gameId;
+
+    public GameMovedException(String gameId) {
+        super("Game has moved to another node");
+        this.gameId = gameId;
+    }
+}
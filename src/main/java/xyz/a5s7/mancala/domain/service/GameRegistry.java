@@ -0,0 +1,789 @@
+package xyz.a5s7.mancala.domain.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import xyz.a5s7.mancala.domain.model.Board;
+import xyz.a5s7.mancala.domain.model.GameBoardCodec;
+import xyz.a5s7.mancala.domain.model.GamePlayer;
+import xyz.a5s7.mancala.domain.model.PackedGameBoard;
+import xyz.a5s7.mancala.domain.model.statistics.GameStat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static xyz.a5s7.mancala.domain.service.GameActor.await;
+
+/**
+ * Games in two tiers.
+ * <p>
+ * Hot games are {@link GameActor}s ready to play. A game idle for longer than the idle TTL, or a finished game
+ * idle for longer than the finished TTL, is compacted: its board and players are encoded by
+ * {@link GameBoardCodec} into a few dozen bytes and its actor is retired. A compacted game is restored
+ * transparently by its next command, and read without restoring it.
+ * <p>
+ * The registry is limited by an estimate of the heap used by its games. When the capacity is reached, by a new game
+ * or a restored one, hot games are compacted in least recently used order, then finished compacted games expire,
+ * least recently used first. Finished games also expire once they are not accessed for the finished retention time.
+ * An expired game is removed for good, the expiry listener records it. Unfinished games never expire: a game
+ * can not be created when they fill the capacity.
+ */
+@Slf4j
+@Component
+public class GameRegistry {
+    public static final DataSize DEFAULT_CAPACITY = DataSize.ofMegabytes(256);
+    public static final Duration DEFAULT_IDLE_TTL = Duration.ofMinutes(10);
+    public static final Duration DEFAULT_FINISHED_TTL = Duration.ofSeconds(30);
+    public static final Duration DEFAULT_FINISHED_RETENTION = Duration.ofHours(1);
+    /**
+     * Share of the capacity eviction frees the registry down to, so that it does not run on every new game.
+     */
+    private static final double LOW_WATERMARK = 0.9;
+    /**
+     * Estimated heap of a hot game: the actor, the board, its published snapshot and the map entry.
+     */
+    private static final long HOT_GAME_BYTES = 512;
+    /**
+     * Estimated heap of a cell of a {@link xyz.a5s7.mancala.domain.model.GameBoard}, a packed board has no cells.
+     */
+    private static final long HOT_CELL_BYTES = 32;
+    private static final long HOT_PLAYER_BYTES = 160;
+    /**
+     * Estimated heap of a compacted game besides its bytes: the entry, the array header and the map entry.
+     */
+    private static final long COLD_GAME_BYTES = 160;
+    /**
+     * Time a game handed off to another node is remembered, for the requests accepted before it moved.
+     */
+    private static final long MOVED_RETENTION_MILLIS = Duration.ofMinutes(1).toMillis();
+
+    private final Map<String, GameActor> hot = new ConcurrentHashMap<>();
+    private final Map<String, ColdGame> cold = new ConcurrentHashMap<>();
+    private final Map<String, Long> movedOut = new ConcurrentHashMap<>();
+    private final AtomicLong usedBytes = new AtomicLong();
+    private final long capacityBytes;
+    private final long idleTtlMillis;
+    private final long finishedTtlMillis;
+    private final long finishedRetentionMillis;
+    private final Clock clock;
+    private final ExecutorService executor = Executors.newWorkStealingPool();
+    private volatile Consumer<String> evictionListener = gameId -> { };
+    private volatile Consumer<String> expiryListener = gameId -> { };
+
+    public GameRegistry() {
+        this(DEFAULT_CAPACITY, DEFAULT_IDLE_TTL, DEFAULT_FINISHED_TTL, DEFAULT_FINISHED_RETENTION);
+    }
+
+    @Autowired
+    public GameRegistry(@Value("${mancala.games.capacity:256MB}") DataSize capacity,
+                        @Value("${mancala.games.idle-ttl:10m}") Duration idleTtl,
+                        @Value("${mancala.games.finished-ttl:30s}") Duration finishedTtl,
+                        @Value("${mancala.games.finished-retention:1h}") Duration finishedRetention) {
+        this(capacity, idleTtl, finishedTtl, finishedRetention, Clock.systemUTC());
+    }
+
+    GameRegistry(DataSize capacity, Duration idleTtl, Duration finishedTtl, Duration finishedRetention, Clock clock) {
+        this.capacityBytes = capacity.toBytes();
+        this.idleTtlMillis = idleTtl.toMillis();
+        this.finishedTtlMillis = finishedTtl.toMillis();
+        this.finishedRetentionMillis = finishedRetention.toMillis();
+        this.clock = clock;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Sets the listener called with the id of a game after it is compacted or removed.
+     */
+    void setEvictionListener(Consumer<String> evictionListener) {
+        this.evictionListener = evictionListener;
+    }
+
+    /**
+     * Sets the listener called with the id of a finished game after it expires, before the eviction listener.
+     */
+    void setExpiryListener(Consumer<String> expiryListener) {
+        this.expiryListener = expiryListener;
+    }
+
+    /**
+     * Adds a new hot game, evicting other games if the capacity is reached.
+     * @throws IllegalStateException if unfinished games fill the capacity
+     */
+    void add(String gameId, Board gameBoard) {
+        GameActor game = newGame(gameId, gameBoard);
+        long bytes = hotBytes(game);
+        if (usedBytes.get() + bytes > capacityBytes) {
+            evict(bytes);
+            if (usedBytes.get() + bytes > capacityBytes) {
+                throw new IllegalStateException("Too many games. Try again later");
+            }
+        }
+        usedBytes.addAndGet(bytes);
+        hot.put(gameId, game);
+    }
+
+    private GameActor newGame(String gameId, Board gameBoard) {
+        // the snapshot is read by the sweeps
+        gameBoard.getSnapshot();
+        GameActor game = new GameActor(gameId, gameBoard, executor);
+        game.touch(clock.millis());
+        return game;
+    }
+
+    boolean contains(String gameId) {
+        return hot.containsKey(gameId) || cold.containsKey(gameId);
+    }
+
+    /**
+     * Returns a game, restoring it if it is compacted. The game may be retired by the time it is used,
+     * its published snapshot and players are still the latest ones.
+     * @throws IllegalArgumentException if there is no such game
+     * @throws GameMovedException if the game was handed off to another node
+     */
+    GameActor get(String gameId) {
+        GameActor game = find(gameId);
+        if (game == null) {
+            if (movedOut.containsKey(gameId)) {
+                throw new GameMovedException(gameId);
+            }
+            throw new IllegalArgumentException("Game not found");
+        }
+        return game;
+    }
+
+    /**
+     * @return the game restored if it is compacted, or null if there is no such game
+     */
+    GameActor find(String gameId) {
+        return find(gameId, true);
+    }
+
+    /**
+     * @param evict whether to evict games if the restored game exceeds the capacity
+     */
+    private GameActor find(String gameId, boolean evict) {
+        GameActor game = hot.get(gameId);
+        if (game == null) {
+            game = hot.computeIfAbsent(gameId, this::restore);
+            if (game != null) {
+                game.touch(clock.millis());
+                if (evict && usedBytes.get() > capacityBytes) {
+                    evict(0);
+                }
+                return game;
+            }
+        }
+        if (game != null) {
+            game.touch(clock.millis());
+        }
+        return game;
+    }
+
+    /**
+     * Returns a game to read, a compacted game is decoded and stays compacted. The published snapshot and players
+     * of the game are the latest ones, commands must not be submitted to a compacted game.
+     * @throws IllegalArgumentException if there is no such game
+     * @throws GameMovedException if the game was handed off to another node
+     */
+    GameActor read(String gameId) {
+        GameActor game = hot.get(gameId);
+        if (game == null) {
+            ColdGame coldGame = cold.get(gameId);
+            if (coldGame == null) {
+                // a game being restored is in neither tier, the restore holds its hot entry until the game is added
+                game = hot.computeIfAbsent(gameId, id -> null);
+                // a game compacted meanwhile is put to the cold tier before it leaves the hot one
+                coldGame = game == null ? cold.get(gameId) : null;
+            }
+            if (coldGame != null) {
+                return decode(gameId, coldGame.data);
+            }
+        }
+        if (game == null) {
+            return get(gameId);
+        }
+        game.touch(clock.millis());
+        return game;
+    }
+
+    /**
+     * Applies a command to a game and waits for its result. A command which finds the game compacted
+     * is applied to the restored game.
+     * @throws IllegalArgumentException if there is no such game
+     */
+    <T> T execute(String gameId, Function<GameActor, T> command) {
+        while (true) {
+            try {
+                return await(get(gameId).submit(command));
+            } catch (GameRetiredException e) {
+                // a handed off game is removed once the other node has it, a compacted one right away
+                e.awaitRemoval();
+            }
+        }
+    }
+
+    /**
+     * Compacts games idle for longer than their TTL, removes finished games past their retention
+     * and evicts games if the capacity is exceeded.
+     */
+    @Scheduled(fixedDelayString = "${mancala.games.sweep-interval:PT10S}")
+    public void sweep() {
+        long now = clock.millis();
+        List<CompletableFuture<Boolean>> compactions = new ArrayList<>();
+        for (GameActor game : hot.values()) {
+            long ttl = isFinished(game) ? finishedTtlMillis : idleTtlMillis;
+            if (now - game.getLastAccess() >= ttl) {
+                // the game may be accessed before the command is applied
+                compactions.add(compact(game, g -> now - g.getLastAccess() >= ttl));
+            }
+        }
+        int compacted = join(compactions);
+        int removed = 0;
+        for (Map.Entry<String, ColdGame> entry : cold.entrySet()) {
+            ColdGame game = entry.getValue();
+            if (game.finished && now - game.lastAccess >= finishedRetentionMillis
+                    && remove(entry.getKey(), game)) {
+                removed++;
+            }
+        }
+        if (compacted > 0 || removed > 0) {
+            log.debug("Compacted {} idle games, removed {} finished games", compacted, removed);
+        }
+        movedOut.values().removeIf(movedAt -> now - movedAt >= MOVED_RETENTION_MILLIS);
+        if (usedBytes.get() > capacityBytes) {
+            evict(0);
+        }
+    }
+
+    /**
+     * Passes the compacted form of every game to the consumer, on the calling thread.
+     * Hot games are encoded by their single writers, so a game includes every change made before the call.
+     * Each game is looked up in both tiers at once, so a game compacted or restored meanwhile is not missed.
+     * Games created or removed meanwhile may be missed.
+     */
+    public void exportGames(Consumer<CompactGame> consumer) {
+        Set<String> gameIds = new LinkedHashSet<>(hot.keySet());
+        gameIds.addAll(cold.keySet());
+        Map<String, CompletableFuture<CompactGame>> games = new LinkedHashMap<>();
+        for (String gameId : gameIds) {
+            games.put(gameId, encode(gameId));
+        }
+        for (Map.Entry<String, CompletableFuture<CompactGame>> entry : games.entrySet()) {
+            CompactGame game = awaitCompacted(entry.getKey(), entry.getValue(), this::encode);
+            if (game != null) {
+                consumer.accept(game);
+            }
+        }
+    }
+
+    /**
+     * Adds a game exported by {@link #exportGames(Consumer)} as a compacted game.
+     */
+    public void importGame(CompactGame game) {
+        ColdGame coldGame = new ColdGame(game.getData(), game.isFinished(), clock.millis());
+        ColdGame old = cold.put(game.getGameId(), coldGame);
+        usedBytes.addAndGet(coldBytes(coldGame) - (old == null ? 0 : coldBytes(old)));
+    }
+
+    /**
+     * Hands games off to another node, in batches.
+     * <p>
+     * The games of a batch are retired by their single writers and released in compacted form. If the release fails,
+     * the games of the batch stay here. Once released, the games are passed to the receiver, then removed whether
+     * it succeeds or not: the receiver may have taken them over even if it fails, so they are never played here
+     * again. Commands for a game wait while its batch is received, and fail with {@link GameMovedException}
+     * once it is removed.
+     * @param moves selects the ids of the games to hand off
+     * @param release gives up a batch before it is received, such as by recording its removal
+     * @param receiver takes over a batch, called on the calling thread
+     * @return number of games handed off
+     */
+    public int handOff(Predicate<String> moves, int batchSize, Consumer<List<CompactGame>> release,
+                       Consumer<List<CompactGame>> receiver) {
+        Set<String> gameIds = new LinkedHashSet<>();
+        for (String gameId : hot.keySet()) {
+            if (moves.test(gameId)) {
+                gameIds.add(gameId);
+            }
+        }
+        for (String gameId : cold.keySet()) {
+            if (moves.test(gameId)) {
+                gameIds.add(gameId);
+            }
+        }
+        List<String> ids = new ArrayList<>(gameIds);
+        int handedOff = 0;
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<CompactGame> batch = take(ids.subList(from, Math.min(from + batchSize, ids.size())));
+            try {
+                release.accept(batch);
+            } catch (RuntimeException | Error e) {
+                batch.forEach(this::adopt);
+                throw e;
+            }
+            try {
+                receiver.accept(batch);
+            } finally {
+                long now = clock.millis();
+                for (CompactGame game : batch) {
+                    movedOut.put(game.getGameId(), now);
+                    discard(game.getGameId());
+                }
+            }
+            handedOff += batch.size();
+        }
+        return handedOff;
+    }
+
+    /**
+     * Retires games by their single writers, restoring compacted ones first, and returns their compacted form.
+     */
+    private List<CompactGame> take(List<String> gameIds) {
+        Map<String, CompletableFuture<CompactGame>> retired = new LinkedHashMap<>();
+        for (String gameId : gameIds) {
+            retired.put(gameId, retire(gameId));
+        }
+        List<CompactGame> games = new ArrayList<>();
+        for (Map.Entry<String, CompletableFuture<CompactGame>> entry : retired.entrySet()) {
+            CompactGame game = awaitCompacted(entry.getKey(), entry.getValue(), this::retire);
+            if (game != null) {
+                games.add(game);
+            }
+        }
+        return games;
+    }
+
+    /**
+     * Adds a game recorded by a journal, replacing the game of the same id.
+     */
+    public void adopt(CompactGame game) {
+        discard(game.getGameId());
+        movedOut.remove(game.getGameId());
+        importGame(game);
+    }
+
+    /**
+     * Adds a game handed off by another node unless it is here already, so that a batch sent again after its answer
+     * was lost does not replace the changes made since.
+     * @return whether the game is added
+     */
+    public boolean adoptIfAbsent(CompactGame game) {
+        String gameId = game.getGameId();
+        // a game being restored is in neither tier, the restore holds its hot entry until the game is added
+        if (hot.computeIfAbsent(gameId, id -> null) != null) {
+            return false;
+        }
+        ColdGame coldGame = new ColdGame(game.getData(), game.isFinished(), clock.millis());
+        if (cold.putIfAbsent(gameId, coldGame) != null) {
+            return false;
+        }
+        movedOut.remove(gameId);
+        usedBytes.addAndGet(coldBytes(coldGame));
+        return true;
+    }
+
+    /**
+     * Finds the unfinished games in which a player has the turn, by their published state.
+     * Compacted games are looked into without restoring them.
+     * @param gameIds games to look into, missing ones are skipped
+     */
+    public List<String> findGamesToMove(String playerId, Collection<String> gameIds) {
+        List<String> found = new ArrayList<>();
+        for (String gameId : gameIds) {
+            GameActor game = hot.get(gameId);
+            if (game == null) {
+                ColdGame coldGame = cold.get(gameId);
+                if (coldGame != null) {
+                    game = coldGame.finished ? null : decode(gameId, coldGame.data);
+                } else {
+                    // a game being restored is in neither tier, the restore holds its hot entry until the game is added
+                    game = hot.computeIfAbsent(gameId, id -> null);
+                }
+            }
+            if (game == null) {
+                continue;
+            }
+            GamePlayer player = game.getPlayer(playerId);
+            GameStat stat = game.getGameBoard().getPublishedSnapshot().getGameStat();
+            if (player != null && !stat.isGameOver() && stat.getNextPlayer() == player.getTurn()) {
+                found.add(gameId);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Finds the unfinished games in which a player has the turn among all games.
+     * @see #findGamesToMove(String, Collection)
+     */
+    public List<String> findGamesToMove(String playerId) {
+        Set<String> gameIds = new LinkedHashSet<>(hot.keySet());
+        gameIds.addAll(cold.keySet());
+        return findGamesToMove(playerId, gameIds);
+    }
+
+    /**
+     * Removes a game, hot or compacted.
+     * @return whether there was such game
+     */
+    public boolean discard(String gameId) {
+        boolean discarded = false;
+        GameActor game = hot.get(gameId);
+        if (game != null) {
+            try {
+                await(game.submit(g -> {
+                    g.retire();
+                    return true;
+                }));
+            } catch (GameRetiredException e) {
+                // already retired
+            }
+            if (hot.remove(gameId, game)) {
+                usedBytes.addAndGet(-hotBytes(game));
+                discarded = true;
+            }
+            game.removed();
+        }
+        ColdGame coldGame = cold.remove(gameId);
+        if (coldGame != null) {
+            usedBytes.addAndGet(-coldBytes(coldGame));
+            discarded = true;
+        }
+        if (discarded) {
+            evictionListener.accept(gameId);
+        }
+        return discarded;
+    }
+
+    /**
+     * Adds a game recorded by a journal, unless it exists. The game was admitted when it was created, so it is added
+     * even if the capacity is reached: games are not evicted while the journal is replayed, a compacted game would
+     * fail the changes queued to it, so the next sweep evicts them.
+     * @return whether the game was added
+     */
+    public boolean replayCreate(String gameId, Board gameBoard) {
+        if (contains(gameId)) {
+            return false;
+        }
+        GameActor game = newGame(gameId, gameBoard);
+        usedBytes.addAndGet(hotBytes(game));
+        hot.put(gameId, game);
+        return true;
+    }
+
+    /**
+     * Queues registration of a player recorded by a journal, unless the game has the player.
+     * @return whether the player was registered, false if there is no such game
+     */
+    public CompletableFuture<Boolean> replayRegister(String gameId, String playerId) {
+        GameActor game = find(gameId, false);
+        if (game == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return game.submit(g -> {
+            if (g.getPlayer(playerId) != null) {
+                return false;
+            }
+            g.addPlayer(new GamePlayer(playerId, gameId, g.getPlayerCount()));
+            return true;
+        });
+    }
+
+    /**
+     * Queues a move recorded by a journal, unless the game is already at its version.
+     * @param version version of the game after the move
+     * @return whether the move was played, false if there is no such game
+     */
+    public CompletableFuture<Boolean> replayMove(String gameId, int turn, int pit, long version) {
+        GameActor game = find(gameId, false);
+        if (game == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return game.submit(g -> {
+            Board gameBoard = g.getGameBoard();
+            if (gameBoard.getVersion() >= version) {
+                return false;
+            }
+            if (gameBoard.getVersion() + 1 != version) {
+                throw new IllegalStateException("Game " + gameId + " is at version " + gameBoard.getVersion()
+                        + ", the journal has a move to version " + version);
+            }
+            gameBoard.play(turn, pit);
+            gameBoard.getSnapshot();
+            return true;
+        });
+    }
+
+    public int getHotCount() {
+        return hot.size();
+    }
+
+    public int getColdCount() {
+        return cold.size();
+    }
+
+    /**
+     * @return estimated heap used by the games
+     */
+    public long getUsedBytes() {
+        return usedBytes.get();
+    }
+
+    public long getCapacityBytes() {
+        return capacityBytes;
+    }
+
+    /**
+     * Frees the registry down to the low watermark: compacts hot games, then removes finished compacted games,
+     * least recently used first.
+     * @param requiredBytes bytes to free besides the watermark, for a game about to be added
+     */
+    private synchronized void evict(long requiredBytes) {
+        long target = (long) (capacityBytes * LOW_WATERMARK) - requiredBytes;
+        long excess = usedBytes.get() - target;
+        if (excess <= 0) {
+            return;
+        }
+        List<GameActor> lru = new ArrayList<>(hot.values());
+        lru.sort(Comparator.comparingLong(GameActor::getLastAccess));
+        List<CompletableFuture<Boolean>> compactions = new ArrayList<>();
+        for (GameActor game : lru) {
+            if (excess <= 0) {
+                break;
+            }
+            excess -= hotBytes(game) - estimatedColdBytes(game);
+            compactions.add(compact(game, g -> true));
+        }
+        int compacted = join(compactions);
+        int removed = 0;
+        if (usedBytes.get() > target) {
+            List<Map.Entry<String, ColdGame>> finished = new ArrayList<>();
+            for (Map.Entry<String, ColdGame> entry : cold.entrySet()) {
+                if (entry.getValue().finished) {
+                    finished.add(entry);
+                }
+            }
+            finished.sort(Comparator.comparingLong(e -> e.getValue().lastAccess));
+            for (Map.Entry<String, ColdGame> entry : finished) {
+                if (usedBytes.get() <= target) {
+                    break;
+                }
+                if (remove(entry.getKey(), entry.getValue())) {
+                    removed++;
+                }
+            }
+        }
+        if (compacted > 0 || removed > 0) {
+            log.info("Capacity of {} bytes reached: compacted {} games, removed {} finished games, {} bytes used",
+                    capacityBytes, compacted, removed, usedBytes.get());
+        } else {
+            // unfinished compacted games fill the capacity, logged for every rejected game
+            log.debug("Capacity of {} bytes is filled by unfinished games, {} bytes used", capacityBytes,
+                    usedBytes.get());
+        }
+    }
+
+    /**
+     * Queues compaction of a hot game.
+     * @param condition checked by the single writer of the game before compacting it
+     * @return whether the game was compacted
+     */
+    private CompletableFuture<Boolean> compact(GameActor game, Predicate<GameActor> condition) {
+        return game.submit(g -> {
+            if (!condition.test(g)) {
+                return false;
+            }
+            ColdGame coldGame = new ColdGame(encode(g), g.getGameBoard().isGameFinished(), g.getLastAccess());
+            g.retire();
+            // a reader restores the game from the cold tier once it is not hot
+            cold.put(g.getGameId(), coldGame);
+            hot.remove(g.getGameId(), g);
+            g.removed();
+            usedBytes.addAndGet(coldBytes(coldGame) - hotBytes(g));
+            evictionListener.accept(g.getGameId());
+            return true;
+        });
+    }
+
+    /**
+     * Encodes a hot game by its single writer or reads a compacted one, without restoring it.
+     * @return compacted form of the game, null if there is no such game
+     */
+    private CompletableFuture<CompactGame> encode(String gameId) {
+        GameActor game = hot.get(gameId);
+        if (game == null) {
+            ColdGame coldGame = cold.get(gameId);
+            if (coldGame != null) {
+                return CompletableFuture.completedFuture(new CompactGame(gameId, coldGame.data, coldGame.finished));
+            }
+            // a game being restored is in neither tier, the restore holds its hot entry until the game is added
+            game = hot.computeIfAbsent(gameId, id -> null);
+            if (game == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+        }
+        return game.submit(g -> new CompactGame(gameId, encode(g), g.getGameBoard().isGameFinished()));
+    }
+
+    /**
+     * Retires a game by its single writer. A compacted game is restored first, so that it is found in one step
+     * and commands for it wait while it is handed off, as for a hot game.
+     * @return compacted form of the game, null if there is no such game
+     */
+    private CompletableFuture<CompactGame> retire(String gameId) {
+        GameActor game = find(gameId);
+        if (game == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return game.submit(g -> {
+            CompactGame compactGame = new CompactGame(gameId, encode(g), g.getGameBoard().isGameFinished());
+            g.retire();
+            return compactGame;
+        });
+    }
+
+    /**
+     * Waits for the compacted form of a game, looking the game up again if it was retired meanwhile.
+     */
+    private static CompactGame awaitCompacted(String gameId, CompletableFuture<CompactGame> compacted,
+                                              Function<String, CompletableFuture<CompactGame>> lookup) {
+        while (true) {
+            try {
+                return await(compacted);
+            } catch (GameRetiredException e) {
+                e.awaitRemoval();
+                compacted = lookup.apply(gameId);
+            }
+        }
+    }
+
+    private GameActor restore(String gameId) {
+        ColdGame coldGame = cold.remove(gameId);
+        if (coldGame == null) {
+            return null;
+        }
+        GameActor game = decode(gameId, coldGame.data);
+        usedBytes.addAndGet(hotBytes(game) - coldBytes(coldGame));
+        return game;
+    }
+
+    private boolean remove(String gameId, ColdGame game) {
+        if (!cold.remove(gameId, game)) {
+            return false;
+        }
+        usedBytes.addAndGet(-coldBytes(game));
+        expiryListener.accept(gameId);
+        evictionListener.accept(gameId);
+        return true;
+    }
+
+    private static int join(List<CompletableFuture<Boolean>> compactions) {
+        int compacted = 0;
+        for (CompletableFuture<Boolean> compaction : compactions) {
+            try {
+                if (await(compaction)) {
+                    compacted++;
+                }
+            } catch (GameRetiredException e) {
+                // compacted by another sweep
+            }
+        }
+        return compacted;
+    }
+
+    private static boolean isFinished(GameActor game) {
+        return game.getGameBoard().isPublishedGameFinished();
+    }
+
+    private static byte[] encode(GameActor game) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            GameBoardCodec.write(game.getGameBoard(), out);
+            List<GamePlayer> players = game.getPlayers();
+            out.writeByte(players.size());
+            for (GamePlayer player : players) {
+                out.writeUTF(player.getPlayerId());
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private GameActor decode(String gameId, byte[] data) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            Board gameBoard = GameBoardCodec.read(in);
+            // published before the game is shared, the snapshot is what other threads read
+            gameBoard.getSnapshot();
+            GameActor game = new GameActor(gameId, gameBoard, executor);
+            int players = in.readUnsignedByte();
+            for (int turn = 0; turn < players; turn++) {
+                game.addPlayer(new GamePlayer(in.readUTF(), gameId, turn));
+            }
+            return game;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot restore game " + gameId, e);
+        }
+    }
+
+    private static long hotBytes(GameActor game) {
+        Board board = game.getGameBoard();
+        long cells = board instanceof PackedGameBoard
+                ? 0
+                : (long) board.getNumberOfPlayers() * (board.getPitsPerPlayer() + 1);
+        return HOT_GAME_BYTES + cells * HOT_CELL_BYTES + board.getNumberOfPlayers() * HOT_PLAYER_BYTES;
+    }
+
+    private static long estimatedColdBytes(GameActor game) {
+        Board board = game.getGameBoard();
+        return COLD_GAME_BYTES + (long) board.getNumberOfPlayers() * (board.getPitsPerPlayer() + 40);
+    }
+
+    private static long coldBytes(ColdGame game) {
+        return COLD_GAME_BYTES + game.data.length;
+    }
+
+    private static final class ColdGame {
+        private final byte[] data;
+        private final boolean finished;
+        private final long lastAccess;
+
+        private ColdGame(byte[] data, boolean finished, long lastAccess) {
+            this.data = data;
+            this.finished = finished;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package xyz.a5s7.mancala.domain.service;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Thrown to a command queued to a game after the game was compacted or handed off, the command must be resubmitted
+ * once the game has left the hot tier.
+ */
+class GameRetiredException extends RuntimeException {
+    private final transient CompletableFuture<Void> removal;
+
+    GameRetiredException(CompletableFuture<Void> removal) {
+        super("Game is compacted", null, false, false);
+        this.removal = removal;
+    }
+
+    /**
+     * Waits until the retired game is removed from the hot tier, so that a lookup finds where it went.
+     */
+    void awaitRemoval() {
+        removal.join();
+    }
+}
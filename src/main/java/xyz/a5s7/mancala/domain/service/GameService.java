@@ -1,120 +1,539 @@
 package xyz.a5s7.mancala.domain.service;
 
 import jakarta.validation.constraints.NotNull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import xyz.a5s7.mancala.domain.model.Board;
 import xyz.a5s7.mancala.domain.model.GameBoard;
+import xyz.a5s7.mancala.domain.model.statistics.GameSnapshot;
 import xyz.a5s7.mancala.domain.model.statistics.GameStat;
+import xyz.a5s7.mancala.domain.model.statistics.MoveBatch;
+import xyz.a5s7.mancala.domain.model.statistics.MoveOutcome;
+import xyz.a5s7.mancala.domain.model.statistics.MovePreview;
 import xyz.a5s7.mancala.domain.model.GamePlayer;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.Random;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
+/**
+ * Games and their players.
+ * <p>
+ * Each game is driven by a {@link GameActor}: registrations and moves are queued to the game and applied in order
+ * by a single writer, callers wait for their command instead of failing while another one is applied.
+ * The games are kept by a {@link GameRegistry}, which compacts idle games and restores them on access.
+ * <p>
+ * Changes are appended to the {@link GameJournal} by the game's single writer and synced after the game is released,
+ * a change is returned and published to the listeners once it is synced.
+ * <p>
+ * Games are sharded over the nodes of {@link GameShards}: a node creates only games of its own shard,
+ * and hands games off to a node joining the cluster.
+ */
+@Slf4j
 @Service
 public class GameService {
-    private static final int MAX_NUMBER_OF_GAMES = 1000;
     private static final int DEFAULT_STONES = 6;
     private static final int DEFAULT_PITS = 6;
     private static final int DEFAULT_PLAYERS_NUM = 2;
+    /**
+     * Most moves of a batch, far more than a player can chain in a game of the default size.
+     */
+    private static final int MAX_BATCH_MOVES = 64;
+    private static final int MAX_BULK_GAMES = 1000;
+    /**
+     * Id of the seat played by {@link ComputerPlayer}, no other player can register with it.
+     */
+    public static final String COMPUTER_PLAYER_ID = "computer";
 
-    //TODO these maps can be moved to separate Repos
-    private final Map<String, GameBoard> games = new ConcurrentHashMap<>();
-    private final Map<String, List<GamePlayer>> playersOfGame = new ConcurrentHashMap<>();
+    private final GameRegistry games;
+    private final List<GameListener> listeners;
+    private final GameJournal journal;
+    private final GameShards shards;
+    private final PlayerDirectory players;
 
-    public String createGame() {
-        if (games.size() >= MAX_NUMBER_OF_GAMES) {
-            throw new IllegalStateException("Too many games. Try again later");
-        }
+    public GameService() {
+        this(List.of());
+    }
 
-        GameBoard gameBoard = new GameBoard(DEFAULT_PLAYERS_NUM, DEFAULT_PITS, DEFAULT_STONES, new Random().nextInt(DEFAULT_PLAYERS_NUM));
+    public GameService(List<GameListener> listeners) {
+        this(listeners, new GameRegistry());
+    }
+
+    public GameService(List<GameListener> listeners, GameRegistry games) {
+        this(listeners, games, GameJournal.NONE);
+    }
+
+    public GameService(List<GameListener> listeners, GameRegistry games, GameJournal journal) {
+        this(listeners, games, journal, new GameShards());
+    }
+
+    public GameService(List<GameListener> listeners, GameRegistry games, GameJournal journal, GameShards shards) {
+        this(listeners, games, journal, shards, PlayerDirectory.ANY);
+    }
+
+    @Autowired
+    public GameService(List<GameListener> listeners, GameRegistry games, GameJournal journal, GameShards shards,
+                       PlayerDirectory players) {
+        this.listeners = List.copyOf(listeners);
+        this.games = games;
+        this.journal = journal;
+        this.shards = shards;
+        this.players = players;
+        games.setEvictionListener(this::notifyEvicted);
+        // an expired game is not restored from the journal
+        games.setExpiryListener(journal::appendRemove);
+    }
+
+    /**
+     * @throws IllegalStateException if the games fill the capacity of the registry
+     */
+    public String createGame() {
+        Board gameBoard = Board.of(DEFAULT_PLAYERS_NUM, DEFAULT_PITS, DEFAULT_STONES, new Random().nextInt(DEFAULT_PLAYERS_NUM));
         String id = generateId();
-        games.put(id, gameBoard);
+        games.add(id, gameBoard);
+        // nobody knows the id yet, so the game can not change before it is recorded
+        journal.sync(journal.appendCreate(id, gameBoard));
         return id;
     }
 
-    public GamePlayer registerPlayer(@NotNull final String gameId, @NotNull final String playerId) {
-        GameBoard gameBoard = getGameBoard(gameId);
-
-        synchronized (gameBoard) {
-            List<GamePlayer> playerList = playersOfGame.get(gameId);
-            if (playerList != null) {
-                var gamePlayer = findPlayerById(playerId, playerList);
+    /**
+     * Creates a game of two players with the first seat taken by {@link #COMPUTER_PLAYER_ID}.
+     * The other player registers as in any game, the computer moves once the game is full.
+     * @throws IllegalStateException if the games fill the capacity of the registry
+     */
+    public String createGameWithComputer() {
+        Board gameBoard = Board.of(DEFAULT_PLAYERS_NUM, DEFAULT_PITS, DEFAULT_STONES, new Random().nextInt(DEFAULT_PLAYERS_NUM));
+        String id = generateId();
+        games.add(id, gameBoard);
+        journal.appendCreate(id, gameBoard);
+        long position = games.execute(id, g -> {
+            g.addPlayer(new GamePlayer(COMPUTER_PLAYER_ID, id, 0));
+            return journal.appendRegister(id, COMPUTER_PLAYER_ID);
+        });
+        journal.sync(position);
+        return id;
+    }
 
-                if (gamePlayer.isPresent()) {
-                    throw new IllegalArgumentException("Player with this id is already registered");
+    /**
+     * Creates games as {@link #createGame()} does, the games share one sync of the journal.
+     * Games are created until the capacity of the registry is reached.
+     * @return ids of the games created, fewer than the count if the capacity is reached
+     * @throws IllegalStateException if no game can be created
+     */
+    public List<String> createGames(int count) {
+        if (count < 1 || count > MAX_BULK_GAMES) {
+            throw new IllegalArgumentException("Number of games must be in range [1, " + MAX_BULK_GAMES + "]");
+        }
+        Random random = new Random();
+        List<String> ids = new ArrayList<>(count);
+        long position = 0;
+        for (int i = 0; i < count; i++) {
+            Board gameBoard = Board.of(DEFAULT_PLAYERS_NUM, DEFAULT_PITS, DEFAULT_STONES, random.nextInt(DEFAULT_PLAYERS_NUM));
+            String id = generateId();
+            try {
+                games.add(id, gameBoard);
+            } catch (IllegalStateException e) {
+                if (ids.isEmpty()) {
+                    throw e;
                 }
-            } else {
-                playerList = new ArrayList<>();
-                this.playersOfGame.put(gameId, playerList);
+                log.warn("Created {} of {} games: {}", ids.size(), count, e.getMessage());
+                break;
             }
-            int size = playerList.size();
-            if (size >= gameBoard.getNumberOfPlayers()) {
-                throw new IllegalArgumentException("Game is full");
+            position = journal.appendCreate(id, gameBoard);
+            ids.add(id);
+        }
+        journal.sync(position);
+        return ids;
+    }
+
+    /**
+     * Creates a game of 2 to {@link GameBoard#MAX_PLAYERS} players and registers them in one step,
+     * in the order of their ids.
+     * @return players of the new game
+     * @throws IllegalStateException if the games fill the capacity of the registry
+     */
+    public List<GamePlayer> createGame(@NotNull final List<String> playerIds) {
+        List<List<GamePlayer>> created = createGames(List.of(playerIds));
+        if (created.isEmpty()) {
+            throw new IllegalStateException("Too many games. Try again later");
+        }
+        return created.get(0);
+    }
+
+    /**
+     * Creates games of groups of players as {@link #createGame(List)} does, the games share one sync of the journal.
+     * Games are created in order until the capacity of the registry is reached.
+     * @return players of every game created, fewer than the groups if the capacity is reached
+     * @throws IllegalArgumentException if a group is not valid, before any game is created
+     */
+    public List<List<GamePlayer>> createGames(@NotNull final List<List<String>> groups) {
+        for (List<String> playerIds : groups) {
+            checkPlayers(playerIds);
+        }
+        List<List<GamePlayer>> created = new ArrayList<>(groups.size());
+        List<String> gameIds = new ArrayList<>(groups.size());
+        long position = 0;
+        for (List<String> playerIds : groups) {
+            int size = playerIds.size();
+            Board gameBoard = Board.of(size, DEFAULT_PITS, DEFAULT_STONES, new Random().nextInt(size));
+            String id = generateId();
+            try {
+                games.add(id, gameBoard);
+            } catch (IllegalStateException e) {
+                log.warn("Created {} of {} games: {}", created.size(), groups.size(), e.getMessage());
+                break;
             }
-            GamePlayer player = new GamePlayer(playerId, gameId, size);
-            playerList.add(player);
-            return player;
+            // nobody knows the id yet, so the registrations are recorded right after the game
+            journal.appendCreate(id, gameBoard);
+            Journaled<List<GamePlayer>> registered = games.execute(id, g -> {
+                long last = 0;
+                for (String playerId : playerIds) {
+                    g.addPlayer(new GamePlayer(playerId, id, g.getPlayerCount()));
+                    last = journal.appendRegister(id, playerId);
+                }
+                return new Journaled<>(g.getPlayers(), last);
+            });
+            position = Math.max(position, registered.getPosition());
+            created.add(registered.getResult());
+            gameIds.add(id);
         }
+        journal.sync(position);
+        for (String gameId : gameIds) {
+            notifyListeners(gameId, getGameSnapshot(gameId));
+        }
+        return created;
     }
 
-    private static Optional<GamePlayer> findPlayerById(final String playerId, final List<GamePlayer> playerList) {
-        return playerList.stream()
-                .filter(p -> playerId.equals(p.getPlayerId()))
-                .findFirst();
+    private void checkPlayers(List<String> playerIds) {
+        int size = playerIds.size();
+        if (size < GameBoard.MIN_PLAYERS || size > GameBoard.MAX_PLAYERS) {
+            throw new IllegalArgumentException("Number of players must be in range ["
+                    + GameBoard.MIN_PLAYERS + ", " + GameBoard.MAX_PLAYERS + "]");
+        }
+        if (new HashSet<>(playerIds).size() != size) {
+            throw new IllegalArgumentException("Players must be different");
+        }
+        for (String playerId : playerIds) {
+            if (!isRegistered(playerId)) {
+                throw new IllegalArgumentException("Player does not exist");
+            }
+        }
     }
 
-    private GameBoard getGameBoard(final String gameId) {
-        GameBoard gameBoard = games.get(gameId);
-        if (gameBoard == null) {
-            throw new IllegalArgumentException("Game not found");
+    public GamePlayer registerPlayer(@NotNull final String gameId, @NotNull final String playerId) {
+        if (!isRegistered(playerId)) {
+            throw new IllegalArgumentException("Player does not exist");
         }
-        return gameBoard;
+        Journaled<GamePlayer> player = games.execute(gameId, g -> {
+            if (g.getPlayer(playerId) != null) {
+                throw new IllegalArgumentException("Player with this id is already registered");
+            }
+            int size = g.getPlayerCount();
+            if (size >= g.getGameBoard().getNumberOfPlayers()) {
+                throw new IllegalArgumentException("Game is full");
+            }
+            GamePlayer gamePlayer = new GamePlayer(playerId, gameId, size);
+            g.addPlayer(gamePlayer);
+            return new Journaled<>(gamePlayer, journal.appendRegister(gameId, playerId));
+        });
+        journal.sync(player.getPosition());
+        notifyListeners(gameId, getGameSnapshot(gameId));
+        return player.getResult();
+    }
+
+    private boolean isRegistered(String playerId) {
+        return !COMPUTER_PLAYER_ID.equals(playerId) && players.isRegistered(playerId);
     }
 
     //TODO could be another Response class with the list of players
     public GameStat getGameStat(@NotNull final String gameId) {
-        return getGameBoard(gameId).getGameStat();
+        return getGameSnapshot(gameId).getGameStat();
+    }
+
+    /**
+     * Returns the latest snapshot of a game. Does not wait for queued moves.
+     */
+    public GameSnapshot getGameSnapshot(@NotNull final String gameId) {
+        return games.read(gameId).getGameBoard().getPublishedSnapshot();
+    }
+
+    /**
+     * Previews the moves of the player to move on the game's board, none of them is played.
+     * The moves are previewed by the game's single writer, so they are of its latest version.
+     * @return a preview per pit with stones, empty if the game is finished
+     */
+    public List<MovePreview> previewMoves(@NotNull final String gameId) {
+        return games.execute(gameId, g -> g.getGameBoard().previewMoves());
     }
 
     public GameStat play(@NotNull final String gameId, @NotNull final String playerId, int pit) {
-        List<GamePlayer> playerList = playersOfGame.get(gameId);
-        if (playerList == null) {
+        return play(gameId, playerId, pit, null).getGameStat();
+    }
+
+    /**
+     * Plays a move if the game is at the expected version.
+     * <p>
+     * The version is compared and the move applied by the game's single writer, so a move is applied only to the
+     * version the player has seen. A retried move is rejected as the version has moved on, it is never applied twice.
+     * @param expectedVersion version the move is made for, null to play on any version
+     * @return state after the move
+     * @throws GameVersionConflictException if the game is not at the expected version, it carries the current state
+     */
+    public GameSnapshot play(@NotNull final String gameId, @NotNull final String playerId, int pit, final Long expectedVersion) {
+        return play(gameId, g -> getPlayerOfMove(g, playerId), pit, expectedVersion);
+    }
+
+    /**
+     * Plays moves of a player in order, as one command of the game, while the player keeps the turn.
+     * The moves stop at the first one which passes the turn, finishes the game, is not valid or is not recorded by
+     * the journal, the later ones are skipped. The moves played are synced and published once.
+     * @param expectedVersion version the first move is made for, null to play on any version
+     * @return state after the moves and the outcome of every move
+     * @throws GameVersionConflictException if the game is not at the expected version
+     * @throws IllegalArgumentException or {@link IllegalStateException} if the first move is not valid,
+     * as {@link #play(String, String, int, Long)} does, or the exception of the journal if it can not record the
+     * first move, nothing is played then
+     */
+    public MoveBatch playMoves(@NotNull final String gameId, @NotNull final String playerId,
+                               @NotNull final List<Integer> pits, final Long expectedVersion) {
+        if (pits.isEmpty() || pits.size() > MAX_BATCH_MOVES) {
+            throw new IllegalArgumentException("Number of moves must be in range [1, " + MAX_BATCH_MOVES + "]");
+        }
+        Journaled<MoveBatch> batch = games.execute(gameId, g -> {
+            GamePlayer player = getPlayerOfMove(g, playerId);
+            Board gameBoard = g.getGameBoard();
+            if (expectedVersion != null && expectedVersion != gameBoard.getVersion()) {
+                throw new GameVersionConflictException(g.getGameId(), expectedVersion, gameBoard.getSnapshot());
+            }
+            int turn = player.getTurn();
+            List<MoveOutcome> outcomes = new ArrayList<>(pits.size());
+            long position = 0;
+            boolean stopped = false;
+            for (int pit : pits) {
+                if (stopped) {
+                    outcomes.add(new MoveOutcome(pit, MoveOutcome.Status.SKIPPED, null));
+                    continue;
+                }
+                try {
+                    gameBoard.checkMove(turn, pit);
+                    // recorded before it is played, so a move the journal fails to record is not played
+                    position = journal.appendMove(gameId, turn, pit, gameBoard.getVersion() + 1);
+                } catch (RuntimeException e) {
+                    if (outcomes.isEmpty()) {
+                        throw e;
+                    }
+                    outcomes.add(new MoveOutcome(pit, MoveOutcome.Status.FAILED, e.getMessage()));
+                    stopped = true;
+                    continue;
+                }
+                gameBoard.play(turn, pit);
+                stopped = gameBoard.isGameFinished() || gameBoard.getCurPlayer() != turn;
+                outcomes.add(new MoveOutcome(pit, stopped ? MoveOutcome.Status.TURN_OVER : MoveOutcome.Status.PLAYED,
+                        null));
+            }
+            GameSnapshot snapshot = gameBoard.getSnapshot();
+            return new Journaled<>(new MoveBatch(snapshot.getVersion(), snapshot.getGameStat(), outcomes), position);
+        });
+        journal.sync(batch.getPosition());
+        MoveBatch result = batch.getResult();
+        notifyListeners(gameId, new GameSnapshot(result.getVersion(), result.getGameStat()));
+        return result;
+    }
+
+    /**
+     * Plays a move of the player a session was issued to by {@link #registerPlayer(String, String)}.
+     * @see #play(String, String, int, Long)
+     */
+    public GameSnapshot play(@NotNull final String gameId, long session, int pit, final Long expectedVersion) {
+        return play(gameId, g -> {
+            GamePlayer player = g.getPlayer(session);
+            if (player == null) {
+                throw new IllegalArgumentException("Session is not valid");
+            }
+            checkGameIsFull(g);
+            return player;
+        }, pit, expectedVersion);
+    }
+
+    /**
+     * Plays a move of a player who has already been looked up by {@link #getGamePlayer(String, String)}.
+     */
+    public GameStat play(@NotNull final GamePlayer player, int pit) {
+        return play(player.getGameId(), g -> {
+            checkGameIsFull(g);
+            return player;
+        }, pit, null).getGameStat();
+    }
+
+    private GameSnapshot play(final String gameId, final Function<GameActor, GamePlayer> playerLookup, int pit,
+                              final Long expectedVersion) {
+        Journaled<GameSnapshot> snapshot = games.execute(gameId, g -> {
+            GamePlayer player = playerLookup.apply(g);
+            Board gameBoard = g.getGameBoard();
+            if (expectedVersion != null && expectedVersion != gameBoard.getVersion()) {
+                throw new GameVersionConflictException(g.getGameId(), expectedVersion, gameBoard.getSnapshot());
+            }
+            gameBoard.checkMove(player.getTurn(), pit);
+            // recorded before it is played, so a move the journal fails to record is not played
+            long position = journal.appendMove(gameId, player.getTurn(), pit, gameBoard.getVersion() + 1);
+            gameBoard.play(player.getTurn(), pit);
+            return new Journaled<>(gameBoard.getSnapshot(), position);
+        });
+        journal.sync(snapshot.getPosition());
+        notifyListeners(gameId, snapshot.getResult());
+        return snapshot.getResult();
+    }
+
+    private static GamePlayer getPlayerOfMove(final GameActor game, final String playerId) {
+        if (game.getPlayerCount() == 0) {
             throw new IllegalArgumentException("Players are not registered");
         }
-        GameBoard gameBoard = getGameBoard(gameId);
-        if (playerList.size() != gameBoard.getNumberOfPlayers()) {
+        checkGameIsFull(game);
+        GamePlayer player = game.getPlayer(playerId);
+        if (player == null) {
+            throw new IllegalArgumentException("Player is not registered");
+        }
+        return player;
+    }
+
+    private static void checkGameIsFull(final GameActor game) {
+        if (game.getPlayerCount() != game.getGameBoard().getNumberOfPlayers()) {
             throw new IllegalStateException("Game is not full");
         }
-        var player = findPlayerById(playerId, playerList);
-        if (player.isEmpty()) {
-            throw new IllegalArgumentException("Player is not registered");
+    }
+
+    private void notifyListeners(final String gameId, final GameSnapshot snapshot) {
+        for (GameListener listener : listeners) {
+            try {
+                listener.onGameChanged(gameId, snapshot);
+            } catch (RuntimeException e) {
+                log.warn("Listener {} failed on change of game {}", listener, gameId, e);
+            }
         }
-        synchronized (gameBoard) {
-            gameBoard.play(player.get().getTurn(), pit);
-            return gameBoard.getGameStat();
+    }
+
+    private void notifyEvicted(final String gameId) {
+        for (GameListener listener : listeners) {
+            try {
+                listener.onGameEvicted(gameId);
+            } catch (RuntimeException e) {
+                log.warn("Listener {} failed on eviction of game {}", listener, gameId, e);
+            }
         }
     }
 
+    /**
+     * Draws random ids until one belongs to this node, about as many draws as there are nodes.
+     */
     private String generateId() {
-        return UUID.randomUUID().toString();
+        String id;
+        do {
+            id = UUID.randomUUID().toString();
+        } while (!shards.owns(id));
+        return id;
+    }
+
+    /**
+     * Hands off the games this node no longer owns, see {@link GameRegistry#handOff}.
+     * A batch is recorded as removed before it is passed to the receiver, and is not played here again even if
+     * the receiver fails, so the receiver retries until the other node has the batch.
+     * @return number of games handed off
+     */
+    public int handOffGames(int batchSize, Consumer<List<CompactGame>> receiver) {
+        return games.handOff(gameId -> !shards.owns(gameId), batchSize, batch -> {
+            long position = 0;
+            for (CompactGame game : batch) {
+                position = journal.appendRemove(game.getGameId());
+            }
+            journal.sync(position);
+        }, receiver);
+    }
+
+    /**
+     * Takes over games handed off by another node, they are returned once recorded.
+     * A game which is here already is kept, so a batch may be sent again.
+     * The games in which {@link #COMPUTER_PLAYER_ID} has the turn are published to the listeners,
+     * so that the computer moves in them on this node.
+     */
+    public void adoptGames(List<CompactGame> adopted) {
+        long position = 0;
+        List<String> gameIds = new ArrayList<>(adopted.size());
+        for (CompactGame game : adopted) {
+            if (games.adoptIfAbsent(game)) {
+                position = journal.appendImport(game);
+                gameIds.add(game.getGameId());
+            }
+        }
+        journal.sync(position);
+        notifyGamesToMove(games.findGamesToMove(COMPUTER_PLAYER_ID, gameIds));
+    }
+
+    /**
+     * Publishes the games in which a player has the turn to the listeners, so that a player which moves on changes,
+     * as {@link ComputerPlayer} does, takes up the games restored from the journal.
+     * @return number of games published
+     */
+    public int resumeGames(@NotNull final String playerId) {
+        return notifyGamesToMove(games.findGamesToMove(playerId));
+    }
+
+    private int notifyGamesToMove(List<String> gameIds) {
+        int notified = 0;
+        for (String gameId : gameIds) {
+            GameSnapshot snapshot;
+            try {
+                snapshot = getGameSnapshot(gameId);
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                // removed or handed off meanwhile
+                continue;
+            }
+            notifyListeners(gameId, snapshot);
+            notified++;
+        }
+        return notified;
     }
 
     public boolean hasGame(@NotNull final String gameId) {
         Objects.requireNonNull(gameId);
 
-        return games.containsKey(gameId);
+        return games.contains(gameId);
+    }
+
+    /**
+     * Returns a player registered in a game.
+     * @throws IllegalArgumentException if the game does not exist or the player is not registered in it
+     */
+    public GamePlayer getGamePlayer(@NotNull final String gameId, @NotNull final String playerId) {
+        GamePlayer player = games.read(gameId).getPlayer(playerId);
+        if (player == null) {
+            throw new IllegalArgumentException("Player is not registered");
+        }
+        return player;
     }
 
     public boolean isPlayerRegistered(@NotNull final String gameId, @NotNull final String playerId) {
-        List<GamePlayer> playerList = playersOfGame.get(gameId);
-        if (playerList == null) {
+        GameActor game;
+        try {
+            game = games.read(gameId);
+        } catch (IllegalArgumentException | GameMovedException e) {
             return false;
         }
-        return findPlayerById(playerId, playerList).isPresent();
+        return game.getPlayer(playerId) != null;
+    }
+
+    /**
+     * Result of a command and the journal position of its record.
+     */
+    @Value
+    private static class Journaled<T> {
+        T result;
+        long position;
     }
 }
@@ -0,0 +1,100 @@
+package xyz.a5s7.mancala.domain.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This node's view of the cluster: the node itself and the {@link ShardRing} of all nodes.
+ * <p>
+ * Nodes are named by their base URL, {@code mancala.cluster.self} and {@code mancala.cluster.nodes}.
+ * Without other nodes the node owns every game.
+ * <p>
+ * Players are matched by one lobby node, {@code mancala.cluster.lobby}, by default the first of the initial nodes
+ * in the order of their URLs. All nodes must agree on it: set it if a node may join with a URL ordered first.
+ */
+@Component
+public class GameShards {
+    private final String self;
+    private final String lobby;
+    private volatile ShardRing ring;
+
+    /**
+     * Single node owning every game.
+     */
+    public GameShards() {
+        this("", List.of());
+    }
+
+    public GameShards(String self, List<String> nodes) {
+        this(self, nodes, "");
+    }
+
+    @Autowired
+    public GameShards(@Value("${mancala.cluster.self:}") String self,
+                      @Value("${mancala.cluster.nodes:}") List<String> nodes,
+                      @Value("${mancala.cluster.lobby:}") String lobby) {
+        List<String> all = new ArrayList<>();
+        for (String node : nodes) {
+            if (!node.isBlank()) {
+                all.add(normalize(node));
+            }
+        }
+        if (!all.isEmpty() && self.isBlank()) {
+            throw new IllegalArgumentException("mancala.cluster.self must be set with mancala.cluster.nodes");
+        }
+        this.self = normalize(self);
+        all.add(this.self);
+        this.ring = new ShardRing(all);
+        // the ring keeps its nodes in the order of their URLs
+        this.lobby = lobby.isBlank() ? ring.getNodes().get(0) : normalize(lobby);
+    }
+
+    public String getSelf() {
+        return self;
+    }
+
+    /**
+     * @return node matching players into games
+     */
+    public String getLobby() {
+        return lobby;
+    }
+
+    public ShardRing getRing() {
+        return ring;
+    }
+
+    public boolean isClustered() {
+        return ring.getNodes().size() > 1;
+    }
+
+    public String ownerOf(String gameId) {
+        return ring.owner(gameId);
+    }
+
+    public boolean owns(String gameId) {
+        return self.equals(ring.owner(gameId));
+    }
+
+    /**
+     * Adds a node to the ring, games are routed by the new ring as soon as it returns.
+     * @return whether the node is new
+     */
+    public synchronized boolean join(String node) {
+        String joined = normalize(node);
+        if (ring.contains(joined)) {
+            return false;
+        }
+        ring = ring.withNode(joined);
+        return true;
+    }
+
+    private static String normalize(String node) {
+        String trimmed = node.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+}
@@ -0,0 +1,22 @@
+package xyz.a5s7.mancala.domain.service;
+
+import lombok.Getter;
+import xyz.a5s7.mancala.domain.model.statistics.GameSnapshot;
+
+/**
+ * A move was sent for a version of the game other than the current one.
+ */
+@Getter
+public class GameVersionConflictException extends IllegalStateException {
+    private final String gameId;
+    /**
+     * State of the game when the move was rejected.
+     */
+    private final GameSnapshot current;
+
+    public GameVersionConflictException(String gameId, long expectedVersion, GameSnapshot current) {
+        super("Game version is " + current.getVersion() + ", not " + expectedVersion);
+        this.gameId = gameId;
+        this.current = current;
+    }
+}
@@ -0,0 +1,258 @@
+package xyz.a5s7.mancala.domain.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import xyz.a5s7.mancala.domain.model.GameBoard;
+import xyz.a5s7.mancala.domain.model.GamePlayer;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lobby which matches waiting players into games.
+ * <p>
+ * A player waits for a game of a number of players. Waiting players are queued to the matcher's mailbox and drained
+ * by a single task, which groups them by the number of players in order of arrival. Full groups drained together
+ * are created by {@link GameService#createGames(List)} in one batch, which shares a sync of the journal.
+ * <p>
+ * A player waits for one game at a time. Its match is kept for the match retention after the game is created,
+ * so that a client polling for it gets it.
+ * <p>
+ * The time players wait and the games matched are recorded as {@code mancala.matchmaking.*} meters.
+ */
+@Slf4j
+@Service
+public class Matchmaker {
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    public static final Duration DEFAULT_MATCH_RETENTION = Duration.ofMinutes(1);
+
+    private final GameService gameService;
+    private final PlayerDirectory players;
+    private final int batchSize;
+    private final long matchRetentionNanos;
+    /**
+     * Tickets by the player id, of waiting players and of matches within their retention.
+     */
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private final Queue<Ticket> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "matchmaker");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /**
+     * Groups of waiting players by the number of players, used by the draining task only.
+     */
+    private final List<ArrayDeque<Ticket>> groups = new ArrayList<>();
+    private final Timer waitTime;
+    private final MeterRegistry meters;
+
+    public Matchmaker(GameService gameService) {
+        this(gameService, PlayerDirectory.ANY, new SimpleMeterRegistry(), DEFAULT_BATCH_SIZE, DEFAULT_MATCH_RETENTION);
+    }
+
+    @Autowired
+    public Matchmaker(GameService gameService, PlayerDirectory players, MeterRegistry meters,
+                      @Value("${mancala.matchmaking.batch-size:256}") int batchSize,
+                      @Value("${mancala.matchmaking.match-retention:1m}") Duration matchRetention) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be > 0");
+        }
+        this.gameService = gameService;
+        this.players = players;
+        this.meters = meters;
+        this.batchSize = batchSize;
+        this.matchRetentionNanos = matchRetention.toNanos();
+        for (int size = 0; size <= GameBoard.MAX_PLAYERS; size++) {
+            groups.add(new ArrayDeque<>());
+        }
+        waitTime = Timer.builder("mancala.matchmaking.wait")
+                .description("Time a player waits for a game")
+                .publishPercentiles(0.5, 0.99)
+                .register(meters);
+        meters.gauge("mancala.matchmaking.waiting", waiting);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Queues a player for a game of a number of players. A player already waiting keeps its place.
+     * @return match of the player, completed with the player of the new game
+     */
+    public CompletableFuture<GamePlayer> enqueue(String playerId, int numberOfPlayers) {
+        if (numberOfPlayers < GameBoard.MIN_PLAYERS || numberOfPlayers > GameBoard.MAX_PLAYERS) {
+            throw new IllegalArgumentException("Number of players must be in range ["
+                    + GameBoard.MIN_PLAYERS + ", " + GameBoard.MAX_PLAYERS + "]");
+        }
+        if (!players.isRegistered(playerId)) {
+            throw new IllegalArgumentException("Player does not exist");
+        }
+        Ticket ticket = new Ticket(playerId, numberOfPlayers);
+        Ticket current = tickets.merge(playerId, ticket, (old, created) -> old.match.isDone() ? created : old);
+        if (current != ticket) {
+            if (current.numberOfPlayers != numberOfPlayers) {
+                throw new IllegalStateException("Player is waiting for a game of " + current.numberOfPlayers
+                        + " players");
+            }
+            return current.match;
+        }
+        waiting.incrementAndGet();
+        mailbox.add(ticket);
+        if (queued.getAndIncrement() == 0) {
+            executor.execute(this::drain);
+        }
+        return ticket.match;
+    }
+
+    /**
+     * @return match of a waiting or matched player, null if the player is neither
+     */
+    public CompletableFuture<GamePlayer> getMatch(String playerId) {
+        Ticket ticket = tickets.get(playerId);
+        return ticket == null ? null : ticket.match;
+    }
+
+    /**
+     * Stops a player waiting.
+     * @return false if the player is not waiting, or is being matched
+     */
+    public boolean cancel(String playerId) {
+        Ticket ticket = tickets.get(playerId);
+        if (ticket == null || !ticket.state.compareAndSet(Ticket.WAITING, Ticket.CANCELLED)) {
+            return false;
+        }
+        waiting.decrementAndGet();
+        tickets.remove(playerId, ticket);
+        ticket.match.cancel(false);
+        return true;
+    }
+
+    /**
+     * Removes matches past their retention.
+     */
+    @Scheduled(fixedDelayString = "${mancala.matchmaking.sweep-interval:PT10S}")
+    public void sweep() {
+        long now = System.nanoTime();
+        tickets.values().removeIf(t -> t.match.isDone() && now - t.matchedAt >= matchRetentionNanos);
+    }
+
+    private void drain() {
+        boolean more = true;
+        while (more) {
+            List<List<Ticket>> matches = new ArrayList<>();
+            do {
+                group(mailbox.poll(), matches);
+                more = queued.decrementAndGet() != 0;
+            } while (more && matches.size() < batchSize);
+            start(matches);
+        }
+    }
+
+    /**
+     * Adds a ticket to its group, and moves the group to the matches once it is full and claimed.
+     */
+    private void group(Ticket ticket, List<List<Ticket>> matches) {
+        ArrayDeque<Ticket> group = groups.get(ticket.numberOfPlayers);
+        group.add(ticket);
+        if (group.size() < ticket.numberOfPlayers) {
+            return;
+        }
+        List<Ticket> claimed = new ArrayList<>(group.size());
+        for (Iterator<Ticket> i = group.iterator(); i.hasNext(); ) {
+            Ticket t = i.next();
+            if (t.state.compareAndSet(Ticket.WAITING, Ticket.MATCHED)) {
+                claimed.add(t);
+            } else {
+                // cancelled while in the group
+                i.remove();
+            }
+        }
+        if (claimed.size() < ticket.numberOfPlayers) {
+            claimed.forEach(t -> t.state.set(Ticket.WAITING));
+            return;
+        }
+        group.clear();
+        waiting.addAndGet(-claimed.size());
+        matches.add(claimed);
+    }
+
+    private void start(List<List<Ticket>> matches) {
+        if (matches.isEmpty()) {
+            return;
+        }
+        List<List<String>> playerIds = new ArrayList<>(matches.size());
+        for (List<Ticket> match : matches) {
+            playerIds.add(match.stream().map(t -> t.playerId).toList());
+        }
+        List<List<GamePlayer>> created;
+        try {
+            created = gameService.createGames(playerIds);
+        } catch (RuntimeException e) {
+            log.warn("Cannot create {} matched games", matches.size(), e);
+            created = List.of();
+        }
+        long now = System.nanoTime();
+        for (int i = 0; i < matches.size(); i++) {
+            List<Ticket> match = matches.get(i);
+            if (i < created.size()) {
+                meters.counter("mancala.matchmaking.games", "players", String.valueOf(match.size())).increment();
+            }
+            for (int turn = 0; turn < match.size(); turn++) {
+                Ticket ticket = match.get(turn);
+                ticket.matchedAt = now;
+                waitTime.record(now - ticket.enqueuedAt, TimeUnit.NANOSECONDS);
+                if (i < created.size()) {
+                    ticket.match.complete(created.get(i).get(turn));
+                } else {
+                    ticket.match.completeExceptionally(new IllegalStateException("Too many games. Try again later"));
+                }
+            }
+        }
+    }
+
+    private static final class Ticket {
+        static final int WAITING = 0;
+        static final int MATCHED = 1;
+        static final int CANCELLED = 2;
+
+        final String playerId;
+        final int numberOfPlayers;
+        final long enqueuedAt = System.nanoTime();
+        final AtomicInteger state = new AtomicInteger(WAITING);
+        final CompletableFuture<GamePlayer> match = new CompletableFuture<>();
+        /**
+         * Set before the match is completed, read after it is done.
+         */
+        volatile long matchedAt;
+
+        Ticket(String playerId, int numberOfPlayers) {
+            this.playerId = playerId;
+            this.numberOfPlayers = numberOfPlayers;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package xyz.a5s7.mancala.domain.service;
+
+/**
+ * Players which can be registered in games.
+ */
+public interface PlayerDirectory {
+    /**
+     * Directory which accepts any player id, for games of players not created by {@link PlayerService}.
+     */
+    PlayerDirectory ANY = playerId -> true;
+
+    boolean isRegistered(String playerId);
+}
@@ -0,0 +1,76 @@
+package xyz.a5s7.mancala.domain.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import xyz.a5s7.mancala.domain.model.Player;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Players indexed by id and by name.
+ * <p>
+ * Both indexes are concurrent maps of the same {@link Player} instances, the id index is keyed by the player's own id
+ * string. A player is added to the id index first, then to the name index, which makes creation atomic per name.
+ * A player found by name is therefore always found by id. A player which loses its name to another one is removed
+ * from the id index again, nobody knows its id before {@link #add(Player)} returns, so no lock is held over both.
+ * <p>
+ * The maps are created for the expected number of players, so that filling them does not resize them.
+ * A player takes about 250 bytes with both entries, ten million players about 2.5 GB.
+ */
+@Component
+public class PlayerRegistry {
+    public static final int DEFAULT_EXPECTED_PLAYERS = 1 << 16;
+
+    private final ConcurrentHashMap<String, Player> byId;
+    private final ConcurrentHashMap<String, Player> byName;
+
+    public PlayerRegistry() {
+        this(DEFAULT_EXPECTED_PLAYERS);
+    }
+
+    @Autowired
+    public PlayerRegistry(@Value("${mancala.players.expected:65536}") int expectedPlayers) {
+        if (expectedPlayers < 0) {
+            throw new IllegalArgumentException("Expected number of players must be >= 0");
+        }
+        byId = new ConcurrentHashMap<>(expectedPlayers);
+        byName = new ConcurrentHashMap<>(expectedPlayers);
+    }
+
+    /**
+     * Adds a player unless one with its name exists.
+     * @return the player with the same name, or null if the player is added
+     * @throws IllegalStateException if the id is taken by another player
+     */
+    public Player add(Player player) {
+        if (byId.putIfAbsent(player.getId(), player) != null) {
+            throw new IllegalStateException("Player id is already taken");
+        }
+        Player existing = byName.putIfAbsent(player.getName(), player);
+        if (existing != null) {
+            byId.remove(player.getId(), player);
+            return existing;
+        }
+        return null;
+    }
+
+    /**
+     * @return player of the id, or null
+     */
+    public Player getById(String playerId) {
+        return byId.get(playerId);
+    }
+
+    /**
+     * @return player of the name, or null
+     */
+    public Player getByName(String name) {
+        return byName.get(name);
+    }
+
+    public int size() {
+        // the id index may briefly hold a player which lost its name
+        return byName.size();
+    }
+}
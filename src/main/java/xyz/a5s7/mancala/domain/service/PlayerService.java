@@ -1,32 +1,80 @@
 package xyz.a5s7.mancala.domain.service;
 
 import jakarta.validation.constraints.NotNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import xyz.a5s7.mancala.domain.model.Player;
 
-import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Players created by name, see {@link PlayerRegistry}.
+ * <p>
+ * Games accept only ids of created players where this node knows all of them. Players are kept in the memory
+ * of the node which created them, neither journaled nor shared, so unless {@code mancala.players.verify-ids}
+ * is set, ids are not checked by a node of a cluster, whose games take players of other nodes, nor by a node
+ * with the journal enabled, whose games outlive the players it knows.
+ */
 @Service
-public class PlayerService {
-    private final Map<String, Player> players = new ConcurrentHashMap<>();
+public class PlayerService implements PlayerDirectory {
+    private final PlayerRegistry players;
+    private final GameShards shards;
+    private final Boolean verifyIds;
+    private final boolean journaled;
+
+    public PlayerService() {
+        this(new PlayerRegistry(), true);
+    }
+
+    public PlayerService(PlayerRegistry players, boolean verifyIds) {
+        this(players, new GameShards(), verifyIds, false);
+    }
+
+    /**
+     * @param verifyIds whether ids are checked, or null to check them only on a single node without the journal
+     */
+    @Autowired
+    public PlayerService(PlayerRegistry players, GameShards shards,
+                         @Value("${mancala.players.verify-ids:#{null}}") Boolean verifyIds,
+                         @Value("${mancala.journal.enabled:false}") boolean journaled) {
+        this.players = players;
+        this.shards = shards;
+        this.verifyIds = verifyIds;
+        this.journaled = journaled;
+    }
 
     public String createPlayer(@NotNull final String playerName) {
         if (playerName == null || playerName.isBlank()) {
             throw new IllegalArgumentException("Player name must not be empty");
         }
-        if (players.get(playerName) != null) {
+        String id = generateId();
+        if (players.add(new Player(id, playerName)) != null) {
             throw new IllegalArgumentException("Player with this name is already exists");
         }
-        String id = generateId();
-        players.put(playerName, new Player(id, playerName));
 
         return id;
     }
 
     public Player getPlayerByName(@NotNull final String playerName) {
-        return players.get(playerName);
+        return players.getByName(playerName);
+    }
+
+    public Player getPlayer(@NotNull final String playerId) {
+        return players.getById(playerId);
+    }
+
+    @Override
+    public boolean isRegistered(String playerId) {
+        return !isVerifyingIds() || players.getById(playerId) != null;
+    }
+
+    private boolean isVerifyingIds() {
+        if (verifyIds != null) {
+            return verifyIds;
+        }
+        // a node may join a cluster after it has started
+        return !journaled && !shards.isClustered();
     }
 
     private String generateId() {
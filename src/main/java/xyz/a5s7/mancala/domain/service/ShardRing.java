@@ -0,0 +1,98 @@
+package xyz.a5s7.mancala.domain.service;
+
+import xyz.a5s7.mancala.domain.model.KeyHash;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Consistent hash ring of the nodes games are sharded to.
+ * <p>
+ * Every node is placed on the ring at a number of virtual points, a game belongs to the node of the first point
+ * at or after the hash of its id. A node joining the ring takes over about {@code 1/n} of the games,
+ * all from the other nodes, and no game moves between the other nodes.
+ * <p>
+ * The ring is immutable.
+ */
+public final class ShardRing {
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    private final List<String> nodes;
+    private final int virtualNodes;
+    private final long[] points;
+    private final String[] owners;
+
+    public ShardRing(Collection<String> nodes) {
+        this(nodes, DEFAULT_VIRTUAL_NODES);
+    }
+
+    public ShardRing(Collection<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("Ring must have nodes");
+        }
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("Number of virtual nodes must be > 0");
+        }
+        this.nodes = List.copyOf(new TreeSet<>(nodes));
+        this.virtualNodes = virtualNodes;
+        int size = this.nodes.size() * virtualNodes;
+        long[] hashes = new long[size];
+        String[] hashOwners = new String[size];
+        int i = 0;
+        for (String node : this.nodes) {
+            for (int v = 0; v < virtualNodes; v++) {
+                hashes[i] = KeyHash.of(node + "#" + v);
+                hashOwners[i] = node;
+                i++;
+            }
+        }
+        Integer[] order = new Integer[size];
+        for (int k = 0; k < size; k++) {
+            order[k] = k;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(hashes[a], hashes[b]));
+        points = new long[size];
+        owners = new String[size];
+        for (int k = 0; k < size; k++) {
+            points[k] = hashes[order[k]];
+            owners[k] = hashOwners[order[k]];
+        }
+    }
+
+    /**
+     * @return node the key belongs to
+     */
+    public String owner(String key) {
+        int i = Arrays.binarySearch(points, KeyHash.of(key));
+        if (i < 0) {
+            i = -i - 1;
+        }
+        return owners[i == points.length ? 0 : i];
+    }
+
+    /**
+     * @return nodes in their natural order
+     */
+    public List<String> getNodes() {
+        return nodes;
+    }
+
+    public boolean contains(String node) {
+        return nodes.contains(node);
+    }
+
+    /**
+     * @return ring with the node added
+     */
+    public ShardRing withNode(String node) {
+        if (contains(node)) {
+            return this;
+        }
+        List<String> joined = new ArrayList<>(nodes);
+        joined.add(node);
+        return new ShardRing(joined, virtualNodes);
+    }
+}
@@ -0,0 +1,238 @@
+package xyz.a5s7.mancala.engine;
+
+/**
+ * Negamax search with alpha-beta pruning of two player games.
+ * <p>
+ * A score is the difference of the big pits for the player to move, counting the stones left in the pits of
+ * a finished game. A move keeping the turn is searched with the same window and sign, as the same player moves next.
+ * <p>
+ * The search deepens iteratively until the maximum depth, the time budget or the end of every line is reached,
+ * the best move of the last completed iteration is returned. The {@link TranspositionTable} orders the moves of
+ * the next iteration and cuts positions reached again, it can be shared with other searches.
+ * Moves are played and taken back on the {@link SearchBoard}, a search does not allocate once its buffers are grown.
+ * Positions in the {@link Tablebase}, if one is given, are scored exactly without searching them.
+ * <p>
+ * A search is not thread-safe, every thread uses its own one.
+ */
+public final class AlphaBetaSearch {
+    static final int INFINITY = Integer.MAX_VALUE - 1;
+    private static final int CHECK_INTERVAL = 1024;
+
+    private final TranspositionTable table;
+    private final Tablebase tablebase;
+    private int[][] moves = new int[0][];
+    private long nodes;
+    private long deadline;
+    private boolean timed;
+    private boolean aborted;
+    private boolean cut;
+    private int rootMove;
+
+    public AlphaBetaSearch(TranspositionTable table) {
+        this(table, null);
+    }
+
+    /**
+     * @param tablebase scores of endgames, null if there is none
+     */
+    public AlphaBetaSearch(TranspositionTable table, Tablebase tablebase) {
+        this.table = table;
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Searches the best move of the current player. The board is restored before returning.
+     * @param maxDepth most moves searched ahead, extra turns included
+     * @param budgetNanos time budget, the first iteration is always completed
+     * @throws IllegalArgumentException if the game is not of two players
+     */
+    public SearchResult search(SearchBoard board, int maxDepth, long budgetNanos) {
+        if (board.getNumberOfPlayers() != 2) {
+            throw new IllegalArgumentException("Only games of two players can be searched");
+        }
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException("Depth must be >= 1");
+        }
+        long start = System.nanoTime();
+        ensureMoves(maxDepth + 1, board.getPitsPerPlayer());
+        nodes = 0;
+        aborted = false;
+        timed = false;
+        deadline = start + budgetNanos;
+        int bestPit = -1;
+        int bestScore = evaluate(board);
+        int completed = 0;
+        for (int depth = 1; depth <= maxDepth && !board.isFinished(); depth++) {
+            cut = false;
+            int score = negamax(board, depth, 0, -INFINITY, INFINITY);
+            if (aborted) {
+                break;
+            }
+            bestScore = score;
+            bestPit = rootMove;
+            completed = depth;
+            timed = true;
+            if (!cut) {
+                // every line reached the end of the game, deeper iterations would find the same
+                break;
+            }
+        }
+        return new SearchResult(bestPit, bestScore, completed, nodes, System.nanoTime() - start);
+    }
+
+    /**
+     * Prepares a search of single moves by {@link #searchMove}, which {@link ParallelSearch} runs on its threads.
+     * @param timed whether the search is aborted at the deadline
+     */
+    void start(int maxDepth, int pits, long deadline, boolean timed) {
+        ensureMoves(maxDepth + 1, pits);
+        this.nodes = 0;
+        this.aborted = false;
+        this.cut = false;
+        this.deadline = deadline;
+        this.timed = timed;
+    }
+
+    /**
+     * Searches a move of the player to move, the board is restored before returning.
+     * @return score of the move for the player to move, meaningless if the search is aborted
+     */
+    int searchMove(SearchBoard board, int pit, int depth, int alpha, int beta) {
+        int player = board.getCurPlayer();
+        board.play(pit);
+        int score = board.getCurPlayer() == player
+                ? negamax(board, depth - 1, 1, alpha, beta)
+                : -negamax(board, depth - 1, 1, -beta, -alpha);
+        board.undo();
+        return score;
+    }
+
+    boolean isAborted() {
+        return aborted;
+    }
+
+    /**
+     * @return whether a line was searched short of the end of the game since {@link #start}
+     */
+    boolean isCut() {
+        return cut;
+    }
+
+    private int negamax(SearchBoard board, int depth, int ply, int alpha, int beta) {
+        if (++nodes % CHECK_INTERVAL == 0 && timed && System.nanoTime() - deadline > 0) {
+            aborted = true;
+        }
+        if (board.isFinished()) {
+            return evaluate(board);
+        }
+        if (tablebase != null && ply > 0 && tablebase.contains(board)) {
+            return tablebase.probe(board);
+        }
+        if (depth == 0) {
+            cut = true;
+            return evaluate(board);
+        }
+        long hash = board.getHash();
+        long entry = table.probe(hash);
+        int hashMove = -1;
+        if (entry != TranspositionTable.NONE) {
+            hashMove = TranspositionTable.move(entry);
+            if (TranspositionTable.depth(entry) >= depth && ply > 0) {
+                int score = TranspositionTable.score(entry);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || bound == TranspositionTable.LOWER && score >= beta
+                        || bound == TranspositionTable.UPPER && score <= alpha) {
+                    // the entry may stop short of the end of the game
+                    cut = true;
+                    return score;
+                }
+            }
+        }
+        int[] buffer = moves[ply];
+        int count = order(board, buffer, hashMove);
+        int player = board.getCurPlayer();
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = buffer[0];
+        for (int i = 0; i < count; i++) {
+            int pit = buffer[i];
+            board.play(pit);
+            int score = board.getCurPlayer() == player
+                    ? negamax(board, depth - 1, ply + 1, alpha, beta)
+                    : -negamax(board, depth - 1, ply + 1, -beta, -alpha);
+            board.undo();
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = pit;
+            }
+            if (best > alpha) {
+                alpha = best;
+            }
+            if (alpha >= beta) {
+                break;
+            }
+        }
+        if (ply == 0) {
+            rootMove = bestMove;
+        }
+        int bound = best <= originalAlpha ? TranspositionTable.UPPER
+                : best >= beta ? TranspositionTable.LOWER
+                : TranspositionTable.EXACT;
+        table.store(hash, best, depth, bound, bestMove);
+        return best;
+    }
+
+    /**
+     * Writes the legal moves: the best move of the table first, then the moves keeping the turn.
+     */
+    static int order(SearchBoard board, int[] buffer, int hashMove) {
+        int count = board.moves(buffer);
+        int first = 0;
+        for (int i = 0; i < count; i++) {
+            int pit = buffer[i];
+            if (pit == hashMove) {
+                swap(buffer, i, 0);
+                first = 1;
+                break;
+            }
+        }
+        for (int i = first; i < count; i++) {
+            if (board.isExtraTurn(buffer[i])) {
+                swap(buffer, i, first++);
+            }
+        }
+        return count;
+    }
+
+    private static void swap(int[] buffer, int i, int j) {
+        int pit = buffer[i];
+        buffer[i] = buffer[j];
+        buffer[j] = pit;
+    }
+
+    /**
+     * @return difference of the big pits for the player to move
+     */
+    static int evaluate(SearchBoard board) {
+        int player = board.getCurPlayer();
+        return board.getLargePit(player) - board.getLargePit(1 - player);
+    }
+
+    private void ensureMoves(int plies, int pits) {
+        if (moves.length >= plies && (plies == 0 || moves[0].length >= pits)) {
+            return;
+        }
+        moves = new int[plies][pits];
+    }
+
+    /**
+     * @return positions searched by the last search
+     */
+    public long getNodes() {
+        return nodes;
+    }
+}
@@ -0,0 +1,186 @@
+package xyz.a5s7.mancala.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link AlphaBetaSearch} with the moves of the root split over a {@link ForkJoinPool}.
+ * <p>
+ * Every iteration searches the best move of the previous one first, to get a bound, then the other moves
+ * in parallel with that bound raised by every move which beats it. Each move is searched on its own copy of the board
+ * by the search of its worker thread, all of them share one {@link TranspositionTable}.
+ * <p>
+ * The pool has a fixed number of threads, however many searches are run at once, so searches take at most
+ * that many cores. A root has no more moves than pits, so more threads than pits do not help.
+ * <p>
+ * The search is thread-safe: searches of several positions can be run at once, they share the pool.
+ */
+public final class ParallelSearch {
+    private final ForkJoinPool pool;
+    private final ThreadLocal<AlphaBetaSearch> searches;
+
+    public ParallelSearch(TranspositionTable table, int parallelism) {
+        this(table, null, parallelism);
+    }
+
+    /**
+     * @param tablebase scores of endgames, null if there is none
+     * @param parallelism number of threads searching
+     */
+    public ParallelSearch(TranspositionTable table, Tablebase tablebase, int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be > 0");
+        }
+        this.searches = ThreadLocal.withInitial(() -> new AlphaBetaSearch(table, tablebase));
+        this.pool = new ForkJoinPool(parallelism, p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName("search-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Searches the best move of the current player as {@link AlphaBetaSearch#search} does.
+     * The board is not changed.
+     * @throws IllegalArgumentException if the game is not of two players
+     */
+    public SearchResult search(SearchBoard board, int maxDepth, long budgetNanos) {
+        if (board.getNumberOfPlayers() != 2) {
+            throw new IllegalArgumentException("Only games of two players can be searched");
+        }
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException("Depth must be >= 1");
+        }
+        long start = System.nanoTime();
+        long deadline = start + budgetNanos;
+        int[] moves = new int[board.getPitsPerPlayer()];
+        int bestPit = -1;
+        int bestScore = AlphaBetaSearch.evaluate(board);
+        int completed = 0;
+        long nodes = 0;
+        for (int depth = 1; depth <= maxDepth && !board.isFinished(); depth++) {
+            int count = AlphaBetaSearch.order(board, moves, bestPit);
+            Iteration iteration = new Iteration(board, moves, count, depth, maxDepth, deadline, completed > 0);
+            pool.invoke(iteration);
+            nodes += iteration.nodes;
+            if (iteration.aborted) {
+                break;
+            }
+            bestScore = iteration.bestScore;
+            bestPit = iteration.bestPit;
+            completed = depth;
+            if (!iteration.cut) {
+                // every line reached the end of the game, deeper iterations would find the same
+                break;
+            }
+        }
+        return new SearchResult(bestPit, bestScore, completed, nodes, System.nanoTime() - start);
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * One iteration of the search: the first move, then the others in parallel.
+     */
+    private final class Iteration extends RecursiveAction {
+        private final SearchBoard board;
+        private final int[] moves;
+        private final int count;
+        private final int depth;
+        private final int maxDepth;
+        private final long deadline;
+        private final boolean timed;
+        private int bestPit;
+        private int bestScore;
+        private long nodes;
+        private boolean aborted;
+        private boolean cut;
+
+        Iteration(SearchBoard board, int[] moves, int count, int depth, int maxDepth, long deadline, boolean timed) {
+            this.board = board;
+            this.moves = moves;
+            this.count = count;
+            this.depth = depth;
+            this.maxDepth = maxDepth;
+            this.deadline = deadline;
+            this.timed = timed;
+        }
+
+        @Override
+        protected void compute() {
+            AtomicInteger alpha = new AtomicInteger(-AlphaBetaSearch.INFINITY);
+            Move first = new Move(board.copy(), moves[0], alpha);
+            first.compute();
+            List<Move> others = new ArrayList<>(count - 1);
+            for (int i = 1; i < count; i++) {
+                others.add(new Move(board.copy(), moves[i], alpha));
+            }
+            invokeAll(others);
+            bestPit = first.pit;
+            bestScore = first.score;
+            record(first);
+            for (Move move : others) {
+                record(move);
+                if (move.exact && move.score > bestScore) {
+                    bestScore = move.score;
+                    bestPit = move.pit;
+                }
+            }
+        }
+
+        private void record(Move move) {
+            nodes += move.nodes;
+            aborted |= move.aborted;
+            cut |= move.cut;
+        }
+
+        /**
+         * Search of one move of the root, it raises the shared bound if the move beats it.
+         */
+        private final class Move extends RecursiveAction {
+            private final SearchBoard board;
+            private final int pit;
+            private final AtomicInteger alpha;
+            private int score;
+            /**
+             * Whether the score is exact, a move which does not beat the bound has only an upper bound of its score.
+             */
+            private boolean exact;
+            private long nodes;
+            private boolean aborted;
+            private boolean cut;
+
+            Move(SearchBoard board, int pit, AtomicInteger alpha) {
+                this.board = board;
+                this.pit = pit;
+                this.alpha = alpha;
+            }
+
+            @Override
+            protected void compute() {
+                AlphaBetaSearch search = searches.get();
+                search.start(maxDepth, board.getPitsPerPlayer(), deadline, timed);
+                int bound = alpha.get();
+                score = search.searchMove(board, pit, depth, bound, AlphaBetaSearch.INFINITY);
+                exact = score > bound;
+                nodes = search.getNodes();
+                aborted = search.isAborted();
+                cut = search.isCut();
+                if (!aborted) {
+                    alpha.accumulateAndGet(score, Math::max);
+                }
+            }
+        }
+    }
+}
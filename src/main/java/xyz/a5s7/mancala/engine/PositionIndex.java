@@ -0,0 +1,96 @@
+package xyz.a5s7.mancala.engine;
+
+/**
+ * Dense index of the pits of two player positions with at most a number of stones in the pits.
+ * <p>
+ * The pits of the player to move are followed by the pits of the other player, the big pits are not indexed.
+ * Positions are ranked in lexicographic order of their pits, so every count of stones up to the maximum
+ * has an index and there are {@code C(maxStones + cells, cells)} of them. Ranking reads a binomial table,
+ * a constant number of steps per pit.
+ */
+final class PositionIndex {
+    private final int pitsPerPlayer;
+    private final int maxStones;
+    private final int cells;
+    /**
+     * {@code below[n][k]}: positions of {@code k + 1} cells holding at most {@code n} stones.
+     */
+    private final long[][] below;
+    private final long size;
+
+    PositionIndex(int pitsPerPlayer, int maxStones) {
+        if (pitsPerPlayer < 1) {
+            throw new IllegalArgumentException("Number of pits must be >= 1");
+        }
+        if (maxStones < 0 || maxStones > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Number of stones must be in range [0, " + Byte.MAX_VALUE + "]");
+        }
+        this.pitsPerPlayer = pitsPerPlayer;
+        this.maxStones = maxStones;
+        this.cells = 2 * pitsPerPlayer;
+        this.below = new long[maxStones + 1][cells + 1];
+        for (int n = 0; n <= maxStones; n++) {
+            for (int k = 0; k <= cells; k++) {
+                below[n][k] = binomial(n + k + 1, k + 1);
+            }
+        }
+        this.size = binomial(maxStones + cells, cells);
+    }
+
+    /**
+     * @return index of the position of a board from the side of the player to move, the board must be
+     * {@link #contains(SearchBoard) indexed}
+     */
+    long rank(SearchBoard board) {
+        int mover = board.getCurPlayer();
+        long rank = 0;
+        int left = maxStones;
+        int k = cells - 1;
+        for (int side = 0; side < 2; side++) {
+            int player = side == 0 ? mover : 1 - mover;
+            for (int pit = 0; pit < pitsPerPlayer; pit++, k--) {
+                int stones = board.getStonesInPit(player, pit);
+                // positions with fewer stones in this pit and the same ones before it
+                rank += below[left][k] - below[left - stones][k];
+                left -= stones;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * @return whether the pits of a two player board are indexed
+     */
+    boolean contains(SearchBoard board) {
+        return board.getNumberOfPlayers() == 2 && board.getPitsPerPlayer() == pitsPerPlayer
+                && board.getStonesInPits(0) + board.getStonesInPits(1) <= maxStones;
+    }
+
+    long size() {
+        return size;
+    }
+
+    int getPitsPerPlayer() {
+        return pitsPerPlayer;
+    }
+
+    int getMaxStones() {
+        return maxStones;
+    }
+
+    /**
+     * @return binomial coefficient, {@link Long#MAX_VALUE} if it does not fit
+     */
+    private static long binomial(int n, int k) {
+        long result = 1;
+        for (int i = 1; i <= k; i++) {
+            // exact at every step: result * (n - k + i) is divisible by i
+            try {
+                result = Math.multiplyExact(result, n - k + i) / i;
+            } catch (ArithmeticException e) {
+                return Long.MAX_VALUE;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,357 @@
+package xyz.a5s7.mancala.engine;
+
+import xyz.a5s7.mancala.domain.model.Board;
+import xyz.a5s7.mancala.domain.model.GameBoard;
+import xyz.a5s7.mancala.domain.model.Zobrist;
+import xyz.a5s7.mancala.domain.model.statistics.BoardState;
+import xyz.a5s7.mancala.domain.model.statistics.GameStat;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Board for searching moves: a move is played and taken back in place, following the rules of {@link GameBoard}.
+ * <p>
+ * The cells are laid out as in {@link GameBoard}: the pits of a player followed by the big pit. {@link #play(int)}
+ * pushes what it needs to take the move back on an undo stack, {@link #undo()} pops it and sows the stones back.
+ * Neither allocates once the stack has grown to the depth of the search. The position is hashed with
+ * {@link Zobrist} keys, updated with every cell.
+ * <p>
+ * The board is not thread-safe, every search thread plays on its own board.
+ */
+public final class SearchBoard {
+    private static final int FINISHED = 1;
+    private static final int CAPTURED = 2;
+    private static final int FRAME = 6;
+
+    private final int numberOfPlayers;
+    private final int pitsPerPlayer;
+    private final int stride;
+    private final int lapLength;
+    private final int[] cells;
+    private final int[] stonesInPits;
+    private int curPlayer;
+    private boolean finished;
+    private long hash;
+    private int[] undo = new int[64];
+    private int undoTop;
+
+    /**
+     * @param cells pits of each player followed by the big pit, copied
+     */
+    public SearchBoard(int numberOfPlayers, int pitsPerPlayer, int[] cells, int curPlayer, boolean finished) {
+        if (numberOfPlayers < GameBoard.MIN_PLAYERS || numberOfPlayers > GameBoard.MAX_PLAYERS) {
+            throw new IllegalArgumentException("Number of players must be in range 2..6");
+        }
+        if (pitsPerPlayer < GameBoard.MIN_PITS_PER_PLAYER) {
+            throw new IllegalArgumentException("Number of pits must be >= 1");
+        }
+        if (curPlayer < 0 || curPlayer >= numberOfPlayers) {
+            throw new IllegalArgumentException("Current player must be in range 0.." + numberOfPlayers);
+        }
+        this.numberOfPlayers = numberOfPlayers;
+        this.pitsPerPlayer = pitsPerPlayer;
+        this.stride = pitsPerPlayer + 1;
+        this.lapLength = numberOfPlayers * pitsPerPlayer + 1;
+        if (cells.length != numberOfPlayers * stride) {
+            throw new IllegalArgumentException("Board must have " + numberOfPlayers * stride + " cells");
+        }
+        this.cells = cells.clone();
+        this.stonesInPits = new int[numberOfPlayers];
+        for (int player = 0; player < numberOfPlayers; player++) {
+            for (int pit = 0; pit < pitsPerPlayer; pit++) {
+                stonesInPits[player] += this.cells[player * stride + pit];
+            }
+        }
+        this.curPlayer = curPlayer;
+        this.finished = finished;
+        this.hash = Zobrist.hash(this.cells, curPlayer);
+    }
+
+    /**
+     * Copies the position of a board.
+     */
+    public static SearchBoard of(Board board) {
+        int players = board.getNumberOfPlayers();
+        int pits = board.getPitsPerPlayer();
+        int[] cells = new int[players * (pits + 1)];
+        for (int player = 0; player < players; player++) {
+            for (int pit = 0; pit < pits; pit++) {
+                cells[player * (pits + 1) + pit] = board.getStonesInPit(player, pit);
+            }
+            cells[player * (pits + 1) + pits] = board.getLargePit(player);
+        }
+        return new SearchBoard(players, pits, cells, board.getCurPlayer(), board.isGameFinished());
+    }
+
+    /**
+     * Copies the position of published game statistics.
+     */
+    public static SearchBoard of(GameStat stat) {
+        List<BoardState> state = stat.getState();
+        int players = state.size();
+        int pits = state.get(0).getPits().size();
+        int[] cells = new int[players * (pits + 1)];
+        for (BoardState playerState : state) {
+            int first = playerState.getIdx() * (pits + 1);
+            for (int pit = 0; pit < pits; pit++) {
+                cells[first + pit] = playerState.getPits().get(pit);
+            }
+            cells[first + pits] = playerState.getLargePit();
+        }
+        return new SearchBoard(players, pits, cells, stat.getNextPlayer(), stat.isGameOver());
+    }
+
+    /**
+     * Copies the position, without the moves played to reach it.
+     */
+    public SearchBoard copy() {
+        return new SearchBoard(numberOfPlayers, pitsPerPlayer, cells, curPlayer, finished);
+    }
+
+    /**
+     * Writes the pits of the current player which have stones.
+     * @param moves buffer of at least {@link #getPitsPerPlayer()} pits
+     * @return number of moves written
+     */
+    public int moves(int[] moves) {
+        if (finished) {
+            return 0;
+        }
+        int count = 0;
+        int first = curPlayer * stride;
+        for (int pit = 0; pit < pitsPerPlayer; pit++) {
+            if (cells[first + pit] > 0) {
+                moves[count++] = pit;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return whether the last stone of a move lands in the player's big pit, so the player moves again
+     */
+    public boolean isExtraTurn(int pit) {
+        int stones = cells[curPlayer * stride + pit];
+        return stones > 0 && (stones - (pitsPerPlayer - pit)) % lapLength == 0;
+    }
+
+    /**
+     * Plays a move of the current player, which must be legal.
+     */
+    public void play(int pit) {
+        int mover = curPlayer;
+        int start = mover * stride + pit;
+        int stones = cells[start];
+        if (finished || pit < 0 || pit >= pitsPerPlayer || stones == 0) {
+            throw new IllegalArgumentException("Move is not legal");
+        }
+        set(start, 0);
+        int left = stones;
+        if (left > lapLength) {
+            int laps = (left - 1) / lapLength;
+            sowLaps(mover, laps);
+            left -= laps * lapLength;
+        }
+        int owner = mover;
+        int pos = pit;
+        while (left > 0) {
+            pos++;
+            if (pos > pitsPerPlayer || (pos == pitsPerPlayer && owner != mover)) {
+                pos = 0;
+                owner = next(owner);
+            }
+            set(owner * stride + pos, cells[owner * stride + pos] + 1);
+            left--;
+        }
+        int flags = 0;
+        int captured = 0;
+        int next = mover;
+        if (owner != mover || pos != pitsPerPlayer) {
+            int own = mover * stride + pos;
+            int opposite = next(mover) * stride + pos;
+            if (owner == mover && cells[own] == 1 && cells[opposite] > 0) {
+                captured = cells[opposite];
+                set(opposite, 0);
+                set(own, 0);
+                set(mover * stride + pitsPerPlayer, cells[mover * stride + pitsPerPlayer] + captured + 1);
+                flags |= CAPTURED;
+            }
+            next = next(mover);
+        }
+        setCurPlayer(next);
+        if (hasEmptySide()) {
+            finish();
+            flags |= FINISHED;
+        }
+        ensureUndo(FRAME);
+        undo[undoTop++] = pit;
+        undo[undoTop++] = stones;
+        undo[undoTop++] = mover;
+        undo[undoTop++] = pos;
+        undo[undoTop++] = captured;
+        undo[undoTop++] = flags;
+    }
+
+    /**
+     * Takes back the last move played.
+     */
+    public void undo() {
+        if (undoTop == 0) {
+            throw new IllegalStateException("No move to take back");
+        }
+        int flags = undo[--undoTop];
+        int captured = undo[--undoTop];
+        int pos = undo[--undoTop];
+        int mover = undo[--undoTop];
+        int stones = undo[--undoTop];
+        int pit = undo[--undoTop];
+        if ((flags & FINISHED) != 0) {
+            unfinish();
+        }
+        setCurPlayer(mover);
+        if ((flags & CAPTURED) != 0) {
+            int own = mover * stride + pos;
+            set(mover * stride + pitsPerPlayer, cells[mover * stride + pitsPerPlayer] - captured - 1);
+            set(own, 1);
+            set(next(mover) * stride + pos, captured);
+        }
+        int left = stones;
+        int laps = 0;
+        if (left > lapLength) {
+            laps = (left - 1) / lapLength;
+            left -= laps * lapLength;
+        }
+        int owner = mover;
+        int cur = pit;
+        while (left > 0) {
+            cur++;
+            if (cur > pitsPerPlayer || (cur == pitsPerPlayer && owner != mover)) {
+                cur = 0;
+                owner = next(owner);
+            }
+            set(owner * stride + cur, cells[owner * stride + cur] - 1);
+            left--;
+        }
+        if (laps > 0) {
+            sowLaps(mover, -laps);
+        }
+        set(mover * stride + pit, stones);
+    }
+
+    private void sowLaps(int mover, int laps) {
+        for (int player = 0; player < numberOfPlayers; player++) {
+            for (int pit = 0; pit < pitsPerPlayer; pit++) {
+                int cell = player * stride + pit;
+                set(cell, cells[cell] + laps);
+            }
+        }
+        int store = mover * stride + pitsPerPlayer;
+        set(store, cells[store] + laps);
+    }
+
+    /**
+     * Moves the stones of every player into the big pit, the pits are saved to be restored by {@link #unfinish()}.
+     */
+    private void finish() {
+        ensureUndo(numberOfPlayers * pitsPerPlayer);
+        for (int player = 0; player < numberOfPlayers; player++) {
+            int sum = 0;
+            for (int pit = 0; pit < pitsPerPlayer; pit++) {
+                int cell = player * stride + pit;
+                undo[undoTop++] = cells[cell];
+                sum += cells[cell];
+                set(cell, 0);
+            }
+            int store = player * stride + pitsPerPlayer;
+            set(store, cells[store] + sum);
+        }
+        finished = true;
+    }
+
+    private void unfinish() {
+        for (int player = numberOfPlayers - 1; player >= 0; player--) {
+            int sum = 0;
+            for (int pit = pitsPerPlayer - 1; pit >= 0; pit--) {
+                int stones = undo[--undoTop];
+                set(player * stride + pit, stones);
+                sum += stones;
+            }
+            int store = player * stride + pitsPerPlayer;
+            set(store, cells[store] - sum);
+        }
+        finished = false;
+    }
+
+    private void set(int cell, int stones) {
+        int old = cells[cell];
+        cells[cell] = stones;
+        hash ^= Zobrist.cell(cell, old) ^ Zobrist.cell(cell, stones);
+        int pit = cell % stride;
+        if (pit != pitsPerPlayer) {
+            stonesInPits[cell / stride] += stones - old;
+        }
+    }
+
+    private void setCurPlayer(int player) {
+        hash ^= Zobrist.player(curPlayer) ^ Zobrist.player(player);
+        curPlayer = player;
+    }
+
+    private boolean hasEmptySide() {
+        for (int stones : stonesInPits) {
+            if (stones == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void ensureUndo(int ints) {
+        if (undoTop + ints > undo.length) {
+            undo = Arrays.copyOf(undo, Math.max(undo.length * 2, undoTop + ints));
+        }
+    }
+
+    private int next(int player) {
+        return player + 1 == numberOfPlayers ? 0 : player + 1;
+    }
+
+    public int getCurPlayer() {
+        return curPlayer;
+    }
+
+    public int getNumberOfPlayers() {
+        return numberOfPlayers;
+    }
+
+    public int getPitsPerPlayer() {
+        return pitsPerPlayer;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * @return Zobrist hash of the cells and the player to move
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    public int getStonesInPit(int player, int pit) {
+        return cells[player * stride + pit];
+    }
+
+    public int getLargePit(int player) {
+        return cells[player * stride + pitsPerPlayer];
+    }
+
+    /**
+     * @return stones in the pits of a player, the big pit is not included
+     */
+    public int getStonesInPits(int player) {
+        return stonesInPits[player];
+    }
+}
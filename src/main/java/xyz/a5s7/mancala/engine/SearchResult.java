@@ -0,0 +1,28 @@
+package xyz.a5s7.mancala.engine;
+
+import lombok.Value;
+
+/**
+ * Best move found by a search.
+ */
+@Value
+public class SearchResult {
+    /**
+     * Pit to play, -1 if the game is finished.
+     */
+    int pit;
+    /**
+     * Difference of the big pits the move leads to, for the player to move.
+     */
+    int score;
+    /**
+     * Depth of the last completed iteration.
+     */
+    int depth;
+    long nodes;
+    long elapsedNanos;
+
+    public double getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1e9 / elapsedNanos;
+    }
+}
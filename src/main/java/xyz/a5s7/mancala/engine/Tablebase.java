@@ -0,0 +1,111 @@
+package xyz.a5s7.mancala.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Exact scores of two player positions with few stones left in the pits, read from a file written by
+ * {@link TablebaseGenerator}.
+ * <p>
+ * The file is a header followed by a byte per position of {@link PositionIndex}: the difference of the stones
+ * the player to move and the other player put in their big pits from that position on, when both play best.
+ * The file is mapped, a probe reads one byte of it and the scores are not loaded onto the heap.
+ * <p>
+ * A tablebase can be probed by any number of threads.
+ */
+public final class Tablebase implements Closeable {
+    static final int MAGIC = 0x4D544231;
+    static final int FORMAT = 1;
+    static final int HEADER = 32;
+    /**
+     * Stored for a position not solved yet, scores are stored with {@link #OFFSET} added.
+     */
+    static final byte UNKNOWN = 0;
+    static final int OFFSET = 128;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer scores;
+    private final PositionIndex index;
+
+    private Tablebase(FileChannel channel, MappedByteBuffer scores, PositionIndex index) {
+        this.channel = channel;
+        this.scores = scores;
+        this.index = index;
+    }
+
+    /**
+     * Maps a tablebase file.
+     * @throws IOException if the file can not be read or is not a complete tablebase
+     */
+    public static Tablebase open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // read until the header is full or the file ends
+            }
+            header.flip();
+            if (header.remaining() < HEADER || header.getInt() != MAGIC || header.getInt() != FORMAT) {
+                throw new IOException("Not a tablebase: " + file);
+            }
+            PositionIndex index = new PositionIndex(header.getInt(), header.getInt());
+            long size = header.getLong();
+            if (size != index.size() || channel.size() != HEADER + size) {
+                throw new IOException("Tablebase is not complete: " + file);
+            }
+            return new Tablebase(channel, channel.map(FileChannel.MapMode.READ_ONLY, HEADER, size), index);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return whether a position is in the tablebase: two players of its number of pits and at most
+     * {@link #getMaxStones()} stones in the pits
+     */
+    public boolean contains(SearchBoard board) {
+        return index.contains(board);
+    }
+
+    /**
+     * @return difference of the big pits for the player to move at the end of the game, when both play best
+     * @throws IllegalArgumentException if the position is not in the tablebase
+     */
+    public int probe(SearchBoard board) {
+        if (!index.contains(board)) {
+            throw new IllegalArgumentException("Position is not in the tablebase");
+        }
+        int mover = board.getCurPlayer();
+        return board.getLargePit(mover) - board.getLargePit(1 - mover)
+                + (scores.get((int) index.rank(board)) & 0xFF) - OFFSET;
+    }
+
+    public int getPitsPerPlayer() {
+        return index.getPitsPerPlayer();
+    }
+
+    public int getMaxStones() {
+        return index.getMaxStones();
+    }
+
+    /**
+     * @return number of positions
+     */
+    public long size() {
+        return index.size();
+    }
+
+    /**
+     * Closes the file, the mapping is released once the tablebase is garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,142 @@
+package xyz.a5s7.mancala.engine;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Solves every two player position with up to a number of stones in the pits and writes a {@link Tablebase}.
+ * <p>
+ * Moves are played by {@link SearchBoard}, so the scores follow the rules of the game: a stone in the own big pit
+ * keeps the turn, captures go to the big pit and the stones left are swept into the big pits at the end.
+ * The score of a position depends only on its pits, as a move never takes stones out of the big pits.
+ * <p>
+ * A position leads only to positions with fewer stones in the pits, or as many stones moved forward in the pits
+ * of the player who moved, since a stone leaving its side is sown into the big pit on its way. So positions never
+ * repeat and each one is solved from the positions it leads to, once, by a depth first search.
+ * The scores are written straight into the mapped file, not kept on the heap.
+ * <p>
+ * Run with {@code java -cp target/classes xyz.a5s7.mancala.engine.TablebaseGenerator <file> <pits> <stones>}.
+ */
+public final class TablebaseGenerator {
+    /**
+     * Most positions of a file, a mapped buffer is indexed by int.
+     */
+    static final long MAX_SIZE = Integer.MAX_VALUE - Tablebase.HEADER;
+
+    private final PositionIndex index;
+    private final int pits;
+    private int[][] moves = new int[16][];
+    private MappedByteBuffer scores;
+
+    private TablebaseGenerator(PositionIndex index) {
+        this.index = index;
+        this.pits = index.getPitsPerPlayer();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Usage: TablebaseGenerator <file> <pits per player> <max stones>");
+            System.exit(2);
+        }
+        long start = System.nanoTime();
+        long size = generate(Path.of(args[0]), Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+        System.out.printf("Solved %d positions in %.1f s%n", size, (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Solves the positions and writes them to a file, replacing it once complete.
+     * @return number of positions
+     */
+    public static long generate(Path file, int pitsPerPlayer, int maxStones) throws IOException {
+        PositionIndex index = new PositionIndex(pitsPerPlayer, maxStones);
+        if (index.size() > MAX_SIZE) {
+            throw new IllegalArgumentException("Tablebase of " + index.size() + " positions does not fit a file");
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Tablebase.HEADER + index.size());
+            buffer.putInt(Tablebase.MAGIC)
+                    .putInt(Tablebase.FORMAT)
+                    .putInt(pitsPerPlayer)
+                    .putInt(maxStones)
+                    .putLong(index.size());
+            TablebaseGenerator generator = new TablebaseGenerator(index);
+            generator.scores = buffer.slice(Tablebase.HEADER, (int) index.size());
+            generator.solveAll(new int[2 * (pitsPerPlayer + 1)], 0, 0, maxStones);
+            buffer.force();
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return index.size();
+    }
+
+    /**
+     * Fills the pits from one on with every count of the stones left, and solves each position.
+     * @param cells pits of the player to move, its big pit, the pits of the other player and its big pit
+     */
+    private void solveAll(int[] cells, int cell, int pit, int left) {
+        if (cell == cells.length) {
+            SearchBoard board = new SearchBoard(2, pits, cells, 0, false);
+            solve(board, 0);
+            return;
+        }
+        if (pit == pits) {
+            // big pits are empty
+            solveAll(cells, cell + 1, 0, left);
+            return;
+        }
+        for (int stones = 0; stones <= left; stones++) {
+            cells[cell] = stones;
+            solveAll(cells, cell + 1, pit + 1, left - stones);
+        }
+        cells[cell] = 0;
+    }
+
+    /**
+     * @return score of the position for the player to move, not counting the stones already in the big pits
+     */
+    private int solve(SearchBoard board, int ply) {
+        int mover = board.getCurPlayer();
+        int mine = board.getStonesInPits(mover);
+        int theirs = board.getStonesInPits(1 - mover);
+        int rank = (int) index.rank(board);
+        byte known = scores.get(rank);
+        if (known != Tablebase.UNKNOWN) {
+            return (known & 0xFF) - Tablebase.OFFSET;
+        }
+        int best;
+        if (mine == 0 || theirs == 0) {
+            // the game ends, the stones left are swept into the big pits
+            best = mine - theirs;
+        } else {
+            if (ply == moves.length) {
+                moves = Arrays.copyOf(moves, ply * 2);
+            }
+            if (moves[ply] == null) {
+                moves[ply] = new int[pits];
+            }
+            int[] buffer = moves[ply];
+            int count = board.moves(buffer);
+            best = Integer.MIN_VALUE;
+            for (int i = 0; i < count; i++) {
+                int before = board.getLargePit(mover) - board.getLargePit(1 - mover);
+                board.play(buffer[i]);
+                int score = board.getLargePit(mover) - board.getLargePit(1 - mover) - before;
+                if (!board.isFinished()) {
+                    int next = solve(board, ply + 1);
+                    score += board.getCurPlayer() == mover ? next : -next;
+                }
+                board.undo();
+                best = Math.max(best, score);
+            }
+        }
+        scores.put(rank, (byte) (best + Tablebase.OFFSET));
+        return best;
+    }
+}
@@ -0,0 +1,98 @@
+package xyz.a5s7.mancala.engine;
+
+import java.util.Arrays;
+
+/**
+ * Table of searched positions by their Zobrist hash, shared by search threads without locks.
+ * <p>
+ * An entry is two longs: the hash XOR the data, and the data. Threads read and write entries without
+ * synchronization, a torn entry does not match its hash and is read as missing. The data packs the score,
+ * the depth searched, the kind of bound and the best move.
+ */
+public final class TranspositionTable {
+    /**
+     * Returned by {@link #probe(long)} for a position not in the table.
+     */
+    public static final long NONE = 0;
+    public static final int EXACT = 1;
+    public static final int LOWER = 2;
+    public static final int UPPER = 3;
+    private static final int NO_MOVE = 0xFFFF;
+
+    private final long[] entries;
+    private final int mask;
+
+    /**
+     * @param size number of entries, rounded up to a power of two
+     */
+    public TranspositionTable(int size) {
+        if (size < 1 || size > 1 << 28) {
+            throw new IllegalArgumentException("Size must be in range [1, " + (1 << 28) + "]");
+        }
+        int capacity = Integer.highestOneBit(size);
+        if (capacity < size) {
+            capacity <<= 1;
+        }
+        this.entries = new long[capacity * 2];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * @return data of a position, {@link #NONE} if it is not in the table
+     */
+    public long probe(long hash) {
+        int i = index(hash);
+        long data = entries[i + 1];
+        return (entries[i] ^ data) == hash ? data : NONE;
+    }
+
+    /**
+     * Records a searched position. An entry of the same position searched deeper is kept.
+     * @param move best move, negative if none
+     */
+    public void store(long hash, int score, int depth, int bound, int move) {
+        int i = index(hash);
+        long old = entries[i + 1];
+        if ((entries[i] ^ old) == hash && depth(old) > depth) {
+            return;
+        }
+        long data = (score & 0xFFFFFFFFL)
+                | (long) Math.min(depth, 0xFF) << 32
+                | (long) bound << 40
+                | (long) (move < 0 || move >= NO_MOVE ? NO_MOVE : move) << 42;
+        entries[i] = hash ^ data;
+        entries[i + 1] = data;
+    }
+
+    public void clear() {
+        Arrays.fill(entries, 0);
+    }
+
+    public int size() {
+        return mask + 1;
+    }
+
+    public static int score(long data) {
+        return (int) data;
+    }
+
+    public static int depth(long data) {
+        return (int) (data >>> 32) & 0xFF;
+    }
+
+    public static int bound(long data) {
+        return (int) (data >>> 40) & 0x3;
+    }
+
+    /**
+     * @return best move, negative if none
+     */
+    public static int move(long data) {
+        int move = (int) (data >>> 42) & 0xFFFF;
+        return move == NO_MOVE ? -1 : move;
+    }
+
+    private int index(long hash) {
+        return ((int) (hash ^ hash >>> 32) & mask) << 1;
+    }
+}
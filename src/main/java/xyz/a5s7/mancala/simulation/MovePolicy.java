@@ -0,0 +1,56 @@
+package xyz.a5s7.mancala.simulation;
+
+import xyz.a5s7.mancala.domain.model.GameBoard;
+
+import java.util.SplittableRandom;
+
+/**
+ * Chooses the moves of a player in simulated games.
+ * <p>
+ * A policy is shared by the threads of a simulation, so it must keep no state of its own. Randomness must come
+ * from the given random, so that a simulation is reproduced from its seed.
+ */
+@FunctionalInterface
+public interface MovePolicy {
+    /**
+     * Picks one of the pits with stones, chosen uniformly.
+     */
+    MovePolicy RANDOM = (board, random) -> {
+        int player = board.getCurPlayer();
+        int pits = board.getPitsPerPlayer();
+        int withStones = 0;
+        for (int pit = 0; pit < pits; pit++) {
+            if (board.getStonesInPit(player, pit) > 0) {
+                withStones++;
+            }
+        }
+        int chosen = random.nextInt(withStones);
+        for (int pit = 0; ; pit++) {
+            if (board.getStonesInPit(player, pit) > 0 && chosen-- == 0) {
+                return pit;
+            }
+        }
+    };
+
+    /**
+     * Picks the pit closest to the big pit whose last stone lands there, so the player moves again,
+     * and a random pit if there is none.
+     */
+    MovePolicy EXTRA_TURN = (board, random) -> {
+        int player = board.getCurPlayer();
+        int pits = board.getPitsPerPlayer();
+        int lapLength = board.getNumberOfPlayers() * pits + 1;
+        for (int pit = pits - 1; pit >= 0; pit--) {
+            int stones = board.getStonesInPit(player, pit);
+            if (stones > 0 && (stones - (pits - pit)) % lapLength == 0) {
+                return pit;
+            }
+        }
+        return RANDOM.choose(board, random);
+    };
+
+    /**
+     * @return pit of the current player to play, it must have stones
+     */
+    int choose(GameBoard board, SplittableRandom random);
+}
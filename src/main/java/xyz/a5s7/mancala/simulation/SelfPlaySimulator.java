@@ -0,0 +1,173 @@
+package xyz.a5s7.mancala.simulation;
+
+import xyz.a5s7.mancala.domain.model.GameBoard;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plays games of variants of the game against itself on all cores, and collects {@link SimulationStats}.
+ * <p>
+ * Every player moves by the same {@link MovePolicy} and the first player is drawn at random.
+ * Games are played by {@link GameBoard#play(int, int)} in chunks, each with a random split from the seed
+ * in a fixed order, so a seed gives the same stats however many threads play.
+ * <p>
+ * Run with {@code java -cp target/classes xyz.a5s7.mancala.simulation.SelfPlaySimulator
+ * <csv file> <games> <seed> <random|extra-turn> <players:pits:stones>...}.
+ */
+public final class SelfPlaySimulator {
+    static final int CHUNK = 4096;
+    static final String CSV_HEADER = "players,pits,stones,games,first_player_win_rate,draw_rate,average_length,"
+            + "capture_frequency,extra_turn_frequency";
+
+    private final MovePolicy policy;
+    private final int threads;
+
+    public SelfPlaySimulator(MovePolicy policy, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be > 0");
+        }
+        this.policy = policy;
+        this.threads = threads;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 5) {
+            System.err.println("Usage: SelfPlaySimulator <csv file> <games> <seed> <random|extra-turn>"
+                    + " <players:pits:stones>...");
+            System.exit(2);
+        }
+        long games = Long.parseLong(args[1]);
+        long seed = Long.parseLong(args[2]);
+        MovePolicy policy = switch (args[3]) {
+            case "random" -> MovePolicy.RANDOM;
+            case "extra-turn" -> MovePolicy.EXTRA_TURN;
+            default -> throw new IllegalArgumentException("Unknown policy " + args[3]);
+        };
+        List<SimulationConfig> configs = Arrays.stream(args, 4, args.length)
+                .map(variant -> SimulationConfig.parse(variant, games))
+                .toList();
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        long start = System.nanoTime();
+        List<SimulationStats> stats = new SelfPlaySimulator(policy, threads).run(configs, seed);
+        long elapsed = System.nanoTime() - start;
+
+        try (Writer out = Files.newBufferedWriter(Path.of(args[0]))) {
+            writeCsv(stats, out);
+        }
+        long moves = stats.stream().mapToLong(SimulationStats::getMoves).sum();
+        System.out.printf(Locale.ROOT, "%d games, %d moves on %d threads in %.1f s: %.0f moves/s%n",
+                games * configs.size(), moves, threads, elapsed / 1e9, moves * 1e9 / elapsed);
+    }
+
+    /**
+     * Plays the games of every variant.
+     * @return stats of the variants, in their order
+     */
+    public List<SimulationStats> run(List<SimulationConfig> configs, long seed) {
+        SplittableRandom seeds = new SplittableRandom(seed);
+        AtomicInteger count = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "simulation-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<List<Future<SimulationStats>>> chunks = new ArrayList<>(configs.size());
+            for (SimulationConfig config : configs) {
+                List<Future<SimulationStats>> futures = new ArrayList<>();
+                for (long played = 0; played < config.getGames(); played += CHUNK) {
+                    int games = (int) Math.min(CHUNK, config.getGames() - played);
+                    SplittableRandom random = seeds.split();
+                    futures.add(executor.submit(() -> play(config, games, random)));
+                }
+                chunks.add(futures);
+            }
+            List<SimulationStats> results = new ArrayList<>(configs.size());
+            for (int i = 0; i < configs.size(); i++) {
+                SimulationStats stats = new SimulationStats(configs.get(i));
+                for (Future<SimulationStats> chunk : chunks.get(i)) {
+                    stats.add(chunk.get());
+                }
+                results.add(stats);
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation is interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private SimulationStats play(SimulationConfig config, int games, SplittableRandom random) {
+        SimulationStats stats = new SimulationStats(config);
+        int players = config.getPlayers();
+        for (int game = 0; game < games; game++) {
+            int first = random.nextInt(players);
+            GameBoard board = new GameBoard(players, config.getPits(), config.getStones(), first);
+            long moves = 0;
+            long captures = 0;
+            long extraTurns = 0;
+            while (!board.isGameFinished()) {
+                int player = board.getCurPlayer();
+                board.play(player, policy.choose(board, random));
+                moves++;
+                if (board.getLastCaptured() > 0) {
+                    captures++;
+                }
+                // the turn is passed before the end of the game is checked, so it stays only after the big pit
+                if (board.getCurPlayer() == player) {
+                    extraTurns++;
+                }
+            }
+            int best = -1;
+            int winners = 0;
+            for (int player = 0; player < players; player++) {
+                int score = board.getLargePit(player);
+                if (score > best) {
+                    best = score;
+                    winners = 1;
+                } else if (score == best) {
+                    winners++;
+                }
+            }
+            stats.addGame(moves, captures, extraTurns, winners == 1 && board.getLargePit(first) == best, winners > 1);
+        }
+        return stats;
+    }
+
+    /**
+     * Writes a line of rates per variant after a header.
+     */
+    public static void writeCsv(List<SimulationStats> stats, Appendable out) {
+        try {
+            out.append(CSV_HEADER).append('\n');
+            for (SimulationStats s : stats) {
+                SimulationConfig config = s.getConfig();
+                out.append(String.format(Locale.ROOT, "%d,%d,%d,%d,%.6f,%.6f,%.3f,%.6f,%.6f\n",
+                        config.getPlayers(), config.getPits(), config.getStones(), s.getGames(),
+                        s.getFirstPlayerWinRate(), s.getDrawRate(), s.getAverageLength(),
+                        s.getCaptureFrequency(), s.getExtraTurnFrequency()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package xyz.a5s7.mancala.simulation;
+
+import lombok.Value;
+import xyz.a5s7.mancala.domain.model.GameBoard;
+
+/**
+ * Variant of the game to simulate and the number of games to play.
+ */
+@Value
+public class SimulationConfig {
+    int players;
+    int pits;
+    int stones;
+    long games;
+
+    public SimulationConfig(int players, int pits, int stones, long games) {
+        if (players < GameBoard.MIN_PLAYERS || players > GameBoard.MAX_PLAYERS) {
+            throw new IllegalArgumentException("Number of players must be in range 2..6");
+        }
+        if (pits < GameBoard.MIN_PITS_PER_PLAYER || stones <= 0 || games <= 0) {
+            throw new IllegalArgumentException("Pits, stones and games must be > 0");
+        }
+        this.players = players;
+        this.pits = pits;
+        this.stones = stones;
+        this.games = games;
+    }
+
+    /**
+     * Parses {@code players:pits:stones}.
+     */
+    public static SimulationConfig parse(String variant, long games) {
+        String[] parts = variant.split(":");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Variant must be players:pits:stones, was " + variant);
+        }
+        return new SimulationConfig(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]),
+                Integer.parseInt(parts[2]), games);
+    }
+}
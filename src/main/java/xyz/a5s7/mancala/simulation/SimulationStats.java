@@ -0,0 +1,91 @@
+package xyz.a5s7.mancala.simulation;
+
+import lombok.Getter;
+
+/**
+ * Counts of simulated games of a variant, and the rates derived from them.
+ * <p>
+ * Counts of games played apart are added up by {@link #add(SimulationStats)}, so the stats of a simulation
+ * do not depend on how its games were split over threads.
+ */
+@Getter
+public final class SimulationStats {
+    private final SimulationConfig config;
+    private long games;
+    private long moves;
+    /**
+     * Games won by the player who moved first alone.
+     */
+    private long firstPlayerWins;
+    /**
+     * Games where several players share the highest score.
+     */
+    private long draws;
+    /**
+     * Moves which captured stones.
+     */
+    private long captures;
+    /**
+     * Moves whose last stone landed in the player's big pit.
+     */
+    private long extraTurns;
+
+    SimulationStats(SimulationConfig config) {
+        this.config = config;
+    }
+
+    void addGame(long moves, long captures, long extraTurns, boolean firstPlayerWon, boolean draw) {
+        this.games++;
+        this.moves += moves;
+        this.captures += captures;
+        this.extraTurns += extraTurns;
+        if (firstPlayerWon) {
+            firstPlayerWins++;
+        }
+        if (draw) {
+            draws++;
+        }
+    }
+
+    void add(SimulationStats other) {
+        games += other.games;
+        moves += other.moves;
+        firstPlayerWins += other.firstPlayerWins;
+        draws += other.draws;
+        captures += other.captures;
+        extraTurns += other.extraTurns;
+    }
+
+    public double getFirstPlayerWinRate() {
+        return ratio(firstPlayerWins, games);
+    }
+
+    public double getDrawRate() {
+        return ratio(draws, games);
+    }
+
+    /**
+     * @return moves per game
+     */
+    public double getAverageLength() {
+        return ratio(moves, games);
+    }
+
+    /**
+     * @return share of the moves which captured stones
+     */
+    public double getCaptureFrequency() {
+        return ratio(captures, moves);
+    }
+
+    /**
+     * @return share of the moves which gave another turn
+     */
+    public double getExtraTurnFrequency() {
+        return ratio(extraTurns, moves);
+    }
+
+    private static double ratio(long count, long total) {
+        return total == 0 ? 0 : (double) count / total;
+    }
+}
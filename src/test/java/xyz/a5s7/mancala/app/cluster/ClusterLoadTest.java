@@ -0,0 +1,154 @@
+package xyz.a5s7.mancala.app.cluster;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import xyz.a5s7.mancala.MancalaApplication;
+import xyz.a5s7.mancala.domain.model.GameBoard;
+import xyz.a5s7.mancala.domain.service.ShardRing;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Local load test of moves per second played over HTTP against clusters of 1, 2 and 4 nodes in one JVM.
+ * Clients send each request to the node owning its game, as a client following redirects ends up doing.
+ * Run with {@code mvn test -Dtest=ClusterLoadTest -DloadTests=true [-DloadTests.nodes=1,2,4]
+ * [-DloadTests.clients=16] [-DloadTests.seconds=10]}.
+ */
+@EnabledIfSystemProperty(named = "loadTests", matches = "true")
+public class ClusterLoadTest {
+    private static final int[] NODES = Arrays.stream(System.getProperty("loadTests.nodes", "1,2,4").split(","))
+            .mapToInt(Integer::parseInt)
+            .toArray();
+    private static final int CLIENTS_PER_NODE = Integer.getInteger("loadTests.clients", 16);
+    private static final int SECONDS = Integer.getInteger("loadTests.seconds", 10);
+    private static final Pattern NEXT_PLAYER = Pattern.compile("\"nextPlayer\":(\\d+)");
+
+    private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @Test
+    public void measureMovesPerSecond() throws Exception {
+        double single = 0;
+        for (int nodes : NODES) {
+            double movesPerSecond = measure(nodes);
+            if (single == 0) {
+                single = movesPerSecond / nodes;
+            }
+            System.out.printf("%d nodes, %d clients: %.0f moves/s, %.2f of linear scaling%n",
+                    nodes, nodes * CLIENTS_PER_NODE, movesPerSecond, movesPerSecond / (single * nodes));
+            assertThat(movesPerSecond).isPositive();
+        }
+    }
+
+    private double measure(int count) throws Exception {
+        int[] ports = ClusterTest.freePorts(count);
+        List<String> urls = new ArrayList<>();
+        for (int port : ports) {
+            urls.add("http://localhost:" + port);
+        }
+        List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+        ExecutorService clients = Executors.newFixedThreadPool(count * CLIENTS_PER_NODE);
+        try {
+            for (String url : urls) {
+                nodes.add(new SpringApplicationBuilder(MancalaApplication.class)
+                        .properties("server.port=" + url.substring(url.lastIndexOf(':') + 1),
+                                "mancala.cluster.self=" + url,
+                                "mancala.cluster.nodes=" + String.join(",", urls),
+                                "mancala.cluster.secret=" + ClusterTest.SECRET,
+                                "logging.level.root=WARN")
+                        .run());
+            }
+            ShardRing ring = new ShardRing(urls);
+            AtomicBoolean running = new AtomicBoolean(true);
+            LongAdder moves = new LongAdder();
+            List<Future<?>> players = new ArrayList<>();
+            for (int i = 0; i < count * CLIENTS_PER_NODE; i++) {
+                String node = urls.get(i % count);
+                long seed = i;
+                players.add(clients.submit(() -> play(node, ring, new SplittableRandom(seed), running, moves)));
+            }
+            // warm-up
+            TimeUnit.SECONDS.sleep(2);
+            long before = moves.sum();
+            long start = System.nanoTime();
+            TimeUnit.SECONDS.sleep(SECONDS);
+            long played = moves.sum() - before;
+            long elapsed = System.nanoTime() - start;
+            running.set(false);
+            for (Future<?> player : players) {
+                player.get();
+            }
+            return played * 1e9 / elapsed;
+        } finally {
+            clients.shutdownNow();
+            nodes.forEach(ConfigurableApplicationContext::close);
+        }
+    }
+
+    /**
+     * Plays games created on one node until stopped.
+     */
+    private Void play(String node, ShardRing ring, SplittableRandom random, AtomicBoolean running, LongAdder moves)
+            throws Exception {
+        while (running.get()) {
+            String gameId = send(node, "/games/create", null);
+            send(ring.owner(gameId), "/games/" + gameId + "/players", "{\"playerId\":\"p0\"}");
+            send(ring.owner(gameId), "/games/" + gameId + "/players", "{\"playerId\":\"p1\"}");
+            String state = get(ring.owner(gameId), "/games/" + gameId);
+            Matcher first = NEXT_PLAYER.matcher(state);
+            assertThat(first.find()).isTrue();
+            GameBoard board = new GameBoard(2, 6, 6, Integer.parseInt(first.group(1)));
+            while (running.get() && !board.isGameFinished()) {
+                int player = board.getCurPlayer();
+                int pit = random.nextInt(6);
+                while (board.getStonesInPit(player, pit) == 0) {
+                    pit = (pit + 1) % 6;
+                }
+                send(ring.owner(gameId), "/games/" + gameId + "/players/p" + player + "/play?pit=" + pit, null);
+                board.play(player, pit);
+                moves.increment();
+            }
+        }
+        return null;
+    }
+
+    private String get(String node, String path) throws Exception {
+        return check(httpClient.send(HttpRequest.newBuilder(URI.create(node + path)).build(),
+                HttpResponse.BodyHandlers.ofString()));
+    }
+
+    private String send(String node, String path, String json) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(node + path));
+        if (json == null) {
+            request.POST(HttpRequest.BodyPublishers.noBody());
+        } else {
+            request.header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString(json));
+        }
+        return check(httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString()));
+    }
+
+    private static String check(HttpResponse<String> response) {
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException(response.statusCode() + " " + response.body());
+        }
+        return response.body();
+    }
+}
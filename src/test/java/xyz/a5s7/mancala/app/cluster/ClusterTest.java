@@ -0,0 +1,267 @@
+package xyz.a5s7.mancala.app.cluster;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import xyz.a5s7.mancala.MancalaApplication;
+import xyz.a5s7.mancala.domain.service.GameService;
+import xyz.a5s7.mancala.domain.service.GameShards;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Nodes of a cluster started in one JVM, each on its own localhost port.
+ */
+class ClusterTest {
+    static final String SECRET = "cluster-test-secret";
+    private static final Pattern GAME_ID = Pattern.compile("\"gameId\":\"([^\"]+)\"");
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    void shouldCreateGamesOfOwnShardAndForwardOthers() throws Exception {
+        int[] ports = freePorts(2);
+        ConfigurableApplicationContext a = start(ports[0], ports, "FORWARD", false);
+        ConfigurableApplicationContext b = start(ports[1], ports, "FORWARD", false);
+
+        Map<String, String> games = createGames(a, 10);
+        games.putAll(createGames(b, 10));
+
+        for (Map.Entry<String, String> game : games.entrySet()) {
+            assertThat(a.getBean(GameShards.class).ownerOf(game.getKey())).isEqualTo(game.getValue());
+            for (int port : ports) {
+                HttpResponse<String> response = get(port, "/games/" + game.getKey());
+                assertThat(response.statusCode()).isEqualTo(200);
+                assertThat(response.headers().firstValue("ETag")).hasValue("\"0\"");
+            }
+        }
+        String gameId = games.keySet().iterator().next();
+        int other = url(ports[0]).equals(games.get(gameId)) ? ports[1] : ports[0];
+        int turn = nodeOf(gameId).getBean(GameService.class).getGameStat(gameId).getNextPlayer();
+
+        HttpResponse<String> played = post(other, "/games/" + gameId + "/players/p" + turn + "/play?pit=0");
+
+        assertThat(played.statusCode()).isEqualTo(200);
+        assertThat(played.headers().firstValue("ETag")).hasValue("\"1\"");
+        assertThat(nodeOf(gameId).getBean(GameService.class).getGameSnapshot(gameId).getVersion()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRedirectToOwner() throws Exception {
+        int[] ports = freePorts(2);
+        ConfigurableApplicationContext a = start(ports[0], ports, "REDIRECT", false);
+        start(ports[1], ports, "REDIRECT", false);
+        String gameId = createGames(a, 1).keySet().iterator().next();
+
+        HttpResponse<String> response = get(ports[1], "/games/" + gameId + "?x=1");
+
+        assertThat(response.statusCode()).isEqualTo(307);
+        assertThat(response.headers().firstValue("Location")).hasValue(url(ports[0]) + "/games/" + gameId + "?x=1");
+    }
+
+    @Test
+    void shouldMoveGamesToJoiningNode() throws Exception {
+        int[] ports = freePorts(3);
+        int[] initial = {ports[0], ports[1]};
+        ConfigurableApplicationContext a = start(ports[0], initial, "FORWARD", false);
+        ConfigurableApplicationContext b = start(ports[1], initial, "FORWARD", false);
+        Map<String, String> games = createGames(a, 30);
+        games.putAll(createGames(b, 30));
+        for (String gameId : games.keySet()) {
+            GameService service = nodeOf(gameId).getBean(GameService.class);
+            service.play(gameId, "p" + service.getGameStat(gameId).getNextPlayer(), 0);
+        }
+
+        ConfigurableApplicationContext c = start(ports[2], ports, "FORWARD", true);
+
+        GameService joined = c.getBean(GameService.class);
+        GameShards joinedShards = c.getBean(GameShards.class);
+        // the games are handed off after the join is answered
+        await().atMost(Duration.ofSeconds(30)).until(() -> games.keySet().stream()
+                .filter(joinedShards::owns)
+                .allMatch(gameId -> joined.hasGame(gameId) && !a.getBean(GameService.class).hasGame(gameId)
+                        && !b.getBean(GameService.class).hasGame(gameId)));
+        int moved = 0;
+        for (String gameId : games.keySet()) {
+            boolean ownedByC = joinedShards.owns(gameId);
+            assertThat(joined.hasGame(gameId)).isEqualTo(ownedByC);
+            assertThat(a.getBean(GameService.class).hasGame(gameId) || b.getBean(GameService.class).hasGame(gameId))
+                    .isEqualTo(!ownedByC);
+            if (ownedByC) {
+                moved++;
+                assertThat(joined.getGameSnapshot(gameId).getVersion()).isEqualTo(1);
+                assertThat(joined.getGamePlayer(gameId, "p1").getTurn()).isEqualTo(1);
+            }
+            HttpResponse<String> response = get(ports[0], "/games/" + gameId);
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(response.headers().firstValue("ETag")).hasValue("\"1\"");
+        }
+        assertThat(moved).isPositive();
+        assertThat(a.getBean(GameShards.class).getRing().getNodes()).hasSize(3);
+        assertThat(b.getBean(GameShards.class).getRing().getNodes()).hasSize(3);
+    }
+
+    @Test
+    void shouldStartJoiningNodeWhenOtherNodeIsDown() throws Exception {
+        int[] ports = freePorts(2);
+
+        ConfigurableApplicationContext c = start(ports[1], ports, "FORWARD", true);
+
+        assertThat(c.isActive()).isTrue();
+        assertThat(c.getBean(GameShards.class).getRing().getNodes()).hasSize(2);
+    }
+
+    @Test
+    void shouldMatchPlayersOfAllNodesInOneLobby() throws Exception {
+        int[] ports = freePorts(2);
+        ConfigurableApplicationContext a = start(ports[0], ports, "FORWARD", false);
+        start(ports[1], ports, "FORWARD", false);
+        String lobby = a.getBean(GameShards.class).getLobby();
+        int other = lobby.equals(url(ports[0])) ? ports[1] : ports[0];
+        int lobbyPort = other == ports[0] ? ports[1] : ports[0];
+
+        HttpResponse<String> enqueued0 = enqueue(ports[0], "p0");
+        HttpResponse<String> enqueued1 = enqueue(ports[1], "p1");
+        HttpResponse<String> redirected = get(other, "/matches/p0");
+        HttpResponse<String> match0 = get(lobbyPort, "/matches/p0");
+        HttpResponse<String> match1 = get(lobbyPort, "/matches/p1");
+
+        assertThat(enqueued0.statusCode()).isEqualTo(202);
+        assertThat(enqueued1.statusCode()).isEqualTo(202);
+        assertThat(redirected.statusCode()).isEqualTo(307);
+        assertThat(redirected.headers().firstValue("Location")).hasValue(lobby + "/matches/p0");
+        assertThat(match0.statusCode()).isEqualTo(200);
+        assertThat(match1.statusCode()).isEqualTo(200);
+        assertThat(gameIdOf(match0.body())).isEqualTo(gameIdOf(match1.body()));
+    }
+
+    @Test
+    void shouldRejectClusterRequestsWithoutSecret() throws Exception {
+        int[] ports = freePorts(2);
+        ConfigurableApplicationContext a = start(ports[0], ports, "FORWARD", false);
+        String gameId = createGames(a, 1).keySet().iterator().next();
+
+        HttpResponse<String> join = httpClient.send(HttpRequest.newBuilder(URI.create(url(ports[0]) + "/cluster/nodes"))
+                .header("Content-Type", "text/plain")
+                .POST(HttpRequest.BodyPublishers.ofString("http://attacker.example"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> adopt = httpClient.send(HttpRequest.newBuilder(URI.create(url(ports[0]) + "/cluster/games"))
+                .header("Content-Type", "application/octet-stream")
+                .header(ShardClient.SECRET, "wrong")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(ShardClient.encode(List.of())))
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertThat(join.statusCode()).isEqualTo(403);
+        assertThat(adopt.statusCode()).isEqualTo(403);
+        assertThat(a.getBean(GameShards.class).getRing().getNodes()).hasSize(2);
+        assertThat(a.getBean(GameService.class).hasGame(gameId)).isTrue();
+    }
+
+    private ConfigurableApplicationContext start(int port, int[] ports, String routing, boolean join) {
+        List<String> urls = new ArrayList<>();
+        for (int p : ports) {
+            urls.add(url(p));
+        }
+        ConfigurableApplicationContext node = new SpringApplicationBuilder(MancalaApplication.class)
+                .properties("server.port=" + port,
+                        "mancala.cluster.self=" + url(port),
+                        "mancala.cluster.nodes=" + String.join(",", urls),
+                        "mancala.cluster.secret=" + SECRET,
+                        "mancala.cluster.routing=" + routing,
+                        "mancala.cluster.join=" + join,
+                        "springdoc.api-docs.enabled=false")
+                .run();
+        nodes.add(node);
+        return node;
+    }
+
+    /**
+     * @return ids of new games with two players, and the node which created them
+     */
+    private static Map<String, String> createGames(ConfigurableApplicationContext node, int count) {
+        GameService service = node.getBean(GameService.class);
+        Map<String, String> games = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            String gameId = service.createGame();
+            service.registerPlayer(gameId, "p0");
+            service.registerPlayer(gameId, "p1");
+            games.put(gameId, node.getBean(GameShards.class).getSelf());
+        }
+        return games;
+    }
+
+    private ConfigurableApplicationContext nodeOf(String gameId) {
+        for (ConfigurableApplicationContext node : nodes) {
+            if (node.getBean(GameService.class).hasGame(gameId)) {
+                return node;
+            }
+        }
+        throw new IllegalArgumentException("Game not found");
+    }
+
+    private HttpResponse<String> get(int port, String path) throws IOException, InterruptedException {
+        return httpClient.send(HttpRequest.newBuilder(URI.create(url(port) + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(int port, String path) throws IOException, InterruptedException {
+        return httpClient.send(HttpRequest.newBuilder(URI.create(url(port) + path))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> enqueue(int port, String playerId) throws IOException, InterruptedException {
+        return httpClient.send(HttpRequest.newBuilder(URI.create(url(port) + "/matches"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"playerId\":\"" + playerId + "\",\"players\":2}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String gameIdOf(String player) {
+        Matcher matcher = GAME_ID.matcher(player);
+        assertThat(matcher.find()).isTrue();
+        return matcher.group(1);
+    }
+
+    private static String url(int port) {
+        return "http://localhost:" + port;
+    }
+
+    static int[] freePorts(int count) throws IOException {
+        int[] ports = new int[count];
+        List<ServerSocket> sockets = new ArrayList<>();
+        try {
+            for (int i = 0; i < count; i++) {
+                ServerSocket socket = new ServerSocket(0);
+                sockets.add(socket);
+                ports[i] = socket.getLocalPort();
+            }
+        } finally {
+            for (ServerSocket socket : sockets) {
+                socket.close();
+            }
+        }
+        return ports;
+    }
+}
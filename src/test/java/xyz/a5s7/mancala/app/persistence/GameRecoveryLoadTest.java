@@ -0,0 +1,91 @@
+package xyz.a5s7.mancala.app.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import xyz.a5s7.mancala.domain.model.GameBoard;
+import xyz.a5s7.mancala.domain.service.GameRegistry;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Local load test measuring time-to-ready of a million stored games: a checkpoint and a journal tail of moves.
+ * Run with {@code mvn test -Dtest=GameRecoveryLoadTest -DloadTests=true [-DloadTests.games=1000000]}.
+ */
+@EnabledIfSystemProperty(named = "loadTests", matches = "true")
+public class GameRecoveryLoadTest {
+    private static final int GAMES = Integer.getInteger("loadTests.games", 1_000_000);
+    private static final int TAIL_GAMES = GAMES / 10;
+    private static final DataSize CAPACITY = DataSize.ofGigabytes(2);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void measureTimeToReady() throws Exception {
+        record();
+
+        GameRegistry restored = registry();
+        try {
+            long start = System.nanoTime();
+            GameRecovery.recover(directory, restored);
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            System.out.printf("Time to ready with %d games and %d games in the journal tail: %d ms%n",
+                    GAMES, TAIL_GAMES, millis);
+
+            assertThat(restored.getHotCount() + restored.getColdCount()).isEqualTo(GAMES);
+        } finally {
+            restored.shutdown();
+        }
+    }
+
+    /**
+     * Records the games in a checkpoint and the journal, the games are not reachable once it returns.
+     */
+    private void record() throws Exception {
+        GameRegistry registry = registry();
+        String[] gameIds = new String[GAMES];
+        try (MappedGameJournal journal = journal()) {
+            for (int i = 0; i < GAMES; i++) {
+                gameIds[i] = UUID.randomUUID().toString();
+                GameBoard gameBoard = new GameBoard(2, 6, 6, 0);
+                registry.replayCreate(gameIds[i], gameBoard);
+                journal.appendCreate(gameIds[i], gameBoard);
+                registry.replayRegister(gameIds[i], "p0");
+                journal.appendRegister(gameIds[i], "p0");
+                registry.replayRegister(gameIds[i], "p1").join();
+                journal.appendRegister(gameIds[i], "p1");
+            }
+            new GameCheckpointer(directory, journal, registry).checkpoint();
+            // the tail: a few moves of every tenth game
+            for (int i = 0; i < TAIL_GAMES; i++) {
+                String gameId = gameIds[i * 10];
+                // the first move ends in the big pit, so the player moves again
+                int[] turns = {0, 0, 1};
+                int[] pits = {0, 5, 1};
+                for (int m = 0; m < pits.length; m++) {
+                    registry.replayMove(gameId, turns[m], pits[m], m + 1).join();
+                    journal.appendMove(gameId, turns[m], pits[m], m + 1);
+                }
+            }
+            journal.sync(journal.getPosition());
+        } finally {
+            registry.shutdown();
+        }
+    }
+
+    private static GameRegistry registry() {
+        return new GameRegistry(CAPACITY, GameRegistry.DEFAULT_IDLE_TTL, GameRegistry.DEFAULT_FINISHED_TTL,
+                GameRegistry.DEFAULT_FINISHED_RETENTION);
+    }
+
+    private MappedGameJournal journal() throws Exception {
+        return new MappedGameJournal(directory, 64 << 20, MappedGameJournal.Durability.ASYNC, Duration.ofMillis(10));
+    }
+}
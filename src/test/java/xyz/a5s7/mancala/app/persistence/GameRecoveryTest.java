@@ -0,0 +1,220 @@
+package xyz.a5s7.mancala.app.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import xyz.a5s7.mancala.domain.model.statistics.GameSnapshot;
+import xyz.a5s7.mancala.domain.model.statistics.GameStat;
+import xyz.a5s7.mancala.domain.service.CompactGame;
+import xyz.a5s7.mancala.domain.service.GameRegistry;
+import xyz.a5s7.mancala.domain.service.GameService;
+import xyz.a5s7.mancala.domain.service.GameShards;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameRecoveryTest {
+    @TempDir
+    Path directory;
+
+    private final List<GameRegistry> registries = new ArrayList<>();
+    private GameRegistry registry;
+    private MappedGameJournal journal;
+    private GameService gameService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        journal.close();
+        registries.forEach(GameRegistry::shutdown);
+    }
+
+    @Test
+    void shouldReplayWholeJournalWithoutCheckpoint() throws IOException {
+        Map<String, GameSnapshot> games = playGames(3, 5);
+
+        restart();
+
+        assertRestored(games);
+    }
+
+    @Test
+    void shouldReplayJournalTailAfterCheckpoint() throws IOException {
+        Map<String, GameSnapshot> games = playGames(3, 5);
+        checkpoint();
+        String gameId = games.keySet().iterator().next();
+        games.put(gameId, playMoves(gameId, 3));
+        games.putAll(playGames(2, 4));
+
+        restart();
+
+        assertRestored(games);
+    }
+
+    @Test
+    void shouldReplayGamesBeyondReducedCapacity() throws IOException {
+        Map<String, GameSnapshot> games = playGames(10, 3);
+
+        journal.close();
+        start(DataSize.ofKilobytes(2));
+
+        assertRestored(games);
+    }
+
+    @Test
+    void shouldSkipChangesTheCheckpointIncludes() throws IOException {
+        Map<String, GameSnapshot> games = playGames(2, 3);
+        long position = journal.getPosition();
+        String gameId = games.keySet().iterator().next();
+        games.put(gameId, playMoves(gameId, 2));
+        // the games are exported after the position was read
+        GameCheckpoint.write(directory, position, registry);
+
+        restart();
+
+        assertRestored(games);
+    }
+
+    @Test
+    void shouldUseOlderCheckpointIfLatestIsCorrupt() throws IOException {
+        Map<String, GameSnapshot> games = playGames(2, 3);
+        checkpoint();
+        String gameId = games.keySet().iterator().next();
+        games.put(gameId, playMoves(gameId, 2));
+        checkpoint();
+        Path latest = checkpoints().get(1);
+        byte[] bytes = Files.readAllBytes(latest);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(latest, bytes);
+
+        restart();
+
+        assertRestored(games);
+    }
+
+    @Test
+    void shouldDeleteSegmentsBeforeOlderCheckpoint() throws IOException {
+        journal.close();
+        journal = new MappedGameJournal(directory, 256, MappedGameJournal.Durability.PER_MOVE, Duration.ofMillis(1));
+        gameService = new GameService(List.of(), registry, journal);
+        Map<String, GameSnapshot> games = new HashMap<>();
+        for (int i = 0; i < 3; i++) {
+            games.putAll(playGames(2, 6));
+            checkpoint();
+        }
+
+        assertThat(checkpoints()).hasSize(2);
+        assertThat(MappedGameJournal.segmentBase(MappedGameJournal.listSegments(directory).get(0))).isPositive();
+
+        restart();
+
+        assertRestored(games);
+    }
+
+    @Test
+    void shouldReplayHandedOffAndAdoptedGames() throws IOException {
+        GameShards shards = new GameShards("http://a", List.of("http://b"));
+        gameService = new GameService(List.of(), registry, journal, shards);
+        Map<String, GameSnapshot> games = playGames(20, 3);
+        checkpoint();
+        shards.join("http://c");
+        List<CompactGame> handedOff = new ArrayList<>();
+
+        gameService.handOffGames(4, handedOff::addAll);
+        restart();
+
+        assertThat(handedOff).isNotEmpty();
+        for (CompactGame game : handedOff) {
+            assertThat(gameService.hasGame(game.getGameId())).isFalse();
+            games.remove(game.getGameId());
+        }
+        assertRestored(games);
+
+        gameService.adoptGames(handedOff);
+        restart();
+
+        for (CompactGame game : handedOff) {
+            assertThat(gameService.getGamePlayer(game.getGameId(), "p1").getTurn()).isEqualTo(1);
+        }
+    }
+
+    private Map<String, GameSnapshot> playGames(int count, int moves) {
+        Map<String, GameSnapshot> games = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            String gameId = gameService.createGame();
+            gameService.registerPlayer(gameId, "p0");
+            gameService.registerPlayer(gameId, "p1");
+            games.put(gameId, playMoves(gameId, moves));
+        }
+        return games;
+    }
+
+    private GameSnapshot playMoves(String gameId, int moves) {
+        for (int i = 0; i < moves; i++) {
+            GameStat gameStat = gameService.getGameStat(gameId);
+            if (gameStat.isGameOver()) {
+                break;
+            }
+            int turn = gameStat.getNextPlayer();
+            List<Integer> pits = gameStat.getState().get(turn).getPits();
+            int pit = pits.size() - 1;
+            while (pits.get(pit) == 0) {
+                pit--;
+            }
+            gameService.play(gameId, "p" + turn, pit);
+        }
+        return gameService.getGameSnapshot(gameId);
+    }
+
+    private void checkpoint() {
+        new GameCheckpointer(directory, journal, registry).checkpoint();
+    }
+
+    private void restart() throws IOException {
+        journal.close();
+        start();
+    }
+
+    private void start() throws IOException {
+        start(GameRegistry.DEFAULT_CAPACITY);
+    }
+
+    private void start(DataSize capacity) throws IOException {
+        registry = new GameRegistry(capacity, GameRegistry.DEFAULT_IDLE_TTL, GameRegistry.DEFAULT_FINISHED_TTL,
+                GameRegistry.DEFAULT_FINISHED_RETENTION);
+        registries.add(registry);
+        GameRecovery.recover(directory, registry);
+        journal = new MappedGameJournal(directory, 1 << 16, MappedGameJournal.Durability.PER_MOVE, Duration.ofMillis(1));
+        gameService = new GameService(List.of(), registry, journal);
+    }
+
+    private void assertRestored(Map<String, GameSnapshot> games) {
+        for (Map.Entry<String, GameSnapshot> game : games.entrySet()) {
+            GameSnapshot restored = gameService.getGameSnapshot(game.getKey());
+            assertThat(restored.getVersion()).isEqualTo(game.getValue().getVersion());
+            assertThat(restored.getGameStat()).isEqualTo(game.getValue().getGameStat());
+            assertThat(gameService.getGamePlayer(game.getKey(), "p1").getTurn()).isEqualTo(1);
+        }
+    }
+
+    private List<Path> checkpoints() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> f.getFileName().toString().startsWith(GameCheckpoint.PREFIX)).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package xyz.a5s7.mancala.app.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import xyz.a5s7.mancala.domain.model.Board;
+import xyz.a5s7.mancala.domain.model.GameBoard;
+import xyz.a5s7.mancala.domain.service.CompactGame;
+import xyz.a5s7.mancala.domain.service.GameRegistry;
+import xyz.a5s7.mancala.domain.service.GameService;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MappedGameJournalTest {
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest
+    @EnumSource(MappedGameJournal.Durability.class)
+    void shouldReadAppendedRecords(MappedGameJournal.Durability durability) throws IOException {
+        GameBoard board = new GameBoard(2, 6, 6, 1);
+        try (MappedGameJournal journal = open(durability, 1 << 16)) {
+            journal.appendCreate("game", board);
+            journal.appendRegister("game", "alice");
+            journal.sync(journal.appendMove("game", 1, 3, 1));
+        }
+
+        List<String> records = readAll(0);
+
+        assertThat(records).containsExactly("create game 1 0", "register game alice", "move game 1 3 1");
+    }
+
+    @Test
+    void shouldReadHandedOffGames() throws IOException {
+        try (MappedGameJournal journal = open(MappedGameJournal.Durability.PER_MOVE, 1 << 16)) {
+            journal.appendImport(new CompactGame("game", new byte[]{1, 2, 3}, true));
+            journal.sync(journal.appendRemove("game"));
+        }
+
+        assertThat(readAll(0)).containsExactly("import game true 3", "remove game");
+    }
+
+    @Test
+    void shouldAppendAfterLastRecordWhenReopened() throws IOException {
+        long position;
+        try (MappedGameJournal journal = open(MappedGameJournal.Durability.PER_MOVE, 1 << 16)) {
+            position = journal.appendRegister("game", "alice");
+        }
+        try (MappedGameJournal journal = open(MappedGameJournal.Durability.PER_MOVE, 1 << 16)) {
+            assertThat(journal.getPosition()).isEqualTo(position);
+            journal.sync(journal.appendRegister("game", "bob"));
+        }
+
+        assertThat(readAll(0)).containsExactly("register game alice", "register game bob");
+        assertThat(readAll(position)).containsExactly("register game bob");
+    }
+
+    @Test
+    void shouldRollSegments() throws IOException {
+        try (MappedGameJournal journal = open(MappedGameJournal.Durability.PER_MOVE, 128)) {
+            for (int i = 0; i < 20; i++) {
+                journal.appendMove("game", 0, i % 6, i + 1);
+            }
+            journal.sync(journal.getPosition());
+        }
+
+        assertThat(MappedGameJournal.listSegments(directory)).hasSizeGreaterThan(1);
+        assertThat(readAll(0)).hasSize(20).endsWith("move game 0 1 20");
+    }
+
+    @Test
+    void shouldStopAtTornRecord() throws IOException {
+        long position;
+        try (MappedGameJournal journal = open(MappedGameJournal.Durability.PER_MOVE, 1 << 16)) {
+            position = journal.appendRegister("game", "alice");
+            journal.sync(journal.appendRegister("game", "bob"));
+        }
+        Path segment = MappedGameJournal.listSegments(directory).get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            // corrupt the last byte of the player id of the second record
+            channel.write(ByteBuffer.wrap(new byte[]{'x'}), position + 15);
+        }
+
+        assertThat(readAll(0)).containsExactly("register game alice");
+        try (MappedGameJournal journal = open(MappedGameJournal.Durability.PER_MOVE, 1 << 16)) {
+            assertThat(journal.getPosition()).isEqualTo(position);
+            journal.sync(journal.appendRegister("game", "carol"));
+        }
+        assertThat(readAll(0)).containsExactly("register game alice", "register game carol");
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = MappedGameJournal.Durability.class, names = {"PER_MOVE", "BATCHED"})
+    void shouldSyncConcurrentAppends(MappedGameJournal.Durability durability) throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try (MappedGameJournal journal = open(durability, 4096)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                String gameId = "game-" + t;
+                futures.add(executorService.submit(() -> {
+                    for (int i = 1; i <= 500; i++) {
+                        long position = journal.appendMove(gameId, 0, 0, i);
+                        journal.sync(position);
+                        assertThat(journal.getPosition()).isGreaterThanOrEqualTo(position);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdown();
+        }
+
+        assertThat(readAll(0)).hasSize(8 * 500);
+    }
+
+    @Test
+    void shouldRecordChangesOfGameService() throws IOException {
+        GameRegistry registry = new GameRegistry();
+        try (MappedGameJournal journal = open(MappedGameJournal.Durability.PER_MOVE, 1 << 16)) {
+            GameService gameService = new GameService(List.of(), registry, journal);
+            String gameId = gameService.createGame();
+            gameService.registerPlayer(gameId, "alice");
+            gameService.registerPlayer(gameId, "bob");
+            int turn = gameService.getGameStat(gameId).getNextPlayer();
+            gameService.play(gameId, turn == 0 ? "alice" : "bob", 2);
+
+            assertThat(readAll(0)).containsExactly(
+                    "create " + gameId + " " + turn + " 0",
+                    "register " + gameId + " alice",
+                    "register " + gameId + " bob",
+                    "move " + gameId + " " + turn + " 2 1");
+        } finally {
+            registry.shutdown();
+        }
+    }
+
+    private MappedGameJournal open(MappedGameJournal.Durability durability, int segmentSize) throws IOException {
+        return new MappedGameJournal(directory, segmentSize, durability, Duration.ofMillis(1));
+    }
+
+    private List<String> readAll(long fromPosition) throws IOException {
+        List<String> records = new ArrayList<>();
+        MappedGameJournal.read(directory, fromPosition, new JournalVisitor() {
+            @Override
+            public void onCreate(long position, String gameId, Board gameBoard) {
+                records.add("create " + gameId + " " + gameBoard.getCurPlayer() + " " + gameBoard.getVersion());
+            }
+
+            @Override
+            public void onRegister(long position, String gameId, String playerId) {
+                records.add("register " + gameId + " " + playerId);
+            }
+
+            @Override
+            public void onMove(long position, String gameId, int turn, int pit, long version) {
+                records.add("move " + gameId + " " + turn + " " + pit + " " + version);
+            }
+
+            @Override
+            public void onImport(long position, CompactGame game) {
+                records.add("import " + game.getGameId() + " " + game.isFinished() + " " + game.getData().length);
+            }
+
+            @Override
+            public void onRemove(long position, String gameId) {
+                records.add("remove " + gameId);
+            }
+        });
+        return records;
+    }
+}
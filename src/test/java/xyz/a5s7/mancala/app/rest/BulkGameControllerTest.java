@@ -0,0 +1,95 @@
+package xyz.a5s7.mancala.app.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import xyz.a5s7.mancala.domain.service.GameRegistry;
+import xyz.a5s7.mancala.domain.service.GameService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "mancala.games.idle-ttl=0s")
+@AutoConfigureMockMvc
+class BulkGameControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private GameRegistry gameRegistry;
+
+    @Test
+    void shouldCreateGamesAndStreamTheirStatusWithErrorsInline() throws Exception {
+        MvcResult created = mockMvc.perform(post("/games/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"count\":3}"))
+                .andExpect(status().isCreated())
+                .andReturn();
+        String[] gameIds = objectMapper.readValue(created.getResponse().getContentAsString(), String[].class);
+        assertThat(gameIds).hasSize(3).doesNotHaveDuplicates();
+
+        List<String> queried = new ArrayList<>(List.of(gameIds));
+        queried.add(1, "unknown");
+        MvcResult started = mockMvc.perform(post("/games/bulk/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(queried)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(4);
+        assertThat(lines[0]).startsWith("{\"gameId\":\"" + gameIds[0] + "\",\"version\":0,\"gameStat\":{");
+        assertThat(lines[1]).isEqualTo("{\"gameId\":\"unknown\",\"status\":400,\"error\":\"Game not found\"}");
+        assertThat(objectMapper.readTree(lines[2]).get("gameId").asText()).isEqualTo(gameIds[1]);
+        assertThat(objectMapper.readTree(lines[3]).get("gameStat").get("state")).hasSize(2);
+    }
+
+    @Test
+    void shouldStreamStatusOfCompactedGamesWithoutRestoringThem() throws Exception {
+        List<String> gameIds = gameService.createGames(3);
+        gameRegistry.sweep();
+        assertThat(gameRegistry.getHotCount()).isZero();
+
+        MvcResult started = mockMvc.perform(post("/games/bulk/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(gameIds)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body.split("\n")).hasSize(3).allMatch(line -> line.contains("\"version\":0"));
+        assertThat(gameRegistry.getHotCount()).isZero();
+    }
+
+    @Test
+    void shouldRejectTooManyGames() throws Exception {
+        mockMvc.perform(post("/games/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"count\":1001}"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -1,5 +1,6 @@
 package xyz.a5s7.mancala.app.rest;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -7,18 +8,28 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import xyz.a5s7.mancala.domain.model.GamePlayer;
 import xyz.a5s7.mancala.domain.model.statistics.BoardState;
+import xyz.a5s7.mancala.domain.model.statistics.GameSnapshot;
 import xyz.a5s7.mancala.domain.model.statistics.GameStat;
+import xyz.a5s7.mancala.domain.model.statistics.MoveBatch;
+import xyz.a5s7.mancala.domain.model.statistics.MoveOutcome;
+import xyz.a5s7.mancala.domain.model.statistics.MovePreview;
 import xyz.a5s7.mancala.domain.model.statistics.PlayerStat;
 import xyz.a5s7.mancala.domain.service.GameService;
+import xyz.a5s7.mancala.domain.service.GameVersionConflictException;
 
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -33,6 +44,17 @@ public class GameControllerTest {
     @MockBean
     private GameService gameService;
 
+    @Autowired
+    private GameEventStream gameEventStream;
+
+    @Autowired
+    private GameStatJsonCache gameStatJsonCache;
+
+    @BeforeEach
+    public void setUp() {
+        gameStatJsonCache.remove(gameId);
+    }
+
     @Test
     public void testCreateGame() throws Exception {
         when(gameService.createGame()).thenReturn(gameId);
@@ -43,6 +65,15 @@ public class GameControllerTest {
                 .andExpect(content().string(gameId));
     }
 
+    @Test
+    public void testCreateGameWithComputer() throws Exception {
+        when(gameService.createGameWithComputer()).thenReturn(gameId);
+
+        mockMvc.perform(post("/games/create").param("computer", "true"))
+                .andExpect(status().isCreated())
+                .andExpect(content().string(gameId));
+    }
+
     @Test
     public void testRegisterPlayer() throws Exception {
         when(gameService.registerPlayer(gameId, playerId)).thenReturn(new GamePlayer(playerId, gameId, 1));
@@ -59,7 +90,7 @@ public class GameControllerTest {
 
     @Test
     public void testGetGameStat() throws Exception {
-        when(gameService.getGameStat(gameId)).thenReturn(
+        when(gameService.getGameSnapshot(gameId)).thenReturn(new GameSnapshot(3,
                 new GameStat(
                         0,
                         List.of(
@@ -72,11 +103,12 @@ public class GameControllerTest {
                         ),
                         false
                 )
-        );
+        ));
 
         mockMvc.perform(get("/games/{gameId}", gameId)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
                 .andExpect(content().json(
                         "{\"nextPlayer\":0," +
                                 "\"leaderBoard\":[{\"idx\":1,\"score\":12},{\"idx\":0,\"score\":8}]," +
@@ -84,10 +116,69 @@ public class GameControllerTest {
                                 "{\"idx\":1,\"pits\":[0,2,0],\"largePit\":12}],\"gameOver\":false}"));
     }
 
+    @Test
+    public void testGetGameStatNotModified() throws Exception {
+        String otherGameId = "0c3f8a47-0a2d-4b55-9d0c-6a7a8e0d1f2b";
+        when(gameService.getGameSnapshot(otherGameId)).thenReturn(new GameSnapshot(5,
+                new GameStat(0, List.of(), List.of(), false)));
+
+        mockMvc.perform(get("/games/{gameId}", otherGameId)
+                        .header("If-None-Match", "\"5\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"5\""))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/games/{gameId}", otherGameId)
+                        .header("If-None-Match", "\"4\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testStreamEvents() throws Exception {
+        String streamedGameId = "6f1d2a9e-3c4b-4e8f-a1b2-c3d4e5f60718";
+        when(gameService.getGameSnapshot(streamedGameId)).thenReturn(new GameSnapshot(1,
+                new GameStat(0, List.of(), List.of(), false)));
+
+        MvcResult result = mockMvc.perform(get("/games/{gameId}/events", streamedGameId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        await().until(() -> result.getResponse().getContentAsString().contains("id:1"));
+
+        gameEventStream.onGameChanged(streamedGameId, new GameSnapshot(2,
+                new GameStat(1, List.of(), List.of(), false)));
+
+        await().until(() -> result.getResponse().getContentAsString().contains("id:2"));
+        assertThat(result.getResponse().getContentAsString())
+                .contains("event:state")
+                .contains("data:{\"nextPlayer\":1,\"leaderBoard\":[],\"state\":[],\"gameOver\":false}");
+        assertThat(gameEventStream.getSubscriberCount(streamedGameId)).isEqualTo(1);
+    }
+
+    @Test
+    public void testStreamEventsDoesNotMissMovePlayedOnSubscribe() throws Exception {
+        String streamedGameId = "2b7e4c1d-9a8f-4d3e-b6c5-a4f3e2d1c0b9";
+        when(gameService.getGameSnapshot(streamedGameId)).thenAnswer(invocation -> {
+            // the state is read, then a move is published before the current state is sent
+            GameSnapshot read = new GameSnapshot(1, new GameStat(0, List.of(), List.of(), false));
+            gameEventStream.onGameChanged(streamedGameId, new GameSnapshot(2,
+                    new GameStat(1, List.of(), List.of(), false)));
+            return read;
+        });
+
+        MvcResult result = mockMvc.perform(get("/games/{gameId}/events", streamedGameId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        await().until(() -> result.getResponse().getContentAsString().contains("id:2"));
+        assertThat(result.getResponse().getContentAsString())
+                .doesNotContain("id:1")
+                .contains("data:{\"nextPlayer\":1,\"leaderBoard\":[],\"state\":[],\"gameOver\":false}");
+    }
+
     @Test
     public void testPlay() throws Exception {
         int pit = 3;
-        when(gameService.play(gameId, playerId, pit)).thenReturn(
+        when(gameService.play(gameId, playerId, pit, null)).thenReturn(new GameSnapshot(8,
                 new GameStat(
                         0,
                         List.of(
@@ -100,11 +191,12 @@ public class GameControllerTest {
                         ),
                         false
                 )
-        );
+        ));
 
         mockMvc.perform(post("/games/{gameId}/players/{playerId}/play?pit={pit}", gameId, playerId, pit)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"8\""))
                 .andExpect(content().json(
                         "{\"nextPlayer\":0," +
                                 "\"leaderBoard\":[{\"idx\":1,\"score\":12},{\"idx\":0,\"score\":8}]," +
@@ -112,6 +204,52 @@ public class GameControllerTest {
                                 "{\"idx\":1,\"pits\":[0,2,0],\"largePit\":12}],\"gameOver\":false}"));
     }
 
+    @Test
+    public void testPlayMoves() throws Exception {
+        GameStat gameStat = new GameStat(1, List.of(), List.of(), false);
+        when(gameService.playMoves(gameId, playerId, List.of(0, 1, 2), 4L)).thenReturn(new MoveBatch(6, gameStat,
+                List.of(new MoveOutcome(0, MoveOutcome.Status.PLAYED, null),
+                        new MoveOutcome(1, MoveOutcome.Status.TURN_OVER, null),
+                        new MoveOutcome(2, MoveOutcome.Status.SKIPPED, null))));
+
+        mockMvc.perform(post("/games/{gameId}/players/{playerId}/moves?expectedVersion=4", gameId, playerId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"pits\":[0,1,2]}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"6\""))
+                .andExpect(content().json("{\"version\":6," +
+                        "\"gameStat\":{\"nextPlayer\":1,\"leaderBoard\":[],\"state\":[],\"gameOver\":false}," +
+                        "\"moves\":[{\"pit\":0,\"status\":\"PLAYED\"},{\"pit\":1,\"status\":\"TURN_OVER\"}," +
+                        "{\"pit\":2,\"status\":\"SKIPPED\"}]}", true));
+    }
+
+    @Test
+    public void testPreviewMoves() throws Exception {
+        when(gameService.previewMoves(gameId)).thenReturn(List.of(
+                new MovePreview(0, 0, 6, true, 0, false, List.of(1, 0)),
+                new MovePreview(1, 1, 0, false, 0, false, List.of(1, 0))));
+
+        mockMvc.perform(get("/games/{gameId}/moves", gameId))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"pit\":0,\"landingPlayer\":0,\"landingPit\":6,\"extraTurn\":true," +
+                        "\"captured\":0,\"gameOver\":false,\"largePits\":[1,0]}," +
+                        "{\"pit\":1,\"landingPlayer\":1,\"landingPit\":0,\"extraTurn\":false," +
+                        "\"captured\":0,\"gameOver\":false,\"largePits\":[1,0]}]", true));
+    }
+
+    @Test
+    public void testPlayOnOutdatedVersion() throws Exception {
+        String conflictGameId = "f0e1d2c3-b4a5-4968-8776-5a4b3c2d1e0f";
+        GameSnapshot current = new GameSnapshot(9, new GameStat(1, List.of(), List.of(), false));
+        when(gameService.play(conflictGameId, playerId, 2, 7L))
+                .thenThrow(new GameVersionConflictException(conflictGameId, 7, current));
+
+        mockMvc.perform(post("/games/{gameId}/players/{playerId}/play?pit=2&expectedVersion=7", conflictGameId, playerId))
+                .andExpect(status().isConflict())
+                .andExpect(header().string("ETag", "\"9\""))
+                .andExpect(content().json("{\"nextPlayer\":1,\"leaderBoard\":[],\"state\":[],\"gameOver\":false}"));
+    }
+
     @Test
     public void testIllegalArgumentException() throws Exception {
         when(gameService.registerPlayer("invalid", "Anton")).thenThrow(new IllegalArgumentException("Invalid game id"));
@@ -123,7 +261,7 @@ public class GameControllerTest {
 
     @Test
     public void testIllegalStateException() throws Exception {
-        when(gameService.play("invalid", "1", 3)).thenThrow(new IllegalStateException("Game not ready"));
+        when(gameService.play("invalid", "1", 3, null)).thenThrow(new IllegalStateException("Not your turn"));
 
         mockMvc.perform(post("/games/invalid/players/1/play?pit=3")
                         .contentType(MediaType.APPLICATION_JSON))
@@ -0,0 +1,55 @@
+package xyz.a5s7.mancala.app.websocket;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test client of the game WebSocket, collects received text frames.
+ */
+class GameSocketClient implements WebSocket.Listener, AutoCloseable {
+    private final BlockingQueue<String> frames = new LinkedBlockingQueue<>();
+    private final StringBuilder partial = new StringBuilder();
+    private final WebSocket webSocket;
+
+    GameSocketClient(HttpClient httpClient, int port, String gameId, String playerId) {
+        URI uri = URI.create("ws://localhost:" + port + "/games/" + gameId + "/players/" + playerId + "/ws");
+        webSocket = httpClient.newWebSocketBuilder().buildAsync(uri, this).join();
+    }
+
+    void send(int pit) {
+        send(Integer.toString(pit));
+    }
+
+    void send(String frame) {
+        webSocket.sendText(frame, true).join();
+    }
+
+    String nextFrame() throws InterruptedException {
+        String frame = frames.poll(5, TimeUnit.SECONDS);
+        if (frame == null) {
+            throw new AssertionError("No frame received");
+        }
+        return frame;
+    }
+
+    @Override
+    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+        partial.append(data);
+        if (last) {
+            frames.add(partial.toString());
+            partial.setLength(0);
+        }
+        webSocket.request(1);
+        return null;
+    }
+
+    @Override
+    public void close() {
+        webSocket.sendClose(WebSocket.NORMAL_CLOSURE, "").join();
+    }
+}
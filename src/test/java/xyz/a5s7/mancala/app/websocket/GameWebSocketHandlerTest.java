@@ -0,0 +1,186 @@
+package xyz.a5s7.mancala.app.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import xyz.a5s7.mancala.app.rest.GameStatJsonCache;
+import xyz.a5s7.mancala.domain.model.GamePlayer;
+import xyz.a5s7.mancala.domain.model.statistics.GameStat;
+import xyz.a5s7.mancala.domain.service.GameMovedException;
+import xyz.a5s7.mancala.domain.service.GameService;
+import xyz.a5s7.mancala.domain.service.GameShards;
+import xyz.a5s7.mancala.domain.service.PlayerService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class GameWebSocketHandlerTest {
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private PlayerService playerService;
+
+    @Autowired
+    private GameSocketSessions gameSocketSessions;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private GameStatJsonCache gameStatJsonCache;
+
+    @Test
+    public void shouldSendStateToAllPlayersAfterMove() throws Exception {
+        String gameId = gameService.createGame();
+        String[] players = registerPlayers(gameId);
+        int turn = gameService.getGameStat(gameId).getNextPlayer();
+
+        try (var mover = new GameSocketClient(httpClient, port, gameId, players[turn]);
+             var other = new GameSocketClient(httpClient, port, gameId, players[1 - turn])) {
+            assertThat(mover.nextFrame()).contains("\"nextPlayer\":" + turn);
+            assertThat(other.nextFrame()).contains("\"nextPlayer\":" + turn);
+
+            mover.send(0);
+
+            assertThat(mover.nextFrame()).contains("\"pits\":[0,7,7,7,7,7]");
+            assertThat(other.nextFrame()).contains("\"pits\":[0,7,7,7,7,7]");
+            GameStat gameStat = gameService.getGameStat(gameId);
+            assertThat(gameStat.getState().get(turn).getPits().get(0)).isEqualTo(0);
+        }
+    }
+
+    @Test
+    public void shouldAnswerRejectedMoveWithError() throws Exception {
+        String gameId = gameService.createGame();
+        String[] players = registerPlayers(gameId);
+        int waiting = 1 - gameService.getGameStat(gameId).getNextPlayer();
+
+        try (var client = new GameSocketClient(httpClient, port, gameId, players[waiting])) {
+            client.nextFrame();
+
+            client.send(0);
+            assertThat(client.nextFrame()).isEqualTo("{\"status\":409,\"error\":\"Not your turn\"}");
+
+            client.send("x");
+            assertThat(client.nextFrame()).isEqualTo("{\"status\":400,\"error\":\"Pit must be a number\"}");
+        }
+    }
+
+    @Test
+    public void shouldRedirectMoveOfGameHandedOffToAnotherNode() throws Exception {
+        String gameId = gameService.createGame();
+        String[] players = registerPlayers(gameId);
+        GamePlayer player = gameService.getGamePlayer(gameId, players[0]);
+        GameService movedGameService = mock(GameService.class);
+        when(movedGameService.getGameSnapshot(gameId)).thenReturn(gameService.getGameSnapshot(gameId));
+        doThrow(new GameMovedException(gameId)).when(movedGameService).play(any(), anyInt());
+        var handler = new GameWebSocketHandler(movedGameService, gameSocketSessions,
+                new GameShards("http://node-b:8080", List.of()), objectMapper);
+        String path = "/games/" + gameId + "/players/" + players[0] + "/ws";
+        WebSocketSession session = mock(WebSocketSession.class);
+        Map<String, Object> attributes = new HashMap<>(Map.of(GamePlayerHandshakeInterceptor.PLAYER_ATTRIBUTE, player));
+        when(session.getAttributes()).thenReturn(attributes);
+        when(session.getUri()).thenReturn(URI.create("ws://node-a:8080" + path));
+        when(session.isOpen()).thenReturn(true);
+
+        handler.afterConnectionEstablished(session);
+        handler.handleTextMessage(session, new TextMessage("0"));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<WebSocketMessage<?>> frames = ArgumentCaptor.forClass(WebSocketMessage.class);
+        verify(session, atLeastOnce()).sendMessage(frames.capture());
+        assertThat(frames.getValue().getPayload()).isEqualTo("{\"status\":307,\"error\":\"Game has moved to another node\","
+                + "\"location\":\"http://node-b:8080" + path + "\"}");
+        handler.afterConnectionClosed(session, CloseStatus.NORMAL);
+    }
+
+    @Test
+    public void shouldCloseSlowConnectionAndSendStateToOthers() throws Exception {
+        String gameId = gameService.createGame();
+        var sessions = new GameSocketSessions(gameStatJsonCache, Duration.ofMinutes(1), 1);
+        WebSocketSession slow = mock(WebSocketSession.class);
+        WebSocketSession healthy = mock(WebSocketSession.class);
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            sending.countDown();
+            released.await();
+            return null;
+        }).when(slow).sendMessage(any());
+        GameSocketSessions.GameSocketSession slowSession = sessions.add(gameId, slow);
+        sessions.add(gameId, healthy);
+        // a frame in flight holds the slow connection, the next one overflows its buffer
+        Thread sender = new Thread(() -> slowSession.send(new TextMessage("{}")));
+        sender.start();
+        sending.await();
+
+        try {
+            sessions.onGameChanged(gameId, gameService.getGameSnapshot(gameId));
+
+            verify(healthy).sendMessage(any());
+            verify(slow).close(CloseStatus.SESSION_NOT_RELIABLE);
+            assertThat(sessions.getSessionCount(gameId)).isEqualTo(1);
+        } finally {
+            released.countDown();
+            sender.join();
+        }
+    }
+
+    @Test
+    public void shouldRejectConnectionOfUnregisteredPlayer() {
+        String gameId = gameService.createGame();
+
+        assertThrows(CompletionException.class, () -> new GameSocketClient(httpClient, port, gameId, "unknown"));
+    }
+
+    @Test
+    public void shouldRejectRegistrationOfPlayerWhoDoesNotExist() {
+        String gameId = gameService.createGame();
+
+        assertThrows(IllegalArgumentException.class, () -> gameService.registerPlayer(gameId, "unknown"));
+    }
+
+    /**
+     * @return ids of new players registered in the game, by their turns
+     */
+    private String[] registerPlayers(String gameId) {
+        String[] players = new String[2];
+        for (int turn = 0; turn < players.length; turn++) {
+            players[turn] = playerService.createPlayer(UUID.randomUUID().toString());
+            gameService.registerPlayer(gameId, players[turn]);
+        }
+        return players;
+    }
+}
@@ -0,0 +1,140 @@
+package xyz.a5s7.mancala.app.websocket;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import xyz.a5s7.mancala.domain.model.statistics.GameStat;
+import xyz.a5s7.mancala.domain.service.GameService;
+import xyz.a5s7.mancala.domain.service.PlayerService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Local load test comparing round-trip latency of a move over REST and over WebSocket.
+ * Run with {@code mvn test -Dtest=GameWebSocketLatencyTest -DloadTests=true [-DloadTests.moves=20000]}.
+ */
+@EnabledIfSystemProperty(named = "loadTests", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class GameWebSocketLatencyTest {
+    private static final int MOVES = Integer.getInteger("loadTests.moves", 20_000);
+    private static final int WARMUP_MOVES = MOVES / 4;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private PlayerService playerService;
+
+    /**
+     * Ids of the players of every game, by their turns.
+     */
+    private String[] players;
+
+    @Test
+    public void compareMoveLatency() throws Exception {
+        playOverRest(WARMUP_MOVES);
+        long[] rest = playOverRest(MOVES);
+        playOverWebSocket(WARMUP_MOVES);
+        long[] webSocket = playOverWebSocket(MOVES);
+
+        report("REST", rest);
+        report("WebSocket", webSocket);
+    }
+
+    private long[] playOverRest(int moves) throws Exception {
+        long[] latencies = new long[moves];
+        String gameId = newGame();
+        for (int i = 0; i < moves; i++) {
+            GameStat gameStat = gameService.getGameStat(gameId);
+            if (gameStat.isGameOver()) {
+                gameId = newGame();
+                gameStat = gameService.getGameStat(gameId);
+            }
+            int turn = gameStat.getNextPlayer();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/games/" + gameId
+                            + "/players/" + players[turn] + "/play?pit=" + legalPit(gameStat)))
+                    .POST(HttpRequest.BodyPublishers.noBody())
+                    .build();
+            long start = System.nanoTime();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            latencies[i] = System.nanoTime() - start;
+            assertThat(response.statusCode()).isEqualTo(200);
+        }
+        return latencies;
+    }
+
+    private long[] playOverWebSocket(int moves) throws Exception {
+        long[] latencies = new long[moves];
+        String gameId = null;
+        List<GameSocketClient> clients = List.of();
+        for (int i = 0; i < moves; i++) {
+            GameStat gameStat = gameId == null ? null : gameService.getGameStat(gameId);
+            if (gameStat == null || gameStat.isGameOver()) {
+                clients.forEach(GameSocketClient::close);
+                gameId = newGame();
+                clients = List.of(new GameSocketClient(httpClient, port, gameId, players[0]),
+                        new GameSocketClient(httpClient, port, gameId, players[1]));
+                for (GameSocketClient client : clients) {
+                    client.nextFrame();
+                }
+                gameStat = gameService.getGameStat(gameId);
+            }
+            int turn = gameStat.getNextPlayer();
+            int pit = legalPit(gameStat);
+            long start = System.nanoTime();
+            clients.get(turn).send(pit);
+            String frame = clients.get(turn).nextFrame();
+            latencies[i] = System.nanoTime() - start;
+            assertThat(frame).startsWith("{\"nextPlayer\"");
+            clients.get(1 - turn).nextFrame();
+        }
+        clients.forEach(GameSocketClient::close);
+        return latencies;
+    }
+
+    private String newGame() {
+        if (players == null) {
+            players = new String[]{playerService.createPlayer(UUID.randomUUID().toString()),
+                    playerService.createPlayer(UUID.randomUUID().toString())};
+        }
+        String gameId = gameService.createGame();
+        gameService.registerPlayer(gameId, players[0]);
+        gameService.registerPlayer(gameId, players[1]);
+        return gameId;
+    }
+
+    private static int legalPit(GameStat gameStat) {
+        List<Integer> pits = gameStat.getState().get(gameStat.getNextPlayer()).getPits();
+        for (int pit = 0; pit < pits.size(); pit++) {
+            if (pits.get(pit) > 0) {
+                return pit;
+            }
+        }
+        throw new IllegalStateException("No legal move");
+    }
+
+    private static void report(String transport, long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-10s moves=%d mean=%.1fus p50=%.1fus p99=%.1fus max=%.1fus%n", transport, sorted.length,
+                Arrays.stream(sorted).average().orElse(0) / 1000.0,
+                sorted[sorted.length / 2] / 1000.0,
+                sorted[(int) (sorted.length * 0.99)] / 1000.0,
+                sorted[sorted.length - 1] / 1000.0);
+    }
+}
@@ -0,0 +1,82 @@
+package xyz.a5s7.mancala.domain.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GameBoardCodecTest {
+
+    @Test
+    void shouldRestoreBoard() throws IOException {
+        GameBoard board = new GameBoard(2, 6, 6, 0);
+        board.play(0, 0);
+        board.play(0, 1);
+
+        byte[] bytes = write(board);
+        Board restored = read(bytes);
+
+        assertThat(bytes).hasSizeLessThan(24);
+        assertThat(restored).isInstanceOf(PackedGameBoard.class);
+        assertThat(restored.getVersion()).isEqualTo(board.getVersion());
+        assertThat(restored.getCurPlayer()).isEqualTo(board.getCurPlayer());
+        assertThat(restored.isGameFinished()).isFalse();
+        assertThat(restored.getGameStat()).isEqualTo(board.getGameStat());
+    }
+
+    @Test
+    void shouldPlayRestoredBoardAsOriginal() throws IOException {
+        GameBoard board = new GameBoard(3, 4, 200, 1);
+        Board restored = read(write(board));
+
+        board.play(1, 2);
+        restored.play(1, 2);
+
+        assertThat(restored.getGameStat()).isEqualTo(board.getGameStat());
+    }
+
+    @Test
+    void shouldRestoreFinishedBoard() throws IOException {
+        GameBoard board = new GameBoard(2, 1, 1, 0);
+        board.play(0, 0);
+
+        Board restored = read(write(board));
+
+        assertThat(restored.isGameFinished()).isTrue();
+        assertThrows(IllegalStateException.class, () -> restored.play(restored.getCurPlayer(), 0));
+    }
+
+    @Test
+    void shouldRestorePackedBoard() throws IOException {
+        PackedGameBoard board = new PackedGameBoard(6, 4, 1);
+        GameBoard expected = new GameBoard(2, 6, 4, 1);
+        board.play(1, 3);
+        expected.play(1, 3);
+
+        Board restored = read(write(board));
+
+        assertThat(restored.getVersion()).isEqualTo(1);
+        assertThat(restored.getGameStat()).isEqualTo(expected.getGameStat());
+    }
+
+    @Test
+    void shouldRejectUnknownFormat() {
+        assertThrows(IOException.class, () -> read(new byte[]{42}));
+    }
+
+    private static byte[] write(Board board) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        GameBoardCodec.write(board, new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    private static Board read(byte[] bytes) throws IOException {
+        return GameBoardCodec.read(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+}
@@ -2,15 +2,15 @@ package xyz.a5s7.mancala.domain.model;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import xyz.a5s7.mancala.domain.model.statistics.BoardState;
+import xyz.a5s7.mancala.domain.model.statistics.GameSnapshot;
 import xyz.a5s7.mancala.domain.model.statistics.GameStat;
 import xyz.a5s7.mancala.domain.model.statistics.PlayerStat;
 
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.SplittableRandom;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -135,6 +135,40 @@ public class GameBoardTest {
         );
     }
 
+    @DisplayName("8. Player 0 sows more stones than one lap and ends at his own non-empty pit.")
+    @Test
+    public void testPlayer0SowsSeveralLapsAndEndsAtOwnPit() {
+        checkScenario(
+                List.of(0, 20, 0), 0,
+                List.of(1, 1, 1), 0,
+                0, //turn
+                1, //selectedPit
+                List.of(3, 2, 3), //expectedP0Pits
+                3, //expectedP0Score
+                List.of(4, 4, 4), //expectedP1Pits
+                0, //expectedP1Score
+                false, //isGameFinished
+                1 //nextPlayer
+        );
+    }
+
+    @DisplayName("9. Player 0 sows more stones than one lap, lands in his large pit and gets another turn.")
+    @Test
+    public void testPlayer0SowsSeveralLapsAndLandsInLargePit() {
+        checkScenario(
+                List.of(0, 16, 0), 0,
+                List.of(1, 1, 1), 0,
+                0, //turn
+                1, //selectedPit
+                List.of(2, 2, 3), //expectedP0Pits
+                3, //expectedP0Score
+                List.of(3, 3, 3), //expectedP1Pits
+                0, //expectedP1Score
+                false, //isGameFinished
+                0 //nextPlayer
+        );
+    }
+
     @Test
     public void gameDemo() {
         GameBoard gameBoard = new GameBoard(2, 3, 3, 0);
@@ -246,28 +280,95 @@ public class GameBoardTest {
     }
 
     @Test
-    public void shouldNotCallPlayIfTurnIsNotFinished() throws InterruptedException {
-        GameBoard gameBoard = new GameBoard(2, 6, 4, 0);
+    void shouldNotChangeGameStatAfterNextMove() {
+        GameBoard gameBoard = new GameBoard(2, 3, 3, 0);
+        GameStat gameStat = gameBoard.getGameStat();
 
-        ExecutorService executorService = Executors.newFixedThreadPool(2);
-        CountDownLatch latch = new CountDownLatch(2);
+        gameBoard.play(0, 0);
 
-        executorService.execute(() -> {
-            try {
-                gameBoard.play(0, 3);
-            } finally {
-                latch.countDown();
-            }
-        });
+        assertThat(gameStat.getState().get(0).getPits()).isEqualTo(List.of(3, 3, 3));
+        assertThat(gameBoard.getGameStat().getState().get(0).getPits()).isEqualTo(List.of(0, 4, 4));
+    }
 
-        executorService.execute(() -> {
-            try {
-                assertThrows(IllegalStateException.class, () -> gameBoard.play(0, 2));
-            } finally {
-                latch.countDown();
-            }
-        });
+    @Test
+    void shouldIncrementVersionAndReuseSnapshotOfSameVersion() {
+        GameBoard gameBoard = new GameBoard(2, 3, 3, 0);
+        GameSnapshot snapshot = gameBoard.getSnapshot();
+        assertThat(snapshot.getVersion()).isEqualTo(0);
+        assertThat(gameBoard.getSnapshot()).isSameAs(snapshot);
+
+        gameBoard.play(0, 0);
+        assertThat(gameBoard.getPublishedSnapshot()).isSameAs(snapshot);
+
+        GameSnapshot next = gameBoard.getSnapshot();
+        assertThat(next.getVersion()).isEqualTo(1);
+        assertThat(gameBoard.getPublishedSnapshot()).isSameAs(next);
+        assertThat(gameBoard.getGameStat()).isSameAs(next.getGameStat());
+    }
+
+    @Test
+    void shouldNotChangeVersionOnRejectedMove() {
+        GameBoard gameBoard = new GameBoard(2, 3, 3, 0);
+
+        assertThrows(IllegalStateException.class, () -> gameBoard.play(1, 0));
+
+        assertThat(gameBoard.getVersion()).isEqualTo(0);
+    }
+
+    @Test
+    void shouldRecordStonesCapturedByLastMove() {
+        GameBoard gameBoard = new GameBoard(List.of(
+                new PlayerBoard(List.of(4, 9, 4, 4), 0),
+                new PlayerBoard(List.of(4, 4, 4, 4), 0)
+        ), 0);
+
+        gameBoard.play(0, 1);
+        assertThat(gameBoard.getLastCaptured()).isEqualTo(6);
+
+        gameBoard.play(1, 0);
+        assertThat(gameBoard.getLastCaptured()).isZero();
+    }
+
+    @ParameterizedTest
+    @CsvSource({"2, 6, 6", "2, 6, 5000", "6, 6, 4", "3, 70, 2"})
+    void shouldKeepHashOfPositionAsMovesArePlayed(int players, int pits, int stones) {
+        GameBoard gameBoard = new GameBoard(players, pits, stones, 0);
+        SplittableRandom random = new SplittableRandom(players * 31L + stones);
+        assertThat(gameBoard.getHash()).isEqualTo(rehash(gameBoard));
+
+        while (!gameBoard.isGameFinished()) {
+            int pit;
+            do {
+                pit = random.nextInt(pits);
+            } while (gameBoard.getStonesInPit(gameBoard.getCurPlayer(), pit) == 0);
+            gameBoard.play(gameBoard.getCurPlayer(), pit);
+
+            assertThat(gameBoard.getHash()).isEqualTo(rehash(gameBoard));
+        }
+    }
+
+    @Test
+    void shouldHashPlayerToMove() {
+        List<PlayerBoard> boards = List.of(
+                new PlayerBoard(List.of(1, 2, 3), 4),
+                new PlayerBoard(List.of(3, 2, 1), 4));
+
+        GameBoard first = new GameBoard(boards, 0);
+        GameBoard second = new GameBoard(boards, 1);
 
-        latch.await(5, TimeUnit.SECONDS);
+        assertThat(first.getHash()).isNotEqualTo(second.getHash());
+        assertThat(first.getHash()).isEqualTo(new GameBoard(boards, 0).getHash());
+    }
+
+    private static long rehash(GameBoard gameBoard) {
+        int stride = gameBoard.getPitsPerPlayer() + 1;
+        int[] cells = new int[gameBoard.getNumberOfPlayers() * stride];
+        for (int player = 0; player < gameBoard.getNumberOfPlayers(); player++) {
+            for (int pit = 0; pit < gameBoard.getPitsPerPlayer(); pit++) {
+                cells[player * stride + pit] = gameBoard.getStonesInPit(player, pit);
+            }
+            cells[player * stride + stride - 1] = gameBoard.getLargePit(player);
+        }
+        return Zobrist.hash(cells, gameBoard.getCurPlayer());
     }
-}
\ No newline at end of file
+}
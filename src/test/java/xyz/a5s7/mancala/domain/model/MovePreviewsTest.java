@@ -0,0 +1,113 @@
+package xyz.a5s7.mancala.domain.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import xyz.a5s7.mancala.domain.model.statistics.MovePreview;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MovePreviewsTest {
+
+    @ParameterizedTest
+    @CsvSource({"2, 6, 6", "2, 6, 100", "2, 3, 5000", "3, 4, 3", "6, 2, 1"})
+    void shouldPreviewEveryMoveAsItIsPlayed(int players, int pits, int stones) {
+        Board board = Board.of(players, pits, stones, 0);
+        SplittableRandom random = new SplittableRandom(stones);
+
+        while (!board.isGameFinished()) {
+            List<MovePreview> previews = board.previewMoves();
+            long version = board.getVersion();
+            List<Integer> pitsWithStones = new ArrayList<>();
+            for (int pit = 0; pit < pits; pit++) {
+                if (board.getStonesInPit(board.getCurPlayer(), pit) > 0) {
+                    pitsWithStones.add(pit);
+                }
+            }
+            assertThat(previews).extracting(MovePreview::getPit).containsExactlyElementsOf(pitsWithStones);
+
+            for (MovePreview preview : previews) {
+                int mover = board.getCurPlayer();
+                int[] landing = land(board, preview.getPit());
+                GameBoard played = copy(board);
+                played.play(mover, preview.getPit());
+
+                assertThat(preview.getLandingPlayer()).isEqualTo(landing[0]);
+                assertThat(preview.getLandingPit()).isEqualTo(landing[1]);
+                assertThat(preview.isExtraTurn()).isEqualTo(played.getCurPlayer() == mover);
+                assertThat(preview.getCaptured()).isEqualTo(played.getLastCaptured());
+                assertThat(preview.isGameOver()).isEqualTo(played.isGameFinished());
+                for (int player = 0; player < players; player++) {
+                    assertThat(preview.getLargePits().get(player)).isEqualTo(played.getLargePit(player));
+                }
+            }
+            assertThat(board.getVersion()).isEqualTo(version);
+
+            MovePreview move = previews.get(random.nextInt(previews.size()));
+            board.play(board.getCurPlayer(), move.getPit());
+        }
+        assertThat(board.previewMoves()).isEmpty();
+    }
+
+    @Test
+    void shouldPreviewCapture() {
+        GameBoard gameBoard = new GameBoard(List.of(
+                new PlayerBoard(List.of(4, 9, 4, 4), 0),
+                new PlayerBoard(List.of(4, 4, 4, 4), 0)
+        ), 0);
+
+        // a lap of 9 stones lands in the emptied pit, capturing it and the opposite one
+        MovePreview preview = gameBoard.previewMove(1);
+
+        assertThat(preview).isEqualTo(new MovePreview(1, 0, 1, false, 6, false, List.of(7, 0)));
+        assertThat(gameBoard.getStonesInPit(0, 1)).isEqualTo(9);
+    }
+
+    @Test
+    void shouldRejectPreviewOfMoveWhichCannotBePlayed() {
+        GameBoard gameBoard = new GameBoard(List.of(
+                new PlayerBoard(List.of(0, 1), 0),
+                new PlayerBoard(List.of(1, 1), 0)
+        ), 0);
+
+        assertThrows(IllegalArgumentException.class, () -> gameBoard.previewMove(0));
+        assertThrows(IllegalArgumentException.class, () -> gameBoard.previewMove(2));
+        gameBoard.play(0, 1);
+        assertThrows(IllegalStateException.class, () -> gameBoard.previewMove(1));
+    }
+
+    /**
+     * Sows the stones of a pit one at a time, as the rules describe it.
+     * @return player and pit the last stone lands in
+     */
+    private static int[] land(Board board, int pit) {
+        int mover = board.getCurPlayer();
+        int owner = mover;
+        int pos = pit;
+        for (int stones = board.getStonesInPit(mover, pit); stones > 0; stones--) {
+            pos++;
+            if (pos > board.getPitsPerPlayer() || (pos == board.getPitsPerPlayer() && owner != mover)) {
+                pos = 0;
+                owner = (owner + 1) % board.getNumberOfPlayers();
+            }
+        }
+        return new int[]{owner, pos};
+    }
+
+    private static GameBoard copy(Board board) {
+        List<PlayerBoard> playerBoards = new ArrayList<>();
+        for (int player = 0; player < board.getNumberOfPlayers(); player++) {
+            List<Integer> pits = new ArrayList<>();
+            for (int pit = 0; pit < board.getPitsPerPlayer(); pit++) {
+                pits.add(board.getStonesInPit(player, pit));
+            }
+            playerBoards.add(new PlayerBoard(pits, board.getLargePit(player)));
+        }
+        return new GameBoard(playerBoards, board.getCurPlayer());
+    }
+}
@@ -0,0 +1,107 @@
+package xyz.a5s7.mancala.domain.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.openjdk.jol.info.GraphLayout;
+import xyz.a5s7.mancala.domain.model.statistics.GameSnapshot;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PackedGameBoardTest {
+
+    @ParameterizedTest
+    @CsvSource({"6, 6", "6, 10", "1, 1", "8, 7", "3, 21"})
+    void shouldPlayAsGameBoard(int pits, int stones) {
+        SplittableRandom random = new SplittableRandom(pits * 31L + stones);
+        for (int game = 0; game < 200; game++) {
+            int first = random.nextInt(2);
+            GameBoard expected = new GameBoard(2, pits, stones, first);
+            PackedGameBoard board = new PackedGameBoard(pits, stones, first);
+            while (!expected.isGameFinished()) {
+                int player = expected.getCurPlayer();
+                int pit = random.nextInt(pits);
+                if (expected.getStonesInPit(player, pit) == 0) {
+                    assertThrows(IllegalArgumentException.class, () -> board.play(player, pit));
+                    continue;
+                }
+                expected.play(player, pit);
+                board.play(player, pit);
+
+                assertEquals(expected.getVersion(), board.getVersion());
+                assertEquals(expected.getGameStat(), board.getGameStat());
+            }
+            assertThat(board.isGameFinished()).isTrue();
+        }
+    }
+
+    @Test
+    void shouldRejectMoveOutOfTurn() {
+        PackedGameBoard board = new PackedGameBoard(6, 6, 0);
+
+        assertThrows(IllegalStateException.class, () -> board.play(1, 0));
+        assertThrows(IllegalArgumentException.class, () -> board.play(0, 6));
+        assertEquals(0, board.getVersion());
+    }
+
+    @Test
+    void shouldRejectFinishedGame() {
+        PackedGameBoard board = new PackedGameBoard(1, 1, 0);
+        board.play(0, 0);
+
+        board.getSnapshot();
+
+        assertThat(board.isGameFinished()).isTrue();
+        assertThat(board.isPublishedGameFinished()).isTrue();
+        assertThrows(IllegalStateException.class, () -> board.play(board.getCurPlayer(), 0));
+    }
+
+    @Test
+    void shouldRejectGamesWhichDoNotFit() {
+        assertThat(PackedGameBoard.fits(2, 6, 72)).isTrue();
+        assertThat(PackedGameBoard.fits(3, 6, 72)).isFalse();
+        assertThat(PackedGameBoard.fits(2, 9, 18)).isFalse();
+        assertThat(PackedGameBoard.fits(2, 6, 128)).isFalse();
+        assertThrows(IllegalArgumentException.class, () -> new PackedGameBoard(6, 11, 0));
+        assertThat(Board.of(2, 6, 6, 0)).isInstanceOf(PackedGameBoard.class);
+        assertThat(Board.of(2, 6, 11, 0)).isInstanceOf(GameBoard.class);
+    }
+
+    @Test
+    void shouldTakeFractionOfGameBoardFootprint() {
+        GameBoard gameBoard = new GameBoard(2, 6, 6, 0);
+        gameBoard.play(0, 2);
+        PackedGameBoard board = new PackedGameBoard(6, 6, 0);
+        board.play(0, 2);
+        long packedBytes = GraphLayout.parseInstance(board).totalSize();
+        // a hot game keeps the snapshot of its version
+        gameBoard.getSnapshot();
+        board.getSnapshot();
+
+        long gameBoardBytes = GraphLayout.parseInstance(gameBoard).totalSize();
+        long snapshotBytes = GraphLayout.parseInstance(board).totalSize() - packedBytes;
+
+        assertThat(packedBytes + snapshotBytes).isLessThan(gameBoardBytes);
+    }
+
+    @Test
+    void shouldBuildSnapshotOncePerVersion() {
+        PackedGameBoard board = new PackedGameBoard(6, 6, 0);
+        GameSnapshot first = board.getSnapshot();
+
+        assertThat(board.getSnapshot()).isSameAs(first);
+        assertThat(board.getPublishedSnapshot()).isSameAs(first);
+        assertThat(board.getGameStat()).isSameAs(first.getGameStat());
+
+        board.play(0, 2);
+        // published by the thread which plays
+        assertThat(board.getPublishedSnapshot()).isSameAs(first);
+        GameSnapshot next = board.getSnapshot();
+        assertThat(next.getVersion()).isEqualTo(1);
+        assertThat(board.getPublishedSnapshot()).isSameAs(next);
+    }
+}
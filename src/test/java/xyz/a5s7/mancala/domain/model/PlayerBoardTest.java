@@ -90,6 +90,22 @@ public class PlayerBoardTest {
         assertThat(playerBoard.getLargePit()).isEqualTo(10);
     }
 
+    @Test
+    public void shouldCountStonesInPits() {
+        PlayerBoard playerBoard = new PlayerBoard(List.of(0, 1, 0), 7);
+        assertThat(playerBoard.getStonesInPits()).isEqualTo(1);
+
+        playerBoard.sowStones(0, 4, true);
+        assertThat(playerBoard.getStonesInPits()).isEqualTo(4);
+
+        playerBoard.emptyPit(1);
+        playerBoard.emptyPit(0);
+        playerBoard.emptyPit(2);
+        assertThat(playerBoard.getStonesInPits()).isEqualTo(0);
+        assertThat(playerBoard.hasStones()).isFalse();
+        assertThat(playerBoard.getLargePit()).isEqualTo(8);
+    }
+
     @ParameterizedTest
     @MethodSource("finishingStates")
     public void shouldFinishBoard(final List<Integer> pits, final int largePit, int expectedLargePit, int expectedLeftStones) {
@@ -108,4 +124,17 @@ public class PlayerBoardTest {
                 Arguments.of(List.of(1, 2, 3, 4), 12, 22, 10)
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldKeepHashOfCellsAsStonesMove() {
+        PlayerBoard playerBoard = new PlayerBoard(List.of(0, 1, 5, 70), 12);
+
+        playerBoard.sowStones(1, 4, true);
+        playerBoard.emptyPit(2);
+        playerBoard.captureStones(100);
+        assertThat(playerBoard.getHash()).isEqualTo(new PlayerBoard(List.of(0, 2, 0, 71), 113).getHash());
+
+        playerBoard.finish();
+        assertThat(playerBoard.getHash()).isEqualTo(new PlayerBoard(List.of(0, 0, 0, 0), 186).getHash());
+    }
+}
@@ -0,0 +1,53 @@
+package xyz.a5s7.mancala.domain.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import xyz.a5s7.mancala.domain.model.GamePlayer;
+import xyz.a5s7.mancala.domain.model.statistics.GameSnapshot;
+import xyz.a5s7.mancala.domain.model.statistics.GameStat;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "mancala.ai.think-time=20ms")
+class ComputerPlayerTest {
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private PlayerService playerService;
+
+    @Test
+    void shouldPlayGameAgainstPlayer() {
+        String gameId = gameService.createGameWithComputer();
+        String playerId = playerService.createPlayer("human-" + gameId);
+        GamePlayer human = gameService.registerPlayer(gameId, playerId);
+        assertThat(human.getTurn()).isEqualTo(1);
+
+        while (true) {
+            GameSnapshot snapshot = await().atMost(Duration.ofSeconds(10)).until(
+                    () -> gameService.getGameSnapshot(gameId),
+                    s -> s.getGameStat().isGameOver() || s.getGameStat().getNextPlayer() == human.getTurn());
+            GameStat stat = snapshot.getGameStat();
+            if (stat.isGameOver()) {
+                break;
+            }
+            int pit = stat.getState().get(human.getTurn()).getPits().indexOf(
+                    stat.getState().get(human.getTurn()).getPits().stream().filter(s -> s > 0).findFirst().orElseThrow());
+            gameService.play(gameId, playerId, pit, snapshot.getVersion());
+        }
+        assertThat(gameService.getGameStat(gameId).getLeaderBoard().get(0).getIdx()).isZero();
+    }
+
+    @Test
+    void shouldReserveComputerSeat() {
+        String gameId = gameService.createGame();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> gameService.registerPlayer(gameId, GameService.COMPUTER_PLAYER_ID));
+    }
+}
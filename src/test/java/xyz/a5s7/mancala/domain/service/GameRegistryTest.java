@@ -0,0 +1,413 @@
+package xyz.a5s7.mancala.domain.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import xyz.a5s7.mancala.domain.model.GameBoard;
+import xyz.a5s7.mancala.domain.model.GamePlayer;
+import xyz.a5s7.mancala.domain.model.statistics.GameSnapshot;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GameRegistryTest {
+    private final MutableClock clock = new MutableClock();
+    private final List<String> evicted = new ArrayList<>();
+    private GameRegistry registry;
+    private GameService gameService;
+
+    @AfterEach
+    void tearDown() {
+        registry.shutdown();
+    }
+
+    @Test
+    void shouldCompactIdleGameAndRestoreItOnCommand() {
+        setUp(DataSize.ofMegabytes(1));
+        String gameId = createGameWithPlayers();
+        String playerId = "p" + gameService.getGameStat(gameId).getNextPlayer();
+        GameSnapshot before = gameService.play(gameId, playerId, 0, null);
+
+        clock.advance(Duration.ofMinutes(11));
+        registry.sweep();
+
+        assertThat(registry.getHotCount()).isZero();
+        assertThat(registry.getColdCount()).isEqualTo(1);
+        assertThat(evicted).containsExactly(gameId);
+
+        GameSnapshot restored = gameService.getGameSnapshot(gameId);
+        assertThat(restored.getVersion()).isEqualTo(before.getVersion());
+        assertThat(restored.getGameStat()).isEqualTo(before.getGameStat());
+        assertThat(gameService.getGamePlayer(gameId, "p1")).isEqualTo(new GamePlayer("p1", gameId, 1));
+        assertThat(gameService.isPlayerRegistered(gameId, "p0")).isTrue();
+        // reads do not restore the game
+        assertThat(registry.getHotCount()).isZero();
+        GamePlayer next = gameService.getGamePlayer(gameId, "p" + restored.getGameStat().getNextPlayer());
+        assertThat(gameService.play(gameId, next.getSession(), 1, restored.getVersion()).getVersion())
+                .isEqualTo(before.getVersion() + 1);
+        assertThat(registry.getHotCount()).isEqualTo(1);
+        assertThat(registry.getColdCount()).isZero();
+    }
+
+    @Test
+    void shouldEvictWhenRestoredGamesExceedCapacity() {
+        setUp(DataSize.ofKilobytes(8));
+        List<String> gameIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            gameIds.add(gameService.createGame());
+        }
+        clock.advance(Duration.ofMinutes(11));
+        registry.sweep();
+        assertThat(registry.getHotCount()).isZero();
+
+        for (String gameId : gameIds) {
+            clock.advance(Duration.ofSeconds(1));
+            assertThat(registry.find(gameId)).isNotNull();
+        }
+
+        assertThat(registry.getUsedBytes()).isLessThanOrEqualTo(registry.getCapacityBytes());
+        assertThat(registry.getColdCount()).isPositive();
+        assertThat(gameIds).allMatch(gameService::hasGame);
+    }
+
+    @Test
+    void shouldKeepGameAccessedWithinTtl() {
+        setUp(DataSize.ofMegabytes(1));
+        String gameId = createGameWithPlayers();
+
+        clock.advance(Duration.ofMinutes(9));
+        gameService.getGameSnapshot(gameId);
+        clock.advance(Duration.ofMinutes(9));
+        registry.sweep();
+
+        assertThat(registry.getHotCount()).isEqualTo(1);
+        assertThat(registry.getColdCount()).isZero();
+    }
+
+    @Test
+    void shouldRemoveFinishedGameAfterRetention() {
+        setUp(DataSize.ofMegabytes(1));
+        List<String> expired = new ArrayList<>();
+        registry.setExpiryListener(expired::add);
+        String gameId = gameService.createGame();
+        registry.add("finished", finishedBoard());
+
+        clock.advance(Duration.ofMinutes(1));
+        registry.sweep();
+        assertThat(registry.getHotCount()).isEqualTo(1);
+        assertThat(registry.getColdCount()).isEqualTo(1);
+
+        clock.advance(Duration.ofHours(1));
+        registry.sweep();
+
+        assertThat(registry.contains("finished")).isFalse();
+        assertThat(expired).containsExactly("finished");
+        assertThat(gameService.hasGame(gameId)).isTrue();
+        assertThat(registry.getColdCount()).isEqualTo(1);
+        assertThrows(IllegalArgumentException.class, () -> gameService.getGameSnapshot("finished"));
+    }
+
+    @Test
+    void shouldCompactLeastRecentlyUsedGamesWhenCapacityIsReached() {
+        setUp(DataSize.ofKilobytes(8));
+        List<String> gameIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            gameIds.add(gameService.createGame());
+            clock.advance(Duration.ofSeconds(1));
+        }
+
+        assertThat(registry.getUsedBytes()).isLessThanOrEqualTo(registry.getCapacityBytes());
+        assertThat(registry.getColdCount()).isPositive();
+        assertThat(gameIds).allMatch(gameService::hasGame);
+        // the latest game is the most recently used one
+        assertThat(evicted).doesNotContain(gameIds.get(gameIds.size() - 1));
+        assertThat(evicted).contains(gameIds.get(0));
+    }
+
+    @Test
+    void shouldRemoveFinishedGamesBeforeRefusingNewGames() {
+        setUp(DataSize.ofKilobytes(4));
+        registry.add("finished", finishedBoard());
+        clock.advance(Duration.ofSeconds(1));
+
+        assertThrows(IllegalStateException.class, () -> {
+            for (int i = 0; i < 100; i++) {
+                gameService.createGame();
+                clock.advance(Duration.ofSeconds(1));
+            }
+        });
+        assertThat(registry.contains("finished")).isFalse();
+    }
+
+    @Test
+    void shouldApplyMovesWhileGamesAreCompacted() throws Exception {
+        setUp(DataSize.ofMegabytes(1), Duration.ZERO);
+        String gameId = createGameWithPlayers();
+        ExecutorService executorService = Executors.newFixedThreadPool(3);
+        try {
+            Future<Integer> moves = executorService.submit(() -> {
+                int played = 0;
+                while (!gameService.getGameStat(gameId).isGameOver()) {
+                    int turn = gameService.getGameStat(gameId).getNextPlayer();
+                    for (int pit = 0; pit < 6; pit++) {
+                        try {
+                            gameService.play(gameId, "p" + turn, pit);
+                            played++;
+                            break;
+                        } catch (IllegalArgumentException e) {
+                            // empty pit
+                        }
+                    }
+                }
+                return played;
+            });
+            Future<?> sweeps = executorService.submit(() -> {
+                while (!moves.isDone()) {
+                    registry.sweep();
+                }
+            });
+            int played = moves.get();
+            sweeps.get();
+
+            assertThat(gameService.getGameSnapshot(gameId).getVersion()).isEqualTo(played);
+            assertThat(evicted).isNotEmpty();
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    void shouldExportGamesRestoredDuringExport() {
+        setUp(DataSize.ofMegabytes(1));
+        List<String> gameIds = List.of(createGameWithPlayers(), createGameWithPlayers(), createGameWithPlayers());
+        clock.advance(Duration.ofMinutes(11));
+        registry.sweep();
+        List<String> exported = new ArrayList<>();
+
+        registry.exportGames(game -> {
+            if (exported.isEmpty()) {
+                // the games not exported yet move from the cold tier to the hot one
+                gameIds.forEach(registry::find);
+            }
+            exported.add(game.getGameId());
+        });
+
+        assertThat(exported).containsExactlyInAnyOrderElementsOf(gameIds);
+    }
+
+    @Test
+    void shouldHandOffGamesAndRedirectLaterCommands() {
+        setUp(DataSize.ofMegabytes(1));
+        String hotGameId = createGameWithPlayers();
+        String coldGameId = createGameWithPlayers();
+        String keptGameId = createGameWithPlayers();
+        clock.advance(Duration.ofMinutes(11));
+        registry.sweep();
+        gameService.getGameSnapshot(hotGameId);
+        GameSnapshot before = gameService.getGameSnapshot(hotGameId);
+        List<CompactGame> received = new ArrayList<>();
+
+        int handedOff = registry.handOff(id -> !id.equals(keptGameId), 1, batch -> { }, received::addAll);
+
+        assertThat(handedOff).isEqualTo(2);
+        assertThat(received).extracting(CompactGame::getGameId).containsExactlyInAnyOrder(hotGameId, coldGameId);
+        assertThat(registry.contains(hotGameId)).isFalse();
+        assertThrows(GameMovedException.class, () -> gameService.play(hotGameId, "p0", 0));
+        assertThat(gameService.hasGame(keptGameId)).isTrue();
+
+        GameRegistry other = new GameRegistry();
+        try {
+            received.forEach(other::adopt);
+            GameService otherService = new GameService(List.of(), other);
+            assertThat(otherService.getGameSnapshot(hotGameId).getGameStat()).isEqualTo(before.getGameStat());
+            assertThat(otherService.getGamePlayer(coldGameId, "p1").getTurn()).isEqualTo(1);
+        } finally {
+            other.shutdown();
+        }
+    }
+
+    @Test
+    void shouldHoldCommandsWithoutSpinningWhileGameIsHandedOff() throws Exception {
+        setUp(DataSize.ofMegabytes(1));
+        String gameId = createGameWithPlayers();
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        Thread mover = new Thread(() -> {
+            try {
+                gameService.play(gameId, "p0", 0);
+            } catch (RuntimeException e) {
+                failure.set(e);
+            }
+        });
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        registry.handOff(id -> true, 16, batch -> { }, batch -> {
+            mover.start();
+            await().atMost(Duration.ofSeconds(5)).until(() -> mover.getState() == Thread.State.WAITING);
+            long cpuBefore = threads.getThreadCpuTime(mover.getId());
+            sleep(300);
+            // the command waits for the batch to be received, it does not busy-wait
+            assertThat(threads.getThreadCpuTime(mover.getId()) - cpuBefore).isLessThan(Duration.ofMillis(50).toNanos());
+        });
+        mover.join(5000);
+
+        assertThat(failure.get()).isInstanceOf(GameMovedException.class);
+    }
+
+    @Test
+    void shouldRedirectCommandsForCompactedGameWhileItIsHandedOff() throws Exception {
+        setUp(DataSize.ofMegabytes(1));
+        String gameId = createGameWithPlayers();
+        clock.advance(Duration.ofMinutes(11));
+        registry.sweep();
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        Thread mover = new Thread(() -> {
+            try {
+                gameService.play(gameId, "p0", 0);
+            } catch (RuntimeException e) {
+                failure.set(e);
+            }
+        });
+
+        registry.handOff(id -> true, 16, batch -> { }, batch -> {
+            assertThat(batch).extracting(CompactGame::getGameId).containsExactly(gameId);
+            mover.start();
+            await().atMost(Duration.ofSeconds(5)).until(() -> mover.getState() == Thread.State.WAITING);
+        });
+        mover.join(5000);
+
+        // the game is neither restored here nor reported as missing
+        assertThat(failure.get()).isInstanceOf(GameMovedException.class);
+        assertThat(registry.contains(gameId)).isFalse();
+        assertThat(registry.getUsedBytes()).isZero();
+    }
+
+    @Test
+    void shouldKeepGamesIfReleaseFails() {
+        setUp(DataSize.ofMegabytes(1));
+        String gameId = createGameWithPlayers();
+        List<CompactGame> received = new ArrayList<>();
+
+        assertThrows(IllegalStateException.class, () -> registry.handOff(id -> true, 16, batch -> {
+            throw new IllegalStateException("Journal is not writable");
+        }, received::addAll));
+
+        assertThat(received).isEmpty();
+        assertThat(gameService.getGamePlayer(gameId, "p0").getTurn()).isZero();
+        gameService.play(gameId, "p" + gameService.getGameStat(gameId).getNextPlayer(), 0);
+    }
+
+    @Test
+    void shouldNotPlayReleasedGamesIfReceiverFails() {
+        setUp(DataSize.ofMegabytes(1));
+        String gameId = createGameWithPlayers();
+
+        // the receiver may have taken the games over before failing
+        assertThrows(IllegalStateException.class, () -> registry.handOff(id -> true, 16, batch -> { }, batch -> {
+            throw new IllegalStateException("Node did not answer");
+        }));
+
+        assertThat(registry.contains(gameId)).isFalse();
+        assertThrows(GameMovedException.class, () -> gameService.play(gameId, "p0", 0));
+    }
+
+    @Test
+    void shouldKeepAdoptedGameWhenItIsSentAgain() {
+        setUp(DataSize.ofMegabytes(1));
+        String gameId = createGameWithPlayers();
+        List<CompactGame> received = new ArrayList<>();
+        registry.handOff(id -> true, 16, batch -> { }, received::addAll);
+        GameRegistry other = new GameRegistry();
+        try {
+            GameService otherService = new GameService(List.of(), other);
+            assertThat(other.adoptIfAbsent(received.get(0))).isTrue();
+            otherService.play(gameId, "p" + otherService.getGameStat(gameId).getNextPlayer(), 0);
+
+            assertThat(other.adoptIfAbsent(received.get(0))).isFalse();
+
+            assertThat(otherService.getGameSnapshot(gameId).getVersion()).isEqualTo(1);
+        } finally {
+            other.shutdown();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void setUp(DataSize capacity) {
+        setUp(capacity, Duration.ofMinutes(10));
+    }
+
+    private void setUp(DataSize capacity, Duration idleTtl) {
+        registry = new GameRegistry(capacity, idleTtl, Duration.ofSeconds(30), Duration.ofHours(1), clock);
+        gameService = new GameService(List.of(new GameListener() {
+            @Override
+            public void onGameChanged(String gameId, GameSnapshot snapshot) {
+            }
+
+            @Override
+            public void onGameEvicted(String gameId) {
+                synchronized (evicted) {
+                    evicted.add(gameId);
+                }
+            }
+        }), registry);
+    }
+
+    private String createGameWithPlayers() {
+        String gameId = gameService.createGame();
+        // players are named by their turn
+        gameService.registerPlayer(gameId, "p0");
+        gameService.registerPlayer(gameId, "p1");
+        return gameId;
+    }
+
+    private static GameBoard finishedBoard() {
+        GameBoard board = new GameBoard(2, 1, 1, 0);
+        board.play(0, 0);
+        return board;
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
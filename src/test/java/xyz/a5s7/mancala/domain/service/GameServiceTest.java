@@ -2,11 +2,28 @@ package xyz.a5s7.mancala.domain.service;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import xyz.a5s7.mancala.domain.model.statistics.GameSnapshot;
 import xyz.a5s7.mancala.domain.model.statistics.GameStat;
+import xyz.a5s7.mancala.domain.model.statistics.MoveBatch;
+import xyz.a5s7.mancala.domain.model.statistics.MoveOutcome;
+import xyz.a5s7.mancala.domain.model.statistics.MovePreview;
 import xyz.a5s7.mancala.domain.model.GamePlayer;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 class GameServiceTest {
     private GameService gameService;
@@ -82,6 +99,78 @@ class GameServiceTest {
         assertThat(result).isNotNull();
     }
 
+    @Test
+    public void shouldNotifyListenersOnRegistrationAndMove() {
+        List<Long> versions = new ArrayList<>();
+        gameService = new GameService(List.of((gameId, snapshot) -> versions.add(snapshot.getVersion())));
+        String gameId = gameService.createGame();
+        gameService.registerPlayer(gameId, playerId);
+        gameService.registerPlayer(gameId, "abcd");
+
+        int nextPlayer = gameService.getGameStat(gameId).getNextPlayer();
+        gameService.play(gameId, nextPlayer == 0 ? playerId : "abcd", 0);
+
+        assertThat(versions).containsExactly(0L, 0L, 1L);
+    }
+
+    @Test
+    public void shouldApplyConcurrentMovesOneAtATime() throws Exception {
+        String gameId = gameService.createGame();
+        gameService.registerPlayer(gameId, playerId);
+        gameService.registerPlayer(gameId, "abcd");
+        String[] players = {playerId, "abcd"};
+        int threads = 8;
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger played = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            String player = players[i % 2];
+            futures.add(executorService.submit(() -> {
+                start.await();
+                for (int move = 0; move < 200; move++) {
+                    try {
+                        gameService.play(gameId, player, move % 6);
+                        played.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        assertThat(e.getMessage()).isIn("Not your turn", "Game is finished");
+                    } catch (IllegalArgumentException e) {
+                        assertThat(e.getMessage()).isEqualTo("Pit must have stones");
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executorService.shutdown();
+
+        GameSnapshot snapshot = gameService.getGameSnapshot(gameId);
+        assertThat(snapshot.getVersion()).isEqualTo(played.get());
+        int stones = snapshot.getGameStat().getState().stream()
+                .mapToInt(board -> board.getLargePit() + board.getPits().stream().mapToInt(Integer::intValue).sum())
+                .sum();
+        assertThat(stones).isEqualTo(72);
+    }
+
+    @Test
+    public void shouldPlayOnExpectedVersionOnlyOnce() {
+        String gameId = gameService.createGame();
+        gameService.registerPlayer(gameId, playerId);
+        gameService.registerPlayer(gameId, "abcd");
+        String nextPlayerId = gameService.getGameStat(gameId).getNextPlayer() == 0 ? playerId : "abcd";
+
+        GameSnapshot snapshot = gameService.play(gameId, nextPlayerId, 0, 0L);
+        assertThat(snapshot.getVersion()).isEqualTo(1);
+
+        var conflict = assertThrows(GameVersionConflictException.class,
+                () -> gameService.play(gameId, nextPlayerId, 0, 0L));
+        assertThat(conflict.getCurrent()).isEqualTo(snapshot);
+        assertThat(gameService.getGameSnapshot(gameId).getVersion()).isEqualTo(1);
+    }
+
     @Test
     public void shouldThrowExceptionIfNotEnoughPlayers() {
         String gameId = gameService.createGame();
@@ -101,4 +190,151 @@ class GameServiceTest {
 
         assertThrows(IllegalArgumentException.class, () -> gameService.play(gameId, "nonexistentPlayer", 0));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldPlayBySession() {
+        String gameId = gameService.createGame();
+        List<GamePlayer> players = List.of(gameService.registerPlayer(gameId, playerId),
+                gameService.registerPlayer(gameId, "abcd"));
+        GamePlayer next = players.get(gameService.getGameStat(gameId).getNextPlayer());
+
+        GameSnapshot result = gameService.play(gameId, next.getSession(), 5, 0L);
+
+        assertThat(result.getVersion()).isEqualTo(1);
+        assertThat(GamePlayer.turnOf(next.getSession())).isEqualTo(next.getTurn());
+        assertThat(gameService.getGamePlayer(gameId, next.getPlayerId())).isEqualTo(next);
+    }
+
+    @Test
+    public void shouldRejectSessionOfAnotherGameOrForged() {
+        String gameId = gameService.createGame();
+        String otherGameId = gameService.createGame();
+        GamePlayer player = gameService.registerPlayer(gameId, playerId);
+        gameService.registerPlayer(gameId, "abcd");
+        gameService.registerPlayer(otherGameId, playerId);
+        gameService.registerPlayer(otherGameId, "abcd");
+
+        assertThrows(IllegalArgumentException.class, () -> gameService.play(otherGameId, player.getSession(), 0, null));
+        assertThrows(IllegalArgumentException.class, () -> gameService.play(gameId, player.getSession() ^ 8, 0, null));
+        assertThrows(IllegalArgumentException.class, () -> gameService.play(gameId, player.getSession() | 7, 0, null));
+    }
+
+    @Test
+    public void shouldRegisterOnlyCreatedPlayers() {
+        PlayerService playerService = new PlayerService();
+        gameService = new GameService(List.of(), new GameRegistry(), GameJournal.NONE, new GameShards(), playerService);
+        String gameId = gameService.createGame();
+        String created = playerService.createPlayer("Anton");
+
+        assertThat(gameService.registerPlayer(gameId, created).getPlayerId()).isEqualTo(created);
+        assertThrows(IllegalArgumentException.class, () -> gameService.registerPlayer(gameId, "Anton"));
+        assertThat(gameService.isPlayerRegistered(gameId, "Anton")).isFalse();
+    }
+
+    @Test
+    public void shouldCreateGameOfPlayers() {
+        List<GamePlayer> players = gameService.createGame(List.of("a", "b", "c", "d", "e", "f"));
+
+        String gameId = players.get(0).getGameId();
+        assertThat(players).extracting(GamePlayer::getTurn).containsExactly(0, 1, 2, 3, 4, 5);
+        assertThat(gameService.getGameStat(gameId).getState()).hasSize(6);
+        assertThat(gameService.getGameSnapshot(gameId).getVersion()).isZero();
+        assertThat(gameService.getGamePlayer(gameId, "f")).isEqualTo(players.get(5));
+        assertThrows(IllegalArgumentException.class, () -> gameService.createGame(List.of("a")));
+        assertThrows(IllegalArgumentException.class, () -> gameService.createGame(List.of("a", "a")));
+    }
+
+    @Test
+    public void shouldPreviewMovesWithoutPlayingThem() {
+        String gameId = gameService.createGame();
+
+        List<MovePreview> previews = gameService.previewMoves(gameId);
+
+        assertThat(previews).extracting(MovePreview::getPit).containsExactly(0, 1, 2, 3, 4, 5);
+        // the last stone of pit 0 lands in the store
+        assertThat(previews.get(0).isExtraTurn()).isTrue();
+        assertThat(gameService.getGameSnapshot(gameId).getVersion()).isZero();
+    }
+
+    @Test
+    public void shouldNotPlayMoveWhichJournalFailsToRecord() {
+        GameJournal journal = mock(GameJournal.class);
+        GameRegistry registry = new GameRegistry();
+        try {
+            gameService = new GameService(List.of(), registry, journal);
+            String gameId = gameService.createGame();
+            gameService.registerPlayer(gameId, "p0");
+            gameService.registerPlayer(gameId, "p1");
+            int turn = gameService.getGameStat(gameId).getNextPlayer();
+            String mover = "p" + turn;
+            when(journal.appendMove(gameId, turn, 0, 1)).thenThrow(new IllegalStateException("Journal segment is full"));
+
+            assertThrows(IllegalStateException.class, () -> gameService.play(gameId, mover, 0, 0L));
+            assertThat(gameService.getGameSnapshot(gameId).getVersion()).isZero();
+
+            // the move is played once the journal records it, at the version the player has seen
+            reset(journal);
+            assertThat(gameService.play(gameId, mover, 0, 0L).getVersion()).isEqualTo(1);
+            verify(journal).appendMove(gameId, turn, 0, 1);
+        } finally {
+            registry.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldStopMovesAtFirstMoveJournalFailsToRecord() {
+        GameJournal journal = mock(GameJournal.class);
+        GameRegistry registry = new GameRegistry();
+        try {
+            gameService = new GameService(List.of(), registry, journal);
+            String gameId = gameService.createGame();
+            gameService.registerPlayer(gameId, "p0");
+            gameService.registerPlayer(gameId, "p1");
+            int turn = gameService.getGameStat(gameId).getNextPlayer();
+            String mover = "p" + turn;
+            when(journal.appendMove(gameId, turn, 1, 2)).thenThrow(new IllegalStateException("Journal segment is full"));
+
+            // the last stone of pit 0 lands in the store
+            MoveBatch batch = gameService.playMoves(gameId, mover, List.of(0, 1, 2), 0L);
+
+            assertThat(batch.getMoves()).extracting(MoveOutcome::getStatus).containsExactly(
+                    MoveOutcome.Status.PLAYED, MoveOutcome.Status.FAILED, MoveOutcome.Status.SKIPPED);
+            assertThat(batch.getVersion()).isEqualTo(1);
+            assertThat(gameService.getGameSnapshot(gameId).getVersion()).isEqualTo(1);
+        } finally {
+            registry.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldPlayMovesWhilePlayerKeepsTurn() {
+        String gameId = gameService.createGame();
+        gameService.registerPlayer(gameId, "p0");
+        gameService.registerPlayer(gameId, "p1");
+        String mover = "p" + gameService.getGameStat(gameId).getNextPlayer();
+
+        // the last stone of pit 0 lands in the store, pit 1 passes the turn
+        MoveBatch batch = gameService.playMoves(gameId, mover, List.of(0, 1, 2), 0L);
+
+        assertThat(batch.getMoves()).extracting(MoveOutcome::getStatus).containsExactly(
+                MoveOutcome.Status.PLAYED, MoveOutcome.Status.TURN_OVER, MoveOutcome.Status.SKIPPED);
+        assertThat(batch.getVersion()).isEqualTo(2);
+        assertThat(gameService.getGameSnapshot(gameId)).isEqualTo(new GameSnapshot(2, batch.getGameStat()));
+    }
+
+    @Test
+    public void shouldStopMovesAtFirstInvalidOne() {
+        String gameId = gameService.createGame();
+        gameService.registerPlayer(gameId, "p0");
+        gameService.registerPlayer(gameId, "p1");
+        String mover = "p" + gameService.getGameStat(gameId).getNextPlayer();
+
+        assertThrows(IllegalArgumentException.class, () -> gameService.playMoves(gameId, mover, List.of(6, 0), null));
+        MoveBatch batch = gameService.playMoves(gameId, mover, List.of(0, 0, 1), null);
+
+        assertThat(batch.getMoves()).containsExactly(new MoveOutcome(0, MoveOutcome.Status.PLAYED, null),
+                new MoveOutcome(0, MoveOutcome.Status.FAILED, "Pit must have stones"),
+                new MoveOutcome(1, MoveOutcome.Status.SKIPPED, null));
+        assertThat(batch.getVersion()).isEqualTo(1);
+    }
+}
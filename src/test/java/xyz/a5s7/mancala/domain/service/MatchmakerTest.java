@@ -0,0 +1,118 @@
+package xyz.a5s7.mancala.domain.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import xyz.a5s7.mancala.domain.model.GamePlayer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MatchmakerTest {
+    private final GameService gameService = new GameService();
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private final Matchmaker matchmaker =
+            new Matchmaker(gameService, PlayerDirectory.ANY, meters, 16, Duration.ofMinutes(1));
+
+    @AfterEach
+    void tearDown() {
+        matchmaker.shutdown();
+    }
+
+    @Test
+    void shouldMatchPlayersWaitingForSameNumberOfPlayers() throws Exception {
+        CompletableFuture<GamePlayer> a = matchmaker.enqueue("a", 3);
+        CompletableFuture<GamePlayer> b = matchmaker.enqueue("b", 2);
+        CompletableFuture<GamePlayer> c = matchmaker.enqueue("c", 3);
+        CompletableFuture<GamePlayer> d = matchmaker.enqueue("d", 2);
+
+        GamePlayer playerB = b.get(5, TimeUnit.SECONDS);
+        GamePlayer playerD = d.get(5, TimeUnit.SECONDS);
+        assertThat(playerD.getGameId()).isEqualTo(playerB.getGameId());
+        assertThat(List.of(playerB.getTurn(), playerD.getTurn())).containsExactly(0, 1);
+        assertThat(gameService.getGameStat(playerB.getGameId()).getState()).hasSize(2);
+        assertThat(a).isNotDone();
+
+        CompletableFuture<GamePlayer> e = matchmaker.enqueue("e", 3);
+
+        String gameId = a.get(5, TimeUnit.SECONDS).getGameId();
+        assertThat(c.get(5, TimeUnit.SECONDS).getGameId()).isEqualTo(gameId);
+        assertThat(e.get(5, TimeUnit.SECONDS).getGameId()).isEqualTo(gameId);
+        assertThat(gameService.isPlayerRegistered(gameId, "e")).isTrue();
+        assertThat(matchmaker.getMatch("e")).isSameAs(e);
+        assertThat(meters.get("mancala.matchmaking.games").tag("players", "3").counter().count()).isEqualTo(1);
+        assertThat(meters.get("mancala.matchmaking.wait").timer().count()).isEqualTo(5);
+        assertThat(meters.get("mancala.matchmaking.waiting").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldKeepPlaceOfPlayerWaitingAgain() {
+        CompletableFuture<GamePlayer> first = matchmaker.enqueue("a", 2);
+
+        assertThat(matchmaker.enqueue("a", 2)).isSameAs(first);
+        assertThrows(IllegalStateException.class, () -> matchmaker.enqueue("a", 4));
+        assertThrows(IllegalArgumentException.class, () -> matchmaker.enqueue("b", 7));
+    }
+
+    @Test
+    void shouldNotMatchCancelledPlayer() throws Exception {
+        CompletableFuture<GamePlayer> a = matchmaker.enqueue("a", 2);
+        assertThat(matchmaker.cancel("a")).isTrue();
+        assertThat(a).isCancelled();
+        assertThat(matchmaker.getMatch("a")).isNull();
+
+        CompletableFuture<GamePlayer> b = matchmaker.enqueue("b", 2);
+        CompletableFuture<GamePlayer> c = matchmaker.enqueue("c", 2);
+
+        assertThat(b.get(5, TimeUnit.SECONDS).getGameId()).isEqualTo(c.get(5, TimeUnit.SECONDS).getGameId());
+        assertThat(matchmaker.cancel("b")).isFalse();
+    }
+
+    @Test
+    void shouldMatchEveryPlayerOnceWhenEnqueuedConcurrently() throws Exception {
+        int threads = 8;
+        int playersPerThread = 600;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<CompletableFuture<GamePlayer>>>> enqueued = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                enqueued.add(executor.submit(() -> {
+                    List<CompletableFuture<GamePlayer>> matches = new ArrayList<>();
+                    for (int i = 0; i < playersPerThread; i++) {
+                        // 600 players of each thread fill games of 2, 3, 4, 5 and 6 players
+                        matches.add(matchmaker.enqueue(thread + "-" + i, 2 + i % 5));
+                    }
+                    return matches;
+                }));
+            }
+            Map<String, Set<Integer>> turns = new HashMap<>();
+            for (Future<List<CompletableFuture<GamePlayer>>> matches : enqueued) {
+                for (CompletableFuture<GamePlayer> match : matches.get(10, TimeUnit.SECONDS)) {
+                    GamePlayer player = match.get(10, TimeUnit.SECONDS);
+                    assertThat(turns.computeIfAbsent(player.getGameId(), id -> new HashSet<>()).add(player.getTurn()))
+                            .isTrue();
+                }
+            }
+            for (Map.Entry<String, Set<Integer>> game : turns.entrySet()) {
+                assertThat(game.getValue()).hasSize(gameService.getGameStat(game.getKey()).getState().size());
+            }
+            assertThat(meters.get("mancala.matchmaking.wait").timer().count()).isEqualTo(threads * playersPerThread);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package xyz.a5s7.mancala.domain.service;
+
+import org.junit.jupiter.api.Test;
+import xyz.a5s7.mancala.domain.model.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PlayerServiceTest {
+    private final PlayerService playerService = new PlayerService();
+
+    @Test
+    void shouldFindCreatedPlayerByIdAndName() {
+        String id = playerService.createPlayer("Anton");
+
+        Player player = playerService.getPlayerByName("Anton");
+
+        assertThat(player).isEqualTo(new Player(id, "Anton"));
+        assertThat(playerService.getPlayer(id)).isSameAs(player);
+        assertThat(playerService.isRegistered(id)).isTrue();
+        assertThat(playerService.isRegistered("Anton")).isFalse();
+    }
+
+    @Test
+    void shouldRejectEmptyOrTakenName() {
+        playerService.createPlayer("Anton");
+
+        assertThrows(IllegalArgumentException.class, () -> playerService.createPlayer(" "));
+        assertThrows(IllegalArgumentException.class, () -> playerService.createPlayer("Anton"));
+    }
+
+    @Test
+    void shouldCreateOnePlayerOfNameCreatedConcurrently() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> ids = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                ids.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        return playerService.createPlayer("Anton");
+                    } catch (IllegalArgumentException e) {
+                        return null;
+                    }
+                }));
+            }
+            start.countDown();
+            List<String> created = new ArrayList<>();
+            for (Future<String> id : ids) {
+                String playerId = id.get(10, TimeUnit.SECONDS);
+                if (playerId != null) {
+                    created.add(playerId);
+                }
+            }
+
+            assertThat(created).hasSize(1);
+            assertThat(playerService.getPlayerByName("Anton").getId()).isEqualTo(created.get(0));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldNotIndexIdOfPlayerWhoseNameIsTaken() {
+        PlayerRegistry registry = new PlayerRegistry();
+        Player first = new Player("id-1", "Anton");
+
+        assertThat(registry.add(first)).isNull();
+        assertThat(registry.add(new Player("id-2", "Anton"))).isSameAs(first);
+
+        assertThat(registry.getById("id-1")).isSameAs(first);
+        assertThat(registry.getById("id-2")).isNull();
+        assertThat(registry.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldAcceptAnyIdUnlessVerified() {
+        PlayerService unverified = new PlayerService(new PlayerRegistry(), false);
+
+        assertThat(unverified.isRegistered("unknown")).isTrue();
+        assertThat(playerService.isRegistered("unknown")).isFalse();
+    }
+
+    @Test
+    void shouldAcceptAnyIdInClusterOrWithJournalUnlessVerified() {
+        GameShards clustered = new GameShards("http://node-a:8080", List.of("http://node-b:8080"));
+
+        assertThat(new PlayerService(new PlayerRegistry(), clustered, null, false).isRegistered("unknown")).isTrue();
+        assertThat(new PlayerService(new PlayerRegistry(), new GameShards(), null, true).isRegistered("unknown"))
+                .isTrue();
+        assertThat(new PlayerService(new PlayerRegistry(), new GameShards(), null, false).isRegistered("unknown"))
+                .isFalse();
+        assertThat(new PlayerService(new PlayerRegistry(), clustered, true, true).isRegistered("unknown")).isFalse();
+    }
+}
@@ -0,0 +1,67 @@
+package xyz.a5s7.mancala.domain.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ShardRingTest {
+    private static final int GAMES = 100_000;
+    private static final List<String> NODES =
+            List.of("http://node-0:8080", "http://node-1:8080", "http://node-2:8080", "http://node-3:8080");
+
+    @Test
+    void shouldSpreadGamesEvenly() {
+        ShardRing ring = new ShardRing(NODES);
+        Map<String, Integer> games = new HashMap<>();
+        for (int i = 0; i < GAMES; i++) {
+            games.merge(ring.owner(UUID.randomUUID().toString()), 1, Integer::sum);
+        }
+
+        assertThat(games).hasSize(NODES.size());
+        assertThat(games.values()).allSatisfy(count -> assertThat(count).isBetween(GAMES / 4 * 3 / 4, GAMES / 4 * 5 / 4));
+    }
+
+    @Test
+    void shouldMoveGamesOnlyToJoiningNode() {
+        ShardRing ring = new ShardRing(NODES);
+        ShardRing joined = ring.withNode("http://node-4:8080");
+        int moved = 0;
+        for (int i = 0; i < GAMES; i++) {
+            String gameId = UUID.randomUUID().toString();
+            String owner = ring.owner(gameId);
+            String newOwner = joined.owner(gameId);
+            if (!owner.equals(newOwner)) {
+                assertThat(newOwner).isEqualTo("http://node-4:8080");
+                moved++;
+            }
+        }
+
+        assertThat(moved).isBetween(GAMES / 5 * 3 / 4, GAMES / 5 * 5 / 4);
+    }
+
+    @Test
+    void shouldNotDependOnOrderOfNodes() {
+        ShardRing ring = new ShardRing(NODES);
+        List<String> nodes = new ArrayList<>(NODES);
+        Collections.reverse(nodes);
+        ShardRing reversed = new ShardRing(nodes);
+
+        for (int i = 0; i < 1000; i++) {
+            String gameId = UUID.randomUUID().toString();
+            assertThat(reversed.owner(gameId)).isEqualTo(ring.owner(gameId));
+        }
+    }
+
+    @Test
+    void shouldRejectEmptyRing() {
+        assertThrows(IllegalArgumentException.class, () -> new ShardRing(List.of()));
+    }
+}
@@ -0,0 +1,92 @@
+package xyz.a5s7.mancala.engine;
+
+import org.junit.jupiter.api.Test;
+import xyz.a5s7.mancala.domain.model.GameBoard;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AlphaBetaSearchTest {
+    private final AlphaBetaSearch search = new AlphaBetaSearch(new TranspositionTable(1 << 16));
+
+    @Test
+    void shouldSolveEndgamesAsMinimax() {
+        SplittableRandom random = new SplittableRandom(7);
+        int[] moves = new int[4];
+        for (int game = 0; game < 50; game++) {
+            SearchBoard board = SearchBoard.of(new GameBoard(2, 4, 3, random.nextInt(2)));
+            while (!board.isFinished() && board.getStonesInPits(0) + board.getStonesInPits(1) > 9) {
+                board.play(moves[random.nextInt(board.moves(moves))]);
+            }
+            if (board.isFinished()) {
+                continue;
+            }
+            long hash = board.getHash();
+
+            SearchResult result = search.search(board, 64, Long.MAX_VALUE);
+
+            int expected = minimax(board);
+            assertEquals(expected, result.getScore());
+            assertEquals(hash, board.getHash());
+            int player = board.getCurPlayer();
+            board.play(result.getPit());
+            int score = board.getCurPlayer() == player ? minimax(board) : -minimax(board);
+            assertEquals(expected, score);
+        }
+    }
+
+    @Test
+    void shouldCaptureStones() {
+        int[] cells = {
+                1, 0, 5, 0,
+                0, 10, 1, 0
+        };
+        SearchBoard board = new SearchBoard(2, 3, cells, 0, false);
+
+        SearchResult result = search.search(board, 8, Long.MAX_VALUE);
+
+        assertThat(result.getPit()).isZero();
+        assertThat(result.getScore()).isPositive();
+    }
+
+    @Test
+    void shouldCompleteFirstIterationWithinAnyBudget() {
+        SearchBoard board = SearchBoard.of(new GameBoard(2, 6, 6, 0));
+
+        SearchResult result = search.search(board, 64, 0);
+
+        assertThat(result.getDepth()).isPositive();
+        assertThat(result.getPit()).isBetween(0, 5);
+        assertThat(result.getNodes()).isPositive();
+    }
+
+    @Test
+    void shouldSearchOnlyGamesOfTwoPlayers() {
+        SearchBoard board = SearchBoard.of(new GameBoard(3, 6, 6, 0));
+
+        assertThrows(IllegalArgumentException.class, () -> search.search(board, 4, Long.MAX_VALUE));
+    }
+
+    /**
+     * @return score of the game played to the end by both players, without pruning
+     */
+    static int minimax(SearchBoard board) {
+        if (board.isFinished()) {
+            return AlphaBetaSearch.evaluate(board);
+        }
+        int[] moves = new int[board.getPitsPerPlayer()];
+        int count = board.moves(moves);
+        int player = board.getCurPlayer();
+        int best = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            board.play(moves[i]);
+            int score = board.getCurPlayer() == player ? minimax(board) : -minimax(board);
+            board.undo();
+            best = Math.max(best, score);
+        }
+        return best;
+    }
+}
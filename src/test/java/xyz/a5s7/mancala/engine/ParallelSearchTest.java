@@ -0,0 +1,77 @@
+package xyz.a5s7.mancala.engine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import xyz.a5s7.mancala.domain.model.GameBoard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ParallelSearchTest {
+    private final ParallelSearch search = new ParallelSearch(new TranspositionTable(1 << 16), 4);
+
+    @AfterEach
+    void tearDown() {
+        search.shutdown();
+    }
+
+    @Test
+    void shouldSolveEndgamesAsSequentialSearch() {
+        SplittableRandom random = new SplittableRandom(11);
+        int[] moves = new int[4];
+        for (int game = 0; game < 50; game++) {
+            SearchBoard board = SearchBoard.of(new GameBoard(2, 4, 3, random.nextInt(2)));
+            while (!board.isFinished() && board.getStonesInPits(0) + board.getStonesInPits(1) > 9) {
+                board.play(moves[random.nextInt(board.moves(moves))]);
+            }
+            if (board.isFinished()) {
+                continue;
+            }
+            SearchResult expected = new AlphaBetaSearch(new TranspositionTable(1 << 16))
+                    .search(board, 64, Long.MAX_VALUE);
+
+            SearchResult result = search.search(board, 64, Long.MAX_VALUE);
+
+            assertEquals(expected.getScore(), result.getScore());
+            SearchResult played = scoreOf(board, result.getPit());
+            assertEquals(expected.getScore(), played.getScore());
+        }
+    }
+
+    @Test
+    void shouldSearchPositionsConcurrently() {
+        List<CompletableFuture<SearchResult>> results = new ArrayList<>();
+        for (int first = 0; first < 2; first++) {
+            for (int i = 0; i < 4; i++) {
+                SearchBoard board = SearchBoard.of(new GameBoard(2, 6, 4, first));
+                results.add(CompletableFuture.supplyAsync(() -> search.search(board, 8, Long.MAX_VALUE)));
+            }
+        }
+
+        for (CompletableFuture<SearchResult> result : results) {
+            assertThat(result.join().getDepth()).isEqualTo(8);
+            assertThat(result.join().getPit()).isBetween(0, 5);
+        }
+    }
+
+    /**
+     * @return result of the sequential search after a move, scored for the player who made it
+     */
+    private static SearchResult scoreOf(SearchBoard board, int pit) {
+        SearchBoard next = board.copy();
+        int player = next.getCurPlayer();
+        next.play(pit);
+        if (next.isFinished()) {
+            int score = AlphaBetaSearch.evaluate(next);
+            return new SearchResult(-1, next.getCurPlayer() == player ? score : -score, 0, 0, 0);
+        }
+        SearchResult result = new AlphaBetaSearch(new TranspositionTable(1 << 16)).search(next, 64, Long.MAX_VALUE);
+        int score = next.getCurPlayer() == player ? result.getScore() : -result.getScore();
+        return new SearchResult(result.getPit(), score, result.getDepth(), result.getNodes(), 0);
+    }
+}
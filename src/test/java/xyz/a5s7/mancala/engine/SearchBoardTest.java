@@ -0,0 +1,87 @@
+package xyz.a5s7.mancala.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import xyz.a5s7.mancala.domain.model.GameBoard;
+import xyz.a5s7.mancala.domain.model.Zobrist;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SearchBoardTest {
+
+    @ParameterizedTest
+    @CsvSource({"2, 6, 6", "2, 1, 1", "2, 3, 21", "3, 4, 5", "6, 2, 30", "4, 6, 80"})
+    void shouldPlayAsGameBoardAndTakeMovesBack(int players, int pits, int stones) {
+        SplittableRandom random = new SplittableRandom(players * 961L + pits * 31L + stones);
+        int[] moves = new int[pits];
+        for (int game = 0; game < 100; game++) {
+            GameBoard expected = new GameBoard(players, pits, stones, random.nextInt(players));
+            SearchBoard board = SearchBoard.of(expected);
+            List<int[]> positions = new ArrayList<>();
+            List<Long> hashes = new ArrayList<>();
+            while (!expected.isGameFinished()) {
+                positions.add(cells(board));
+                hashes.add(board.getHash());
+                int count = board.moves(moves);
+                int pit = moves[random.nextInt(count)];
+                boolean extraTurn = board.isExtraTurn(pit);
+                int player = expected.getCurPlayer();
+
+                expected.play(player, pit);
+                board.play(pit);
+
+                assertPosition(expected, board);
+                if (!board.isFinished()) {
+                    assertEquals(extraTurn, board.getCurPlayer() == player);
+                }
+                assertEquals(Zobrist.hash(cells(board), board.getCurPlayer()), board.getHash());
+            }
+            assertThat(board.moves(moves)).isZero();
+            for (int i = positions.size() - 1; i >= 0; i--) {
+                board.undo();
+
+                assertThat(cells(board)).isEqualTo(positions.get(i));
+                assertEquals(hashes.get(i), board.getHash());
+                assertThat(board.isFinished()).isFalse();
+            }
+        }
+    }
+
+    @Test
+    void shouldRejectIllegalMoves() {
+        SearchBoard board = SearchBoard.of(new GameBoard(2, 6, 6, 0));
+
+        assertThrows(IllegalArgumentException.class, () -> board.play(6));
+        assertThrows(IllegalStateException.class, board::undo);
+        board.play(0);
+        assertThrows(IllegalArgumentException.class, () -> board.play(0));
+    }
+
+    private static void assertPosition(GameBoard expected, SearchBoard board) {
+        assertEquals(expected.getCurPlayer(), board.getCurPlayer());
+        assertEquals(expected.isGameFinished(), board.isFinished());
+        assertThat(cells(board)).isEqualTo(cells(SearchBoard.of(expected.getGameStat())));
+    }
+
+    /**
+     * @return pits of each player followed by the big pit
+     */
+    private static int[] cells(SearchBoard board) {
+        int pits = board.getPitsPerPlayer();
+        int[] cells = new int[board.getNumberOfPlayers() * (pits + 1)];
+        for (int player = 0; player < board.getNumberOfPlayers(); player++) {
+            for (int pit = 0; pit < pits; pit++) {
+                cells[player * (pits + 1) + pit] = board.getStonesInPit(player, pit);
+            }
+            cells[player * (pits + 1) + pits] = board.getLargePit(player);
+        }
+        return cells;
+    }
+}
@@ -0,0 +1,122 @@
+package xyz.a5s7.mancala.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import xyz.a5s7.mancala.domain.model.GameBoard;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TablebaseTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldIndexEveryPositionOnce() {
+        PositionIndex index = new PositionIndex(2, 5);
+        Set<Long> ranks = new HashSet<>();
+        int[] cells = new int[6];
+        for (int a = 0; a <= 5; a++) {
+            for (int b = 0; a + b <= 5; b++) {
+                for (int c = 0; a + b + c <= 5; c++) {
+                    for (int d = 0; a + b + c + d <= 5; d++) {
+                        cells[0] = a;
+                        cells[1] = b;
+                        cells[3] = c;
+                        cells[4] = d;
+                        long rank = index.rank(new SearchBoard(2, 2, cells, 0, false));
+                        assertThat(rank).isBetween(0L, index.size() - 1);
+                        assertThat(ranks.add(rank)).isTrue();
+                    }
+                }
+            }
+        }
+        assertThat(ranks).hasSize((int) index.size());
+    }
+
+    @Test
+    void shouldScoreEndgamesAsMinimax() throws IOException {
+        Path file = dir.resolve("3-9.tb");
+        long size = TablebaseGenerator.generate(file, 3, 9);
+        assertEquals(Tablebase.HEADER + size, Files.size(file));
+
+        try (Tablebase tablebase = Tablebase.open(file)) {
+            assertThat(tablebase.size()).isEqualTo(size);
+            SplittableRandom random = new SplittableRandom(3);
+            int[] moves = new int[3];
+            int probed = 0;
+            for (int game = 0; game < 100; game++) {
+                SearchBoard board = SearchBoard.of(new GameBoard(2, 3, 3, random.nextInt(2)));
+                while (!board.isFinished()) {
+                    if (tablebase.contains(board)) {
+                        assertEquals(AlphaBetaSearchTest.minimax(board), tablebase.probe(board));
+                        probed++;
+                    }
+                    board.play(moves[random.nextInt(board.moves(moves))]);
+                }
+            }
+            assertThat(probed).isGreaterThan(100);
+        }
+    }
+
+    @Test
+    void shouldSearchWithTablebase() throws IOException {
+        Path file = dir.resolve("4-8.tb");
+        TablebaseGenerator.generate(file, 4, 8);
+        try (Tablebase tablebase = Tablebase.open(file)) {
+            SplittableRandom random = new SplittableRandom(5);
+            int[] moves = new int[4];
+            for (int game = 0; game < 20; game++) {
+                SearchBoard board = SearchBoard.of(new GameBoard(2, 4, 3, random.nextInt(2)));
+                while (!board.isFinished() && board.getStonesInPits(0) + board.getStonesInPits(1) > 11) {
+                    board.play(moves[random.nextInt(board.moves(moves))]);
+                }
+                if (board.isFinished()) {
+                    continue;
+                }
+                SearchResult expected = new AlphaBetaSearch(new TranspositionTable(1 << 12))
+                        .search(board, 64, Long.MAX_VALUE);
+                AlphaBetaSearch search = new AlphaBetaSearch(new TranspositionTable(1 << 12), tablebase);
+
+                SearchResult result = search.search(board, 64, Long.MAX_VALUE);
+
+                assertEquals(expected.getScore(), result.getScore());
+                assertThat(result.getNodes()).isLessThanOrEqualTo(expected.getNodes());
+            }
+        }
+    }
+
+    @Test
+    void shouldRejectOtherFiles() throws IOException {
+        Path file = dir.resolve("other.tb");
+        Files.write(file, new byte[]{1, 2, 3});
+        assertThrows(IOException.class, () -> Tablebase.open(file));
+
+        Path truncated = dir.resolve("truncated.tb");
+        TablebaseGenerator.generate(truncated, 2, 4);
+        byte[] bytes = Files.readAllBytes(truncated);
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> Tablebase.open(truncated));
+    }
+
+    @Test
+    void shouldRejectPositionsNotInTablebase() throws IOException {
+        Path file = dir.resolve("2-4.tb");
+        TablebaseGenerator.generate(file, 2, 4);
+        try (Tablebase tablebase = Tablebase.open(file)) {
+            SearchBoard board = SearchBoard.of(new GameBoard(2, 2, 3, 0));
+
+            assertThat(tablebase.contains(board)).isFalse();
+            assertThrows(IllegalArgumentException.class, () -> tablebase.probe(board));
+        }
+    }
+}
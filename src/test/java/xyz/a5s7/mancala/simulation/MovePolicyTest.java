@@ -0,0 +1,34 @@
+package xyz.a5s7.mancala.simulation;
+
+import org.junit.jupiter.api.Test;
+import xyz.a5s7.mancala.domain.model.GameBoard;
+import xyz.a5s7.mancala.domain.model.PlayerBoard;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class MovePolicyTest {
+
+    @Test
+    void shouldChoosePitsWithStonesUniformly() {
+        GameBoard board = new GameBoard(List.of(
+                new PlayerBoard(List.of(0, 5, 0, 0, 0, 5), 0),
+                new PlayerBoard(List.of(4, 4, 4, 4, 4, 4), 0)
+        ), 0);
+        SplittableRandom random = new SplittableRandom(42);
+        int draws = 60_000;
+        int[] chosen = new int[6];
+
+        for (int i = 0; i < draws; i++) {
+            chosen[MovePolicy.RANDOM.choose(board, random)]++;
+        }
+
+        // a pit after a run of empty pits is not favoured
+        assertThat((double) chosen[1] / draws).isCloseTo(0.5, within(0.01));
+        assertThat((double) chosen[5] / draws).isCloseTo(0.5, within(0.01));
+        assertThat(chosen[0] + chosen[2] + chosen[3] + chosen[4]).isZero();
+    }
+}
@@ -0,0 +1,75 @@
+package xyz.a5s7.mancala.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SelfPlaySimulatorTest {
+    private final List<SimulationConfig> configs = List.of(
+            new SimulationConfig(2, 6, 6, 10_000),
+            new SimulationConfig(3, 4, 3, 5_000),
+            new SimulationConfig(6, 2, 20, 1_000));
+
+    @Test
+    void shouldReproduceStatsFromSeedOnAnyNumberOfThreads() {
+        String single = csv(new SelfPlaySimulator(MovePolicy.RANDOM, 1).run(configs, 42));
+        String parallel = csv(new SelfPlaySimulator(MovePolicy.RANDOM, 4).run(configs, 42));
+        String other = csv(new SelfPlaySimulator(MovePolicy.RANDOM, 4).run(configs, 43));
+
+        assertThat(parallel).isEqualTo(single);
+        assertThat(other).isNotEqualTo(single);
+    }
+
+    @Test
+    void shouldCollectStatsOfEveryVariant() {
+        List<SimulationStats> stats = new SelfPlaySimulator(MovePolicy.RANDOM, 2).run(configs, 7);
+
+        assertThat(stats).extracting(SimulationStats::getConfig).isEqualTo(configs);
+        for (SimulationStats s : stats) {
+            assertThat(s.getGames()).isEqualTo(s.getConfig().getGames());
+            assertThat(s.getAverageLength()).isGreaterThan(1);
+            assertThat(s.getFirstPlayerWinRate() + s.getDrawRate()).isBetween(0.0, 1.0);
+            assertThat(s.getCaptureFrequency()).isBetween(0.0, 1.0);
+            assertThat(s.getExtraTurnFrequency()).isPositive().isLessThan(1);
+        }
+        // two random players with 6 pits of 6 stones: the first player wins about half of the games
+        assertThat(stats.get(0).getFirstPlayerWinRate()).isBetween(0.4, 0.6);
+        assertThat(stats.get(0).getCaptureFrequency()).isPositive();
+    }
+
+    @Test
+    void shouldTakeMoreExtraTurnsWithExtraTurnPolicy() {
+        List<SimulationConfig> variant = List.of(new SimulationConfig(2, 6, 4, 5_000));
+
+        double random = new SelfPlaySimulator(MovePolicy.RANDOM, 2).run(variant, 1).get(0).getExtraTurnFrequency();
+        double greedy = new SelfPlaySimulator(MovePolicy.EXTRA_TURN, 2).run(variant, 1).get(0).getExtraTurnFrequency();
+
+        assertThat(greedy).isGreaterThan(random);
+    }
+
+    @Test
+    void shouldWriteCsvLinePerVariant() {
+        String csv = csv(new SelfPlaySimulator(MovePolicy.RANDOM, 1).run(configs.subList(0, 1), 1));
+
+        String[] lines = csv.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).isEqualTo(SelfPlaySimulator.CSV_HEADER);
+        assertThat(lines[1]).startsWith("2,6,6,10000,");
+        assertThat(lines[1].split(",")).hasSize(9);
+    }
+
+    @Test
+    void shouldRejectInvalidVariant() {
+        assertThrows(IllegalArgumentException.class, () -> SimulationConfig.parse("7:6:6", 1));
+        assertThrows(IllegalArgumentException.class, () -> SimulationConfig.parse("2:6", 1));
+    }
+
+    private static String csv(List<SimulationStats> stats) {
+        StringBuilder out = new StringBuilder();
+        SelfPlaySimulator.writeCsv(stats, out);
+        return out.toString();
+    }
+}